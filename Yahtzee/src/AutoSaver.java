@@ -0,0 +1,128 @@
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * AutoSaver.java
+ *
+ * This class saves a game every time the turn changes. the game is
+ * packed on the thread that changed it, which takes well under a
+ * microsecond, and the file is written by a thread of its own, so the
+ * gui never waits on the disk. if the turn changes again before a save
+ * has been written, only the newest state is written
+ *
+ * @author Robert Kenney
+ */
+public class AutoSaver implements GameListener {
+
+    /** the file the game is saved to */
+    private File file;
+
+    /** the thread the saves are written on */
+    private ExecutorService writer;
+
+    /** the newest packed game waiting to be written, null if there is none */
+    private AtomicReference<long[]> pending;
+
+    /**
+     * This is the constructor which sets up saving to a file
+     * @param file the file to save to
+    */
+    public AutoSaver(File file){
+        this.file = file;
+        pending = new AtomicReference<long[]>();
+        writer = Executors.newSingleThreadExecutor(new ThreadFactory(){
+            public Thread newThread(Runnable task){
+                Thread thread = new Thread(task, "autosave");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * saves the game, as the turn has changed
+     * @param game the game
+     */
+    public void turnChanged(Yahtzee game){
+        long[] state = game.snapshot(new long[PackedGameState.getLength(game.getNumPlayers())]);
+        if(pending.getAndSet(state) == null){
+            writer.execute(new Runnable(){
+                public void run(){
+                    writePending();
+                }
+            });
+        }
+    }
+
+    /**
+     * saves the game, as it has been set back to a saved state
+     * @param game the game
+     */
+    public void gameRestored(Yahtzee game){
+        turnChanged(game);
+    }
+
+    /**
+     * writes the newest packed game to the file
+     */
+    private void writePending(){
+        long[] state = pending.getAndSet(null);
+        if(state == null){
+            return;
+        }
+        try {
+            GameSave.write(state, file);
+        } catch(IOException e){
+            System.err.println("Could not save the game to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * deletes the save, once the game is over, after any saves waiting to be written
+     */
+    public void delete(){
+        pending.set(null);
+        writer.execute(new Runnable(){
+            public void run(){
+                file.delete();
+            }
+        });
+    }
+
+    /**
+     * waits for the saves waiting to be written and stops the thread writing them
+     */
+    public void close(){
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * does nothing, the game is only saved when the turn changes
+     * @param game the game
+     */
+    public void diceRolled(Yahtzee game){
+    }
+
+    /**
+     * does nothing, the game is only saved when the turn changes
+     * @param game the game
+     * @param die the index of the die
+     */
+    public void dieHeldToggled(Yahtzee game, int die){
+    }
+
+    /**
+     * does nothing, the game is only saved when the turn changes
+     * @param game the game
+     * @param category the index of the category
+     * @param scratch whether the category was scratched
+     */
+    public void categoryScored(Yahtzee game, int category, boolean scratch){
+    }
+}
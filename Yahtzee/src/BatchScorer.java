@@ -0,0 +1,170 @@
+import java.util.*;
+
+/**
+ * BatchScorer.java
+ *
+ * This class scores a large number of hands in every category at once.
+ * the dice are laid out as one array per die, and the scores as one array
+ * per category, so every loop walks straight along arrays of primitives.
+ * the loops are written without branches, every test being turned into
+ * arithmetic on the sign bit, so the JIT can compile each of them into
+ * vector instructions working on many hands at a time
+ *
+ * the hands are worked through in blocks, first adding up the dice and
+ * packing how many dice show each face into one int, three bits to a
+ * face, then working out every category from the counts, in the same
+ * way the Yahtzee class does, so the scores are the same as
+ * scoreXxx() would give. in particular, the run of consecutive values
+ * is one more than the number of faces present alongside the next face
+ * up, as getNumConcecutiveValues() counts it. the yahtzee bonus depends on
+ * the player rather than the dice, so it is not scored
+ *
+ * @author Robert Kenney
+ */
+public class BatchScorer {
+
+    /** the number of hands worked on at a time, so a block of scores stays in the cache between loops */
+    public static final int BLOCK_SIZE = 1024;
+
+    /** the number of bits the count of each face takes in a packed count */
+    private static final int COUNT_BITS = 3;
+
+    /** the mask of the count of one face, once shifted down */
+    private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+
+    /** the bit of a hand's features set if three dice show the same face */
+    private static final int THREE_OF_A_KIND_BIT = 0;
+
+    /** the bit of a hand's features set if four dice show the same face */
+    private static final int FOUR_OF_A_KIND_BIT = 1;
+
+    /** the bit of a hand's features set if every die shows the same face */
+    private static final int YAHTZEE_BIT = 2;
+
+    /** the bit of a hand's features set if exactly three dice show the same face */
+    private static final int THREE_BIT = 3;
+
+    /** the shift of the number of faces shown by exactly two dice, in a hand's features */
+    private static final int TWOS_SHIFT = 4;
+
+    /** the shift of the number of faces shown along with the face below, in a hand's features */
+    private static final int RUN_SHIFT = 8;
+
+    /** the mask of a count in a hand's features, once shifted down */
+    private static final int FIELD_MASK = 0xf;
+
+    /**
+     * This class only holds static methods
+     */
+    private BatchScorer(){
+    }
+
+    /**
+     * returns one if a number is zero, zero otherwise
+     * @param value a number from 0 to Integer.MAX_VALUE
+     * @return one if the number is zero
+     */
+    private static int isZero(int value){
+        return (value - 1) >>> 31;
+    }
+
+    /**
+     * returns one if a number is more than zero, zero otherwise
+     * @param value a number from 0 to Integer.MAX_VALUE
+     * @return one if the number is more than zero
+     */
+    private static int isPositive(int value){
+        return -value >>> 31;
+    }
+
+    /**
+     * scores hands in every category but the yahtzee bonus
+     * @param dice the value of each die of each hand, dice[die][hand], every value from 1 to 6
+     * @param scores filled with the points of each hand in each category, scores[category][hand]
+     * @param numHands the number of hands to score, from the start of the arrays
+     */
+    public static void score(byte[][] dice, int[][] scores, int numHands){
+        if(dice.length != Yahtzee.NUM_DICE || scores.length < ScoreTable.NUM_CATEGORIES){
+            throw new IllegalArgumentException("Expected " + Yahtzee.NUM_DICE + " arrays of dice and "
+                    + ScoreTable.NUM_CATEGORIES + " arrays of scores");
+        }
+        for(int start = 0; start < numHands; start += BLOCK_SIZE){
+            scoreBlock(dice, scores, start, Math.min(start + BLOCK_SIZE, numHands));
+        }
+    }
+
+    /**
+     * scores one block of hands. until the last loops, the score arrays of
+     * yahtzee and four of a kind hold the packed counts of each hand and
+     * what has been learned from them. every loop writes a single array,
+     * and reads every array at the same index it writes, which is what the
+     * JIT needs to see that the hands are independent of each other
+     * @param dice the value of each die of each hand
+     * @param scores the points of each hand in each category
+     * @param start the index of the first hand of the block
+     * @param end the index after the last hand of the block
+     */
+    private static void scoreBlock(byte[][] dice, int[][] scores, int start, int end){
+        byte[] die0 = dice[0];
+        byte[] die1 = dice[1];
+        byte[] die2 = dice[2];
+        byte[] die3 = dice[3];
+        byte[] die4 = dice[4];
+        int[] chance = scores[Yahtzee.CHANCE];
+        int[] packedCounts = scores[Yahtzee.YAHTZEE];
+        int[] features = scores[Yahtzee.FOUR_OF_A_KIND];
+
+        for(int i = start; i < end; i++){
+            chance[i] = die0[i] + die1[i] + die2[i] + die3[i] + die4[i];
+        }
+        for(int i = start; i < end; i++){
+            packedCounts[i] = (1 << (die0[i] * COUNT_BITS)) + (1 << (die1[i] * COUNT_BITS)) + (1 << (die2[i] * COUNT_BITS))
+                    + (1 << (die3[i] * COUNT_BITS)) + (1 << (die4[i] * COUNT_BITS));
+        }
+
+        Arrays.fill(features, start, end, 0);
+        for(int value = 1; value <= Die.MAX_DIE_VALUE; value++){
+            int[] numeric = scores[value - 1];
+            int shift = value * COUNT_BITS;
+            for(int i = start; i < end; i++){
+                numeric[i] = ((packedCounts[i] >>> shift) & COUNT_MASK) * value;
+            }
+            for(int i = start; i < end; i++){
+                int count = (packedCounts[i] >>> shift) & COUNT_MASK;
+                features[i] |= (2 - count) >>> 31 << THREE_OF_A_KIND_BIT
+                        | (3 - count) >>> 31 << FOUR_OF_A_KIND_BIT
+                        | (4 - count) >>> 31 << YAHTZEE_BIT
+                        | isZero(count ^ 3) << THREE_BIT;
+            }
+            for(int i = start; i < end; i++){
+                int counts = packedCounts[i] >>> (shift - COUNT_BITS);
+                int count = (counts >>> COUNT_BITS) & COUNT_MASK;
+                features[i] += isZero(count ^ 2) << TWOS_SHIFT
+                        | (isPositive(count) & isPositive(counts & COUNT_MASK)) << RUN_SHIFT;
+            }
+        }
+
+        int[] threeOfAKind = scores[Yahtzee.THREE_OF_A_KIND];
+        int[] fullHouse = scores[Yahtzee.FULL_HOUSE];
+        int[] smallStraight = scores[Yahtzee.SMALL_STRAIGHT];
+        int[] largeStraight = scores[Yahtzee.LARGE_STRAIGHT];
+        for(int i = start; i < end; i++){
+            threeOfAKind[i] = chance[i] * ((features[i] >>> THREE_OF_A_KIND_BIT) & 1);
+        }
+        for(int i = start; i < end; i++){
+            fullHouse[i] = Yahtzee.FULL_HOUSE_SCORE * ((features[i] >>> THREE_BIT) & isPositive((features[i] >>> TWOS_SHIFT) & FIELD_MASK));
+        }
+        for(int i = start; i < end; i++){
+            smallStraight[i] = Yahtzee.SMALL_STRAIGHT_SCORE * ((2 - (features[i] >>> RUN_SHIFT)) >>> 31);
+        }
+        for(int i = start; i < end; i++){
+            largeStraight[i] = Yahtzee.LARGE_STRAIGHT_SCORE * ((3 - (features[i] >>> RUN_SHIFT)) >>> 31);
+        }
+        for(int i = start; i < end; i++){
+            packedCounts[i] = Yahtzee.YAHTZEE_SCORE * ((features[i] >>> YAHTZEE_BIT) & 1);
+        }
+        for(int i = start; i < end; i++){
+            features[i] = chance[i] * ((features[i] >>> FOUR_OF_A_KIND_BIT) & 1);
+        }
+    }
+}
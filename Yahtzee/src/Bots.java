@@ -0,0 +1,39 @@
+/**
+ * Bots.java
+ *
+ * This class makes the computer players that come with the game by name,
+ * so they can be picked on the command line and in the gui
+ *
+ * @author Robert Kenney
+ */
+public class Bots {
+
+    /** the names of the computer players, from weakest to strongest */
+    public static final String[] NAMES = {"Greedy", "Heuristic", "Optimal", "Endgame"};
+
+    /**
+     * This class only holds static methods
+     */
+    private Bots(){
+    }
+
+    /**
+     * makes a computer player
+     * @param name one of NAMES, in any case, or the class name of a strategy with a constructor taking no arguments
+     * @return the strategy
+     * @throws ReflectiveOperationException if there is no such strategy
+     * @throws IllegalStateException if the optimal player is picked before YahtzeeSolver has been run
+     */
+    public static Strategy create(String name) throws ReflectiveOperationException {
+        if(name.equalsIgnoreCase("greedy")){
+            return new GreedyStrategy();
+        } else if(name.equalsIgnoreCase("heuristic")){
+            return new HeuristicStrategy();
+        } else if(name.equalsIgnoreCase("optimal")){
+            return new OptimalStrategy();
+        } else if(name.equalsIgnoreCase("endgame")){
+            return new EndgameStrategy();
+        }
+        return (Strategy) Class.forName(name).getDeclaredConstructor().newInstance();
+    }
+}
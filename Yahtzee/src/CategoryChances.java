@@ -0,0 +1,148 @@
+/**
+ * CategoryChances.java
+ *
+ * This class works out the exact chance of ending a turn with dice that
+ * score in each category. a hand counts as making a category if it would
+ * score more than zero points there, so for the numeric categories it is
+ * the chance of rolling at least one die of that value
+ *
+ * the rows of the transition matrix between hands are the outcome lists
+ * of KeepTable, one row for every keep, which covers rerolling from none
+ * to all five dice. the chance of making each category from each hand,
+ * playing for that category alone, is worked out from them when the class
+ * loads, so a question about the dice in a game is one short sum over the
+ * outcomes of the dice being held
+ *
+ * the chances depend only on the dice, not on the scorecard, so the
+ * tables are shared by every game and safe to read from any thread
+ *
+ * @author Robert Kenney
+ */
+public class CategoryChances {
+
+    /** keeps the held dice for every roll left, rolling the rest until the category is made */
+    public static final int FIXED_HOLDS = 0;
+
+    /** keeps the held dice for the next roll, then holds whichever dice give the best chance of the category */
+    public static final int BEST_HOLDS = 1;
+
+    /** the chance of making each category from each hand with 0, 1 and 2 rolls left, playing for it as well as possible */
+    private static final double[] HAND_CHANCES = new double[Yahtzee.ROLLS_PER_TURN * ScoreTable.NUM_CATEGORIES * ScoreTable.NUM_HANDS];
+
+    static {
+        for(int category = 0; category < ScoreTable.NUM_CATEGORIES; category++){
+            for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+                HAND_CHANCES[index(0, category, hand)] = ScoreTable.getScore(hand, category) > 0 ? 1 : 0;
+            }
+        }
+        double[] keepChances = new double[KeepTable.NUM_KEEPS];
+        for(int rollsLeft = 1; rollsLeft < Yahtzee.ROLLS_PER_TURN; rollsLeft++){
+            for(int category = 0; category < ScoreTable.NUM_CATEGORIES; category++){
+                for(int keep = 0; keep < KeepTable.NUM_KEEPS; keep++){
+                    keepChances[keep] = roll(category, keep, rollsLeft - 1);
+                }
+                for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+                    double best = 0;
+                    for(int sub = KeepTable.getSubKeepStart(hand); sub < KeepTable.getSubKeepEnd(hand); sub++){
+                        best = Math.max(best, keepChances[KeepTable.getSubKeep(sub)]);
+                    }
+                    HAND_CHANCES[index(rollsLeft, category, hand)] = best;
+                }
+            }
+        }
+    }
+
+    /**
+     * This class only holds static methods
+     */
+    private CategoryChances(){
+    }
+
+    /**
+     * gets the position of a hand's chance in HAND_CHANCES
+     * @param rollsLeft the number of rolls left in the turn
+     * @param category the index of the category
+     * @param hand the index of the hand
+     * @return the position in the table
+     */
+    private static int index(int rollsLeft, int category, int hand){
+        return (rollsLeft * ScoreTable.NUM_CATEGORIES + category) * ScoreTable.NUM_HANDS + hand;
+    }
+
+    /**
+     * works out the chance of making a category by rolling the dice not held in a keep once
+     * @param category the index of the category
+     * @param keep the index of the keep
+     * @param rollsLeft the number of rolls left after this one
+     * @return the chance of the category
+     */
+    private static double roll(int category, int keep, int rollsLeft){
+        double chance = 0;
+        for(int outcome = KeepTable.getOutcomeStart(keep); outcome < KeepTable.getOutcomeEnd(keep); outcome++){
+            chance += KeepTable.getOutcomeWays(outcome) * HAND_CHANCES[index(rollsLeft, category, KeepTable.getOutcomeHand(outcome))];
+        }
+        return chance / KeepTable.getNumRolls(keep);
+    }
+
+    /**
+     * gets the chance of making a category from a hand, choosing what to hold as well as possible
+     * @param category the index of the category, not the yahtzee bonus
+     * @param hand the index of the hand
+     * @param rollsLeft the number of rolls left in the turn, from 0 to 2
+     * @return the chance of the category, from 0 to 1
+     */
+    public static double getHandChance(int category, int hand, int rollsLeft){
+        return HAND_CHANCES[index(rollsLeft, category, hand)];
+    }
+
+    /**
+     * gets the chance of making a category by holding a keep and rolling the rest of the dice
+     * @param category the index of the category, not the yahtzee bonus
+     * @param keep the index of the keep, see KeepTable
+     * @param rollsLeft the number of rolls left in the turn, including the next one, from 1 to 3
+     * @param strategy how the dice are held after the next roll, FIXED_HOLDS or BEST_HOLDS
+     * @return the chance of the category, from 0 to 1
+     */
+    public static double getKeepChance(int category, int keep, int rollsLeft, int strategy){
+        if(strategy == BEST_HOLDS){
+            return roll(category, keep, rollsLeft - 1);
+        }
+        double miss = 1 - roll(category, keep, 0);
+        return 1 - Math.pow(miss, rollsLeft);
+    }
+
+    /**
+     * gets the chance of the current player ending the turn with dice
+     * making each category, starting from the dice and holds as they are now
+     * @param game the game
+     * @param strategy how the dice are held after the next roll, FIXED_HOLDS or BEST_HOLDS
+     * @return the chance of each category but the yahtzee bonus, from 0 to 1
+     */
+    public static double[] getChances(Yahtzee game, int strategy){
+        Player player = game.getCurrentPlayer();
+        double[] chances = new double[ScoreTable.NUM_CATEGORIES];
+        int hand = game.getHand();
+        if(!player.canRoll()){
+            for(int category = 0; category < ScoreTable.NUM_CATEGORIES && hand >= 0; category++){
+                chances[category] = getHandChance(category, hand, 0);
+            }
+            return chances;
+        }
+
+        int keep = KeepTable.EMPTY_KEEP;
+        if(player.getCurrentTurnRollCount() > 0 && hand >= 0){
+            int holds = 0;
+            for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+                if(game.getDie(die).isHeld()){
+                    holds |= 1 << die;
+                }
+            }
+            keep = KeepTable.getKeep(game, holds);
+        }
+        int rollsLeft = Yahtzee.ROLLS_PER_TURN - player.getCurrentTurnRollCount();
+        for(int category = 0; category < ScoreTable.NUM_CATEGORIES; category++){
+            chances[category] = getKeepChance(category, keep, rollsLeft, strategy);
+        }
+        return chances;
+    }
+}
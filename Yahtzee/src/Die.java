@@ -21,11 +21,24 @@ public class Die {
     /** the amount of times the die has been rolled this turn*/
     private int currentTurnRollCount;
 
+    /** the random number generator the die draws its values from, shared with the other dice in the game */
+    private SplittableRandom random;
+
     /**
      * This is the constructor which initializes a die
-     * and its instance variables.
+     * with a random number generator of its own.
     */
     public Die(){
+        this(new SplittableRandom());
+    }
+
+    /**
+     * This is the constructor which initializes a die
+     * and its instance variables.
+     * @param random the random number generator to roll with
+    */
+    public Die(SplittableRandom random){
+        this.random = random;
         held = false;
         value = 0;
         currentTurnRollCount = 0;
@@ -54,11 +67,32 @@ public class Die {
      * and adding to the roll count
      */
     public void roll(){
-        Random rand = new Random();
-        value = rand.nextInt(MAX_DIE_VALUE) + 1;
+        value = random.nextInt(MAX_DIE_VALUE) + 1;
         currentTurnRollCount++;
     }
 
+    /**
+     * rolls the die to a known value, as when replaying
+     * a recorded roll or looking at every possible roll
+     * @param value the value the die lands on
+     */
+    public void roll(int value){
+        this.value = value;
+        currentTurnRollCount++;
+    }
+
+    /**
+     * sets the die back to a saved state, see PackedGameState
+     * @param value the value of the die, zero if it has not been rolled
+     * @param held whether the die is held
+     * @param currentTurnRollCount the amount of times the die has been rolled this turn
+     */
+    public void restore(int value, boolean held, int currentTurnRollCount){
+        this.value = value;
+        this.held = held;
+        this.currentTurnRollCount = currentTurnRollCount;
+    }
+
     /**
      * toggles wheter the die is being held or not
      */
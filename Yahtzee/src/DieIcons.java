@@ -0,0 +1,96 @@
+import javax.swing.*;
+import java.net.*;
+
+/**
+ * DieIcons.java
+ *
+ * This class loads the images in the dice folder once, when the class is
+ * first used, and hands out the same icons from then on, so updating the
+ * gui never touches the disk. the images are looked up on the classpath,
+ * so they are found inside a jar, and then in the dice folder of the
+ * working directory when running straight from the source tree
+ *
+ * @author Robert Kenney
+ */
+public class DieIcons {
+
+    /** the folder holding the images */
+    public static final String FOLDER = "dice/";
+
+    /** the file extension of the images */
+    public static final String FILE_EXTENSION = ".png";
+
+    /** the image of a die that has not been rolled */
+    private static final ImageIcon BLANK = load("blank");
+
+    /** the image of a check mark */
+    private static final ImageIcon CHECK_MARK = load("check");
+
+    /** an icon with no image, for unscored categories */
+    private static final ImageIcon EMPTY = new ImageIcon();
+
+    /** the image of each face of a die, by value */
+    private static final ImageIcon[] FACES = new ImageIcon[Die.MAX_DIE_VALUE + 1];
+
+    /** the image of each face of a held die, by value */
+    private static final ImageIcon[] HELD_FACES = new ImageIcon[Die.MAX_DIE_VALUE + 1];
+
+    static {
+        FACES[0] = BLANK;
+        HELD_FACES[0] = BLANK;
+        for(int value = 1; value <= Die.MAX_DIE_VALUE; value++){
+            FACES[value] = load(Integer.toString(value));
+            HELD_FACES[value] = load("held" + value);
+        }
+    }
+
+    /**
+     * loads one of the images
+     * @param name the name of the image, without the folder or extension
+     * @return the icon
+     */
+    private static ImageIcon load(String name){
+        URL url = DieIcons.class.getResource("/" + FOLDER + name + FILE_EXTENSION);
+        if(url != null){
+            return new ImageIcon(url);
+        }
+        return new ImageIcon(FOLDER + name + FILE_EXTENSION);
+    }
+
+    /**
+     * gets the image of a die
+     * @param value the value of the die, zero if it has not been rolled
+     * @param held whether the die is held
+     * @return the icon
+     */
+    public static ImageIcon getFace(int value, boolean held){
+        if(held){
+            return HELD_FACES[value];
+        }
+        return FACES[value];
+    }
+
+    /**
+     * gets the image of a die that has not been rolled
+     * @return the icon
+     */
+    public static ImageIcon getBlank(){
+        return BLANK;
+    }
+
+    /**
+     * gets the image of a check mark
+     * @return the icon
+     */
+    public static ImageIcon getCheckMark(){
+        return CHECK_MARK;
+    }
+
+    /**
+     * gets the icon with no image
+     * @return the icon
+     */
+    public static ImageIcon getEmpty(){
+        return EMPTY;
+    }
+}
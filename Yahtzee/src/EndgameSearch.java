@@ -0,0 +1,490 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * EndgameSearch.java
+ *
+ * This class searches the last turns of a player's game all the way to
+ * the end, over every roll of the dice, every keep and every category,
+ * and values each scorecard by a utility of the final score. with the
+ * final score itself as the utility the search plays for the highest
+ * expected score. with the chance of the final score beating the other
+ * players as the utility it plays to win
+ *
+ * a state is the packed scorecard at the start of a turn: the scored
+ * categories, the numeric subtotal, whether a yahtzee has been scored and
+ * the total so far. the value of each state is kept in a
+ * TranspositionCache under the search's context, so scorecards reached in
+ * a different order are only searched once, and searches with the same
+ * context share their work
+ *
+ * the search keeps no state of its own, so it can be used by any number
+ * of threads. the states a turn can lead to are searched in parallel
+ * when asked, which spreads the work of a decision over the common
+ * fork join pool
+ *
+ * @author Robert Kenney
+ */
+public class EndgameSearch {
+
+    /** the context of the search for the highest expected score, which is the same in every game */
+    public static final long EXPECTED_SCORE = 0;
+
+    /** the fewest states to search on one thread before splitting them */
+    private static final int MIN_TASK_STATES = 4;
+
+    /** the utility of each final score, the last counting for every higher score, or null to use the score itself */
+    private float[] utility;
+
+    /** what the utility depends on, told apart in the cache */
+    private long context;
+
+    /** the values of the states searched */
+    private TranspositionCache cache;
+
+    /**
+     * This is the constructor which initializes a search for the highest expected score
+     * @param cache the cache of values
+    */
+    public EndgameSearch(TranspositionCache cache){
+        this(null, EXPECTED_SCORE, cache);
+    }
+
+    /**
+     * This is the constructor which initializes a search for the highest expected utility
+     * @param utility the utility of each final score, the last counting for every higher score
+     * @param context a number that differs between utilities, never EXPECTED_SCORE
+     * @param cache the cache of values
+    */
+    public EndgameSearch(float[] utility, long context, TranspositionCache cache){
+        this.utility = utility;
+        this.context = context;
+        this.cache = cache;
+    }
+
+    /**
+     * packs a scorecard into a state
+     * @param scored the mask of scored categories
+     * @param upper the numeric subtotal
+     * @param yahtzee whether a yahtzee has been scored for points
+     * @param total the total score so far
+     * @return the state
+     */
+    public static long pack(int scored, int upper, boolean yahtzee, int total){
+        upper = Math.min(upper, Yahtzee.POINTS_NEEDED_FOR_BONUS);
+        return (scored & Player.ALL_CATEGORIES) | (long) upper << 13 | (yahtzee ? 1L << 19 : 0) | (long) total << 20;
+    }
+
+    /**
+     * packs a player's scorecard into a state
+     * @param player the player
+     * @return the state
+     */
+    public static long pack(Player player){
+        return pack(player.getScoredCategories(), player.getTopScore(), player.hasYahtzee(), player.getTotalScore());
+    }
+
+    /**
+     * gets the scored categories of a state
+     * @param state the state
+     * @return the mask of scored categories
+     */
+    public static int getScored(long state){
+        return (int) state & Player.ALL_CATEGORIES;
+    }
+
+    /**
+     * gets the numeric subtotal of a state
+     * @param state the state
+     * @return the subtotal, no more than the points needed for the bonus
+     */
+    public static int getUpper(long state){
+        return (int) (state >>> 13) & 0x3F;
+    }
+
+    /**
+     * gets whether a yahtzee has been scored in a state
+     * @param state the state
+     * @return true if a yahtzee has been scored for points, false otherwise
+     */
+    public static boolean hasYahtzee(long state){
+        return (state & 1L << 19) != 0;
+    }
+
+    /**
+     * gets the total score of a state
+     * @param state the state
+     * @return the total score so far
+     */
+    public static int getTotal(long state){
+        return (int) (state >>> 20);
+    }
+
+    /**
+     * gets the number of turns left in a state
+     * @param state the state
+     * @return the number of categories not scored
+     */
+    public static int getTurnsLeft(long state){
+        return Yahtzee.YAHTZEE_BONUS - Integer.bitCount(getScored(state));
+    }
+
+    /**
+     * gets the highest total a state can end the game with
+     * @param state the state
+     * @return the highest final score
+     */
+    public static int getMaxTotal(long state){
+        return getTotal(state) + getTurnsLeft(state) * Yahtzee.YAHTZEE_BONUS_SCORE + Yahtzee.BONUS;
+    }
+
+    /**
+     * gets the state after scoring a hand in a category
+     * @param state the state at the start of the turn
+     * @param category the index of an unscored category
+     * @param hand the index of the final hand
+     * @return the state at the start of the next turn
+     */
+    public static long score(long state, int category, int hand){
+        int points = ScoreTable.getScore(hand, category);
+        int upper = getUpper(state);
+        int total = getTotal(state) + points;
+        if(category < Die.MAX_DIE_VALUE){
+            if(upper < Yahtzee.POINTS_NEEDED_FOR_BONUS && upper + points >= Yahtzee.POINTS_NEEDED_FOR_BONUS){
+                total += Yahtzee.BONUS;
+            }
+            upper += points;
+        }
+        boolean yahtzee = hasYahtzee(state) || category == Yahtzee.YAHTZEE && points > 0;
+        return pack(getScored(state) | 1 << category, upper, yahtzee, total);
+    }
+
+    /**
+     * gets the state after scratching a category
+     * @param state the state at the start of the turn
+     * @param category the index of an unscored category
+     * @param points the points scored this turn besides the category, the yahtzee bonus or none
+     * @return the state at the start of the next turn
+     */
+    public static long scratch(long state, int category, int points){
+        return pack(getScored(state) | 1 << category, getUpper(state), hasYahtzee(state), getTotal(state) + points);
+    }
+
+    /**
+     * gets the state after taking a yahtzee bonus, before a category is scratched for it
+     * @param state the state at the start of the turn
+     * @return the state with the bonus added to the total
+     */
+    public static long addYahtzeeBonus(long state){
+        return state + ((long) Yahtzee.YAHTZEE_BONUS_SCORE << 20);
+    }
+
+    /**
+     * gets the utility of a final score
+     * @param total the final score
+     * @return the utility
+     */
+    private float getUtility(int total){
+        if(utility == null){
+            return total;
+        }
+        return utility[Math.min(total, utility.length - 1)];
+    }
+
+    /**
+     * gets the value of a state, the utility the player can expect to end with from the start of the turn
+     * @param state the state
+     * @return the expected utility of the final score
+     */
+    public float getValue(long state){
+        if(getScored(state) == Player.ALL_CATEGORIES){
+            return getUtility(getTotal(state));
+        }
+        float value = cache.get(state, context);
+        if(Float.isNaN(value)){
+            value = evaluateTurn(state, false)[Yahtzee.ROLLS_PER_TURN][KeepTable.EMPTY_KEEP];
+            cache.put(state, context, value);
+        }
+        return value;
+    }
+
+    /**
+     * works out the value of every keep in a turn, backwards from the end
+     * of the turn as TurnEvaluator does, with the value of each category
+     * searched to the end of the game
+     * @param state the state at the start of the turn
+     * @param parallel whether to search the states the turn can lead to in parallel first
+     * @return the value of each keep with 1, 2 and 3 rolls left, including the roll about to be made
+     */
+    public float[][] evaluateTurn(long state, boolean parallel){
+        if(parallel){
+            Set<Long> next = new HashSet<Long>();
+            for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+                addSuccessors(state, hand, next);
+            }
+            search(next);
+        }
+        float[][] handValues = new float[Yahtzee.ROLLS_PER_TURN][ScoreTable.NUM_HANDS];
+        float[][] keepValues = new float[Yahtzee.ROLLS_PER_TURN + 1][KeepTable.NUM_KEEPS];
+        for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+            handValues[0][hand] = getValue(getSuccessor(state, hand, getBestCategory(state, hand)));
+        }
+        for(int rollsLeft = 1; rollsLeft <= Yahtzee.ROLLS_PER_TURN; rollsLeft++){
+            float[] keeps = keepValues[rollsLeft];
+            float[] hands = handValues[rollsLeft - 1];
+            for(int keep = 0; keep < KeepTable.NUM_KEEPS; keep++){
+                if(KeepTable.getSize(keep) == Yahtzee.NUM_DICE){
+                    keeps[keep] = hands[KeepTable.getHand(keep)];
+                } else {
+                    float sum = 0;
+                    for(int value = 1; value <= Die.MAX_DIE_VALUE; value++){
+                        sum += keeps[KeepTable.add(keep, value)];
+                    }
+                    keeps[keep] = sum / Die.MAX_DIE_VALUE;
+                }
+            }
+            if(rollsLeft < Yahtzee.ROLLS_PER_TURN){
+                float[] next = handValues[rollsLeft];
+                for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+                    next[hand] = keeps[getBestKeep(keepValues, rollsLeft, hand)];
+                }
+            }
+        }
+        return keepValues;
+    }
+
+    /**
+     * gets the best keep to hold from a hand before rolling again
+     * @param keepValues the values of the keeps from evaluateTurn()
+     * @param rollsLeft the number of rolls left in the turn, including the next one
+     * @param hand the index of the hand
+     * @return the index of the best keep, the whole hand if the player should stop rolling
+     */
+    public static int getBestKeep(float[][] keepValues, int rollsLeft, int hand){
+        float best = Float.NEGATIVE_INFINITY;
+        int bestKeep = KeepTable.getFullKeep(hand);
+        for(int sub = KeepTable.getSubKeepStart(hand); sub < KeepTable.getSubKeepEnd(hand); sub++){
+            int keep = KeepTable.getSubKeep(sub);
+            if(keepValues[rollsLeft][keep] > best){
+                best = keepValues[rollsLeft][keep];
+                bestKeep = keep;
+            }
+        }
+        return bestKeep;
+    }
+
+    /**
+     * gets the best category for a final hand
+     * @param state the state at the start of the turn
+     * @param hand the index of the final hand
+     * @return the index of the category, the yahtzee bonus if it should be taken
+     */
+    public int getBestCategory(long state, int hand){
+        float best = Float.NEGATIVE_INFINITY;
+        int bestCategory = -1;
+        for(int category = 0; category < Yahtzee.YAHTZEE_BONUS; category++){
+            if((getScored(state) & 1 << category) == 0){
+                float value = getValue(score(state, category, hand));
+                if(value > best){
+                    best = value;
+                    bestCategory = category;
+                }
+            }
+        }
+        if(canYahtzeeBonus(state, hand)){
+            long bonused = addYahtzeeBonus(state);
+            if(getValue(scratch(bonused, getBonusScratch(bonused), 0)) > best){
+                bestCategory = Yahtzee.YAHTZEE_BONUS;
+            }
+        }
+        return bestCategory;
+    }
+
+    /**
+     * gets the category to give up after taking a yahtzee bonus
+     * @param state the state with the bonus already added to the total
+     * @return the index of the category to scratch
+     */
+    public int getBonusScratch(long state){
+        float best = Float.NEGATIVE_INFINITY;
+        int bestCategory = -1;
+        for(int category = 0; category < Yahtzee.YAHTZEE_BONUS; category++){
+            if((getScored(state) & 1 << category) == 0){
+                float value = getValue(scratch(state, category, 0));
+                if(value > best){
+                    best = value;
+                    bestCategory = category;
+                }
+            }
+        }
+        return bestCategory;
+    }
+
+    /**
+     * checks whether a final hand earns a yahtzee bonus
+     * @param state the state at the start of the turn
+     * @param hand the index of the final hand
+     * @return true if the hand is a yahtzee and one has been scored for points, false otherwise
+     */
+    private static boolean canYahtzeeBonus(long state, int hand){
+        return hasYahtzee(state) && ScoreTable.getScore(hand, Yahtzee.YAHTZEE) > 0;
+    }
+
+    /**
+     * gets the state a final hand leads to
+     * @param state the state at the start of the turn
+     * @param hand the index of the final hand
+     * @param category the category chosen, or the yahtzee bonus, after which the best category is scratched
+     * @return the state at the start of the next turn
+     */
+    public long getSuccessor(long state, int hand, int category){
+        if(category == Yahtzee.YAHTZEE_BONUS){
+            long bonused = addYahtzeeBonus(state);
+            return scratch(bonused, getBonusScratch(bonused), 0);
+        }
+        return score(state, category, hand);
+    }
+
+    /**
+     * adds every state a final hand can lead to
+     * @param state the state at the start of the turn
+     * @param hand the index of the final hand
+     * @param next the states, added to
+     */
+    public static void addSuccessors(long state, int hand, Set<Long> next){
+        for(int category = 0; category < Yahtzee.YAHTZEE_BONUS; category++){
+            if((getScored(state) & 1 << category) == 0){
+                next.add(score(state, category, hand));
+                if(canYahtzeeBonus(state, hand)){
+                    next.add(scratch(state, category, Yahtzee.YAHTZEE_BONUS_SCORE));
+                }
+            }
+        }
+    }
+
+    /**
+     * searches states in parallel, leaving their values in the cache
+     * @param states the states
+     */
+    public void search(Collection<Long> states){
+        long[] list = new long[states.size()];
+        int i = 0;
+        for(long state : states){
+            list[i++] = state;
+        }
+        new SearchTask(list, 0, list.length).invoke();
+    }
+
+    /**
+     * works out the chance of each final score, playing every turn to the
+     * highest expected utility, by following the chance of each state turn
+     * by turn to the end of the game
+     * @param state the state at the start of the turn
+     * @return the chance of each final score, indexed by the score
+     */
+    public double[] getDistribution(long state){
+        double[] distribution = new double[getMaxTotal(state) + 1];
+        Map<Long, Double> states = new HashMap<Long, Double>();
+        states.put(state, 1.0);
+        while(!states.isEmpty()){
+            Map<Long, Double> next = new HashMap<Long, Double>();
+            for(Map.Entry<Long, Double> entry : states.entrySet()){
+                long current = entry.getKey();
+                double chance = entry.getValue();
+                if(getScored(current) == Player.ALL_CATEGORIES){
+                    distribution[getTotal(current)] += chance;
+                    continue;
+                }
+                double[] hands = getFinalHands(current);
+                for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+                    if(hands[hand] > 0){
+                        long successor = getSuccessor(current, hand, getBestCategory(current, hand));
+                        Double sum = next.get(successor);
+                        next.put(successor, (sum == null ? 0 : sum) + chance * hands[hand]);
+                    }
+                }
+            }
+            states = next;
+        }
+        return distribution;
+    }
+
+    /**
+     * works out the chance of each final hand of a turn, holding the best keep before each roll
+     * @param state the state at the start of the turn
+     * @return the chance of each hand being the one scored
+     */
+    private double[] getFinalHands(long state){
+        float[][] keepValues = evaluateTurn(state, false);
+        double[] hands = new double[ScoreTable.NUM_HANDS];
+        addOutcomes(KeepTable.EMPTY_KEEP, 1, hands);
+        for(int rollsLeft = Yahtzee.ROLLS_PER_TURN - 1; rollsLeft > 0; rollsLeft--){
+            double[] next = new double[ScoreTable.NUM_HANDS];
+            for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+                if(hands[hand] > 0){
+                    addOutcomes(getBestKeep(keepValues, rollsLeft, hand), hands[hand], next);
+                }
+            }
+            hands = next;
+        }
+        return hands;
+    }
+
+    /**
+     * adds the chance of each hand a keep can be rolled into
+     * @param keep the index of the keep held
+     * @param chance the chance of holding the keep
+     * @param hands the chance of each hand, added to
+     */
+    private static void addOutcomes(int keep, double chance, double[] hands){
+        if(KeepTable.getSize(keep) == Yahtzee.NUM_DICE){
+            hands[KeepTable.getHand(keep)] += chance;
+            return;
+        }
+        double rolls = KeepTable.getNumRolls(keep);
+        for(int outcome = KeepTable.getOutcomeStart(keep); outcome < KeepTable.getOutcomeEnd(keep); outcome++){
+            hands[KeepTable.getOutcomeHand(outcome)] += chance * KeepTable.getOutcomeWays(outcome) / rolls;
+        }
+    }
+
+    /**
+     * This class searches a range of states, splitting it in half until it is small
+     */
+    private class SearchTask extends RecursiveAction {
+
+        /** the states */
+        private long[] states;
+
+        /** the first state of the range */
+        private int first;
+
+        /** the state after the last of the range */
+        private int end;
+
+        /**
+         * This is the constructor which initializes a task for a range of states
+         * @param states the states
+         * @param first the first state of the range
+         * @param end the state after the last of the range
+        */
+        private SearchTask(long[] states, int first, int end){
+            this.states = states;
+            this.first = first;
+            this.end = end;
+        }
+
+        /**
+         * searches the range, or splits it between two tasks
+         */
+        protected void compute(){
+            if(end - first > MIN_TASK_STATES){
+                int middle = (first + end) >>> 1;
+                invokeAll(new SearchTask(states, first, middle), new SearchTask(states, middle, end));
+                return;
+            }
+            for(int i = first; i < end; i++){
+                getValue(states[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+import java.util.*;
+
+/**
+ * EndgameStrategy.java
+ *
+ * This class creates a strategy which plays the last turns of a game to
+ * win rather than for points. until then it plays like another strategy,
+ * the optimal player if the expected value table has been written and the
+ * heuristic player if not
+ *
+ * once the current player and every other player have at most a few
+ * turns left, the other players' final scores are worked out exactly,
+ * assuming they play their last turns for the highest expected score.
+ * from those, every final score the current player could reach is given
+ * its chance of beating all of them, a tie counting as half, and an
+ * EndgameSearch picks the holds and the category that give the best
+ * chance of winning. each point also counts for a tiny amount, so a game
+ * that is as good as won or lost is still played for points. with one
+ * player there is no one to beat, so the strategy plays like the other
+ * strategy all game
+ *
+ * every search shares one TranspositionCache, so the work of one decision
+ * is reused by the next decisions of the turn and, for the other players'
+ * scores, by every later game. strategies made without a cache share one
+ * for the whole program, so every seat playing this strategy uses the
+ * same memory
+ *
+ * @author Robert Kenney
+ */
+public class EndgameStrategy implements Strategy {
+
+    /** the number of turns left at which the search takes over */
+    public static final int DEFAULT_DEPTH = 3;
+
+    /** the number of values the shared cache holds, a few times what the three last turns of a game need */
+    public static final int DEFAULT_CACHE_SIZE = 1 << 18;
+
+    /** the utility of each point of the final score besides the chance of winning, so a won or lost game is still played for points */
+    public static final double POINT_UTILITY = 1e-6;
+
+    /** the cache shared by every strategy made without one, made the first time it is needed */
+    private static TranspositionCache sharedCache;
+
+    /** the strategy played before the end of the game */
+    private Strategy strategy;
+
+    /** the most turns any player can have left for the search to take over */
+    private int depth;
+
+    /** the values of every search */
+    private TranspositionCache cache;
+
+    /** the search for the other players' highest expected scores */
+    private EndgameSearch expectedScore;
+
+    /** the search of each thread and the other players' scorecards it was made for */
+    private ThreadLocal<Context> contexts;
+
+    /**
+     * This is the constructor which plays like the optimal player before the
+     * end of the game, or the heuristic player if the expected value table
+     * has not been written
+    */
+    public EndgameStrategy(){
+        this(createStrategy(), DEFAULT_DEPTH, getSharedCache());
+    }
+
+    /**
+     * This is the constructor which initializes the strategy
+     * @param strategy the strategy played before the end of the game
+     * @param depth the most turns any player can have left for the search to take over
+     * @param cache the cache of values, which can be shared with other strategies
+    */
+    public EndgameStrategy(Strategy strategy, int depth, TranspositionCache cache){
+        this.strategy = strategy;
+        this.depth = depth;
+        this.cache = cache;
+        expectedScore = new EndgameSearch(cache);
+        contexts = new ThreadLocal<Context>(){
+            protected Context initialValue(){
+                return new Context();
+            }
+        };
+    }
+
+    /**
+     * gets the cache shared by every strategy made without one. a value
+     * depends only on the scorecard and the other players' scorecards, so
+     * every seat playing this strategy can use the same values
+     * @return the cache, made the first time
+     */
+    public static synchronized TranspositionCache getSharedCache(){
+        if(sharedCache == null){
+            sharedCache = new TranspositionCache(DEFAULT_CACHE_SIZE);
+        }
+        return sharedCache;
+    }
+
+    /**
+     * makes the strategy played before the end of the game
+     * @return the optimal player, or the heuristic player if the expected value table cannot be read
+     */
+    private static Strategy createStrategy(){
+        try {
+            return new OptimalStrategy();
+        } catch(IllegalStateException e){
+            return new HeuristicStrategy();
+        }
+    }
+
+    /**
+     * holds the dice of the keep with the best chance of winning, or plays like the other strategy before the end of the game
+     * @param game the game
+     * @return the mask of the dice to hold
+     */
+    public int chooseHolds(Yahtzee game){
+        if(!isEndgame(game)){
+            return strategy.chooseHolds(game);
+        }
+        Player player = game.getCurrentPlayer();
+        int rollsLeft = Yahtzee.ROLLS_PER_TURN - player.getCurrentTurnRollCount();
+        float[][] keepValues = getSearch(game).evaluateTurn(EndgameSearch.pack(player), true);
+        return KeepTable.getHolds(game, EndgameSearch.getBestKeep(keepValues, rollsLeft, game.getHand()));
+    }
+
+    /**
+     * scores the category with the best chance of winning, or plays like the other strategy before the end of the game
+     * @param game the game
+     * @return the index of the category to score
+     */
+    public int chooseCategory(Yahtzee game){
+        if(!isEndgame(game)){
+            return strategy.chooseCategory(game);
+        }
+        EndgameSearch search = getSearch(game);
+        Player player = game.getCurrentPlayer();
+        long state = EndgameSearch.pack(player);
+        if(player.hasYahtzeeBonusedThisTurn()){
+            return search.getBonusScratch(state);
+        }
+        Set<Long> next = new HashSet<Long>();
+        EndgameSearch.addSuccessors(state, game.getHand(), next);
+        search.search(next);
+        return search.getBestCategory(state, game.getHand());
+    }
+
+    /**
+     * checks whether the search takes over
+     * @param game the game
+     * @return true if there is more than one player and none has more than the depth's turns left, false otherwise
+     */
+    private boolean isEndgame(Yahtzee game){
+        if(game.getNumPlayers() < 2){
+            return false;
+        }
+        for(int i = 0; i < game.getNumPlayers(); i++){
+            if(EndgameSearch.getTurnsLeft(EndgameSearch.pack(game.getPlayer(i))) > depth){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * gets the search for the current player's chance of winning, making
+     * it when the other players' scorecards have changed
+     * @param game the game
+     * @return the search
+     */
+    private EndgameSearch getSearch(Yahtzee game){
+        int current = game.getCurrentPlayerID() - 1;
+        long key = 1;
+        for(int i = 0; i < game.getNumPlayers(); i++){
+            if(i != current){
+                key = (key + EndgameSearch.pack(game.getPlayer(i))) * 0x9E3779B97F4A7C15L;
+                key ^= key >>> 29;
+            }
+        }
+        if(key == EndgameSearch.EXPECTED_SCORE){
+            key++;
+        }
+        Context context = contexts.get();
+        if(context.search == null || context.key != key){
+            context.search = new EndgameSearch(getWinningChances(game, current), key, cache);
+            context.key = key;
+        }
+        return context.search;
+    }
+
+    /**
+     * works out the chance of each final score beating every other player,
+     * a tie counting as half, with a little added for each point
+     * @param game the game
+     * @param current the index of the current player
+     * @return the chance of winning with each final score, the last for every higher score
+     */
+    private float[] getWinningChances(Yahtzee game, int current){
+        double[][] distributions = new double[game.getNumPlayers()][];
+        int size = 1;
+        for(int i = 0; i < game.getNumPlayers(); i++){
+            if(i != current){
+                Player player = game.getPlayer(i);
+                double[] gained = expectedScore.getDistribution(EndgameSearch.pack(player.getScoredCategories(),
+                        player.getTopScore(), player.hasYahtzee(), 0));
+                distributions[i] = new double[player.getTotalScore() + gained.length];
+                System.arraycopy(gained, 0, distributions[i], player.getTotalScore(), gained.length);
+                size = Math.max(size, distributions[i].length + 1);
+            }
+        }
+        double[] below = new double[size];
+        double[] atMost = new double[size];
+        Arrays.fill(below, 1);
+        Arrays.fill(atMost, 1);
+        for(double[] distribution : distributions){
+            if(distribution == null){
+                continue;
+            }
+            double sum = 0;
+            for(int total = 0; total < size; total++){
+                below[total] *= Math.min(sum, 1);
+                if(total < distribution.length){
+                    sum += distribution[total];
+                }
+                atMost[total] *= Math.min(sum, 1);
+            }
+        }
+        float[] chances = new float[size];
+        for(int total = 0; total < size; total++){
+            chances[total] = (float) ((below[total] + atMost[total]) / 2 + total * POINT_UTILITY);
+        }
+        chances[size - 1] = (float) (1 + (size - 1) * POINT_UTILITY);
+        return chances;
+    }
+
+    /**
+     * This class is one thread's search and the other players' scorecards it was made for
+     */
+    private static class Context {
+
+        /** the hash of the other players' scorecards */
+        private long key;
+
+        /** the search, or null if none has been made */
+        private EndgameSearch search;
+
+        /**
+         * This is the constructor which initializes a context with no search
+        */
+        private Context(){
+            search = null;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * ExpectedValueTable.java
+ *
+ * This class holds, for every scorecard a single player can have at the
+ * start of a turn, the points they can still expect to score by playing
+ * perfectly for the rest of the game. a scorecard is described by which
+ * categories are scored, the numeric subtotal, counted up to the points
+ * needed for the bonus, and whether a yahtzee has been scored for 50
+ *
+ * the table is saved to a file once it has been solved, and mapped into
+ * memory straight from the file after that
+ *
+ * @author Robert Kenney
+ */
+public class ExpectedValueTable {
+
+    /** the number of numeric subtotals the table tells apart, beyond which the bonus is certain */
+    public static final int NUM_UPPER_SCORES = Yahtzee.POINTS_NEEDED_FOR_BONUS + 1;
+
+    /** the number of scorecards in the table */
+    public static final int NUM_STATES = (Player.ALL_CATEGORIES + 1) * NUM_UPPER_SCORES * 2;
+
+    /** the file the table is kept in when no other is given */
+    public static final String DEFAULT_FILE = "yahtzee-ev.bin";
+
+    /** the number at the start of every table file */
+    private static final int MAGIC = 0x59545A45;
+
+    /** the version of the file format */
+    private static final int VERSION = 1;
+
+    /** the rules the table was solved for, which must match the game's for the file to be used */
+    private static final int[] RULES = {Yahtzee.NUM_DICE, Die.MAX_DIE_VALUE, Yahtzee.ROLLS_PER_TURN,
+        Yahtzee.FULL_HOUSE_SCORE, Yahtzee.SMALL_STRAIGHT_SCORE, Yahtzee.LARGE_STRAIGHT_SCORE,
+        Yahtzee.YAHTZEE_SCORE, Yahtzee.YAHTZEE_BONUS_SCORE, Yahtzee.BONUS, Yahtzee.POINTS_NEEDED_FOR_BONUS};
+
+    /** the length of the file header in bytes */
+    private static final int HEADER_BYTES = 4 * (3 + RULES.length);
+
+    /** the expected points still to come for each scorecard */
+    private FloatBuffer values;
+
+    /**
+     * This is the constructor which wraps the values of a table
+     * @param values the expected value of each scorecard, by index
+    */
+    public ExpectedValueTable(FloatBuffer values){
+        this.values = values;
+    }
+
+    /**
+     * gets the position of a scorecard in the table
+     * @param scored the mask of scored categories
+     * @param upper the numeric subtotal
+     * @param yahtzee whether a yahtzee has been scored for points
+     * @return the index of the scorecard
+     */
+    public static int index(int scored, int upper, boolean yahtzee){
+        if(upper >= NUM_UPPER_SCORES){
+            upper = NUM_UPPER_SCORES - 1;
+        }
+        return ((scored & Player.ALL_CATEGORIES) * NUM_UPPER_SCORES + upper) * 2 + (yahtzee ? 1 : 0);
+    }
+
+    /**
+     * gets the points a player can expect to score from the start of their next turn
+     * @param scored the mask of scored categories
+     * @param upper the numeric subtotal
+     * @param yahtzee whether a yahtzee has been scored for points
+     * @return the expected points still to come
+     */
+    public float get(int scored, int upper, boolean yahtzee){
+        return values.get(index(scored, upper, yahtzee));
+    }
+
+    /**
+     * gets the points a player can expect to score from the start of their next turn
+     * @param player the player
+     * @return the expected points still to come
+     */
+    public float get(Player player){
+        return get(player.getScoredCategories(), player.getTopScore(), player.hasYahtzee());
+    }
+
+    /**
+     * gets the average final score of a perfectly played game
+     * @return the expected score of a new game
+     */
+    public float getExpectedScore(){
+        return get(0, 0, false);
+    }
+
+    /**
+     * writes the table to a file
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(RULES.length);
+            for(int rule : RULES){
+                out.writeInt(rule);
+            }
+            for(int state = 0; state < NUM_STATES; state++){
+                out.writeFloat(values.get(state));
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * maps a table file into memory
+     * @param file the file to map
+     * @return the table, or null if the file is missing or was solved for other rules
+     * @throws IOException if the file cannot be read
+     */
+    public static ExpectedValueTable map(File file) throws IOException {
+        if(!file.isFile() || file.length() != HEADER_BYTES + 4L * NUM_STATES){
+            return null;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+            if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != RULES.length){
+                return null;
+            }
+            for(int rule : RULES){
+                if(buffer.getInt() != rule){
+                    return null;
+                }
+            }
+            return new ExpectedValueTable(buffer.slice().asFloatBuffer());
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * maps a table file into memory, solving the table and
+     * writing the file first if it does not exist yet
+     * @param file the file to map
+     * @return the table
+     * @throws IOException if the file cannot be read or written
+     */
+    public static ExpectedValueTable load(File file) throws IOException {
+        ExpectedValueTable table = map(file);
+        if(table == null){
+            new ExpectedValueTable(FloatBuffer.wrap(YahtzeeSolver.solve())).save(file);
+            table = map(file);
+        }
+        return table;
+    }
+}
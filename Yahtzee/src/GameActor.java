@@ -0,0 +1,226 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * GameActor.java
+ *
+ * This class lets any number of threads drive one game safely. the game
+ * is owned by the actor, and commands sent to it are put in a mailbox and
+ * carried out one at a time, in the order they were sent, by a task on an
+ * executor. only one task runs for an actor at a time, so the game is only
+ * ever touched by one thread at once without any locks, and one executor
+ * can run thousands of actors on a few threads
+ *
+ * after every command the actor publishes a GameSnapshot, which any thread
+ * can read without waiting, and completes the command's future with it.
+ * a command the game cannot carry out is ignored by the game just as it
+ * would be if called directly
+ *
+ * @author Robert Kenney
+ */
+public class GameActor {
+
+    /** the most commands carried out by one task, before the thread is given back to the executor */
+    public static final int MAX_BATCH = 64;
+
+    /** the command rolling the dice */
+    private static final int ROLL = 0;
+
+    /** the command holding or letting go of a die */
+    private static final int HOLD = 1;
+
+    /** the command scoring a category */
+    private static final int SCORE = 2;
+
+    /** the command passing the turn on */
+    private static final int NEXT_TURN = 3;
+
+    /** the game, only touched by the task carrying out commands */
+    private Yahtzee game;
+
+    /** the executor the commands are carried out on */
+    private Executor executor;
+
+    /** the commands waiting to be carried out */
+    private Queue<Command> mailbox;
+
+    /** whether a task has been given to the executor and not finished yet */
+    private AtomicBoolean scheduled;
+
+    /** the task carrying out commands */
+    private Runnable drain;
+
+    /** the number of commands carried out, only touched by the task carrying out commands */
+    private long version;
+
+    /** the snapshot taken after the last command */
+    private volatile GameSnapshot snapshot;
+
+    /**
+     * This is the constructor which takes ownership of a game. no other
+     * thread should touch the game once the actor has it
+     * @param game the game
+     * @param executor the executor to carry out commands on, which can be shared between actors
+    */
+    public GameActor(Yahtzee game, Executor executor){
+        this.game = game;
+        this.executor = executor;
+        mailbox = new ConcurrentLinkedQueue<Command>();
+        scheduled = new AtomicBoolean();
+        drain = new Runnable(){
+            public void run(){
+                drain();
+            }
+        };
+        version = 0;
+        snapshot = new GameSnapshot(game, version);
+    }
+
+    /**
+     * gets the game as it was after the last command carried out
+     * @return the snapshot
+     */
+    public GameSnapshot getSnapshot(){
+        return snapshot;
+    }
+
+    /**
+     * rolls the dice that are not held, see Yahtzee.rollDice()
+     * @return a future completed with the game after the roll
+     */
+    public CompletableFuture<GameSnapshot> rollDice(){
+        return send(ROLL, 0);
+    }
+
+    /**
+     * holds or lets go of a die, see Yahtzee.toggleHeld()
+     * @param die the index of the die
+     * @return a future completed with the game after the die is toggled
+     */
+    public CompletableFuture<GameSnapshot> toggleHeld(int die){
+        return send(HOLD, die);
+    }
+
+    /**
+     * scores a category for the current player, see Yahtzee.scoreCategory()
+     * @param category the index of the category
+     * @return a future completed with the game after the category is scored
+     */
+    public CompletableFuture<GameSnapshot> scoreCategory(int category){
+        return send(SCORE, category);
+    }
+
+    /**
+     * passes the turn to the next player, see Yahtzee.nextTurn()
+     * @return a future completed with the game after the turn changes
+     */
+    public CompletableFuture<GameSnapshot> nextTurn(){
+        return send(NEXT_TURN, 0);
+    }
+
+    /**
+     * puts a command in the mailbox, and gives the executor a task to carry it out if there is not one already
+     * @param type the kind of command
+     * @param operand the die or category of the command
+     * @return the future of the command
+     */
+    private CompletableFuture<GameSnapshot> send(int type, int operand){
+        Command command = new Command(type, operand);
+        mailbox.add(command);
+        schedule();
+        return command.done;
+    }
+
+    /**
+     * gives the executor a task to carry out commands, unless it already
+     * has one. if the executor turns the task down, every command waiting
+     * fails, so no future is left waiting for a task that will never run
+     */
+    private void schedule(){
+        if(scheduled.compareAndSet(false, true)){
+            try {
+                executor.execute(drain);
+            } catch(RejectedExecutionException e){
+                scheduled.set(false);
+                Command command;
+                while((command = mailbox.poll()) != null){
+                    command.done.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * carries out commands until the mailbox is empty or a batch has been
+     * carried out, and schedules another task if more commands came in
+     */
+    private void drain(){
+        Command command;
+        for(int count = 0; count < MAX_BATCH && (command = mailbox.poll()) != null; count++){
+            try {
+                apply(command);
+                version++;
+                GameSnapshot after = new GameSnapshot(game, version);
+                snapshot = after;
+                command.done.complete(after);
+            } catch(RuntimeException e){
+                command.done.completeExceptionally(e);
+            }
+        }
+        scheduled.set(false);
+        if(!mailbox.isEmpty()){
+            schedule();
+        }
+    }
+
+    /**
+     * carries out one command on the game
+     * @param command the command
+     * @throws IllegalArgumentException if the kind of command is unknown
+     */
+    private void apply(Command command){
+        switch(command.type){
+            case ROLL:
+                game.rollDice();
+                break;
+            case HOLD:
+                game.toggleHeld(command.operand);
+                break;
+            case SCORE:
+                game.scoreCategory(command.operand);
+                break;
+            case NEXT_TURN:
+                game.nextTurn();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command " + command.type);
+        }
+    }
+
+    /**
+     * This class is one command waiting in a mailbox
+     */
+    private static class Command {
+
+        /** the kind of command */
+        private int type;
+
+        /** the die or category of the command */
+        private int operand;
+
+        /** completed once the command has been carried out */
+        private CompletableFuture<GameSnapshot> done;
+
+        /**
+         * This is the constructor which initializes a command
+         * @param type the kind of command
+         * @param operand the die or category of the command
+        */
+        private Command(int type, int operand){
+            this.type = type;
+            this.operand = operand;
+            done = new CompletableFuture<GameSnapshot>();
+        }
+    }
+}
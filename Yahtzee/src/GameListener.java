@@ -0,0 +1,47 @@
+/**
+ * GameListener.java
+ *
+ * This interface is told about every change made to a game through the
+ * Yahtzee class, so a gui or recorder can follow along with only the
+ * parts that changed. listeners are called on the thread making the change,
+ * after the change has been made
+ *
+ * @author Robert Kenney
+ */
+public interface GameListener {
+
+    /**
+     * called after the current player rolls the dice
+     * @param game the game
+     */
+    public void diceRolled(Yahtzee game);
+
+    /**
+     * called after a die is held or let go
+     * @param game the game
+     * @param die the index of the die
+     */
+    public void dieHeldToggled(Yahtzee game, int die);
+
+    /**
+     * called after the current player selects a category, whether or not
+     * the player was allowed to, including the yahtzee bonus
+     * @param game the game
+     * @param category the index of the category
+     * @param scratch true if the category was scratched with Yahtzee.scratch(), false if it was scored
+     */
+    public void categoryScored(Yahtzee game, int category, boolean scratch);
+
+    /**
+     * called after the turn passes to the next player
+     * @param game the game
+     */
+    public void turnChanged(Yahtzee game);
+
+    /**
+     * called after the whole game is set back to a saved state with
+     * Yahtzee.restore(), which is not a turn being played
+     * @param game the game
+     */
+    public void gameRestored(Yahtzee game);
+}
@@ -0,0 +1,230 @@
+import java.io.*;
+
+/**
+ * GameRecorder.java
+ *
+ * This class listens to games and writes everything done to them to a
+ * stream, so a game can be audited or played back exactly with
+ * GameReplayer. most events take a single byte, the kind of event in the
+ * high three bits and the die, category or number of players in the low
+ * five, and a roll takes two more bytes for the encoded roll of the dice.
+ * the events are buffered and only ever appended, so recording costs
+ * little more than a write to an array, and a file of many games can be
+ * mapped into memory to replay them
+ *
+ * a recording starts with a header, followed by the games one after
+ * another, each beginning with a GAME event
+ *
+ * @author Robert Kenney
+ */
+public class GameRecorder implements GameListener, Closeable {
+
+    /** the number at the start of every recording */
+    public static final int MAGIC = 0x59524543;
+
+    /** the version of the recording format */
+    public static final int VERSION = 1;
+
+    /** the length of the header in bytes */
+    public static final int HEADER_BYTES = 8;
+
+    /** the event starting a new game, with the number of players minus one */
+    public static final int GAME = 0;
+
+    /** the event of a roll, followed by the encoded roll in two bytes */
+    public static final int ROLL = 1;
+
+    /** the event of a die being held or let go, with the index of the die */
+    public static final int HOLD = 2;
+
+    /** the event of a category being selected, with the index of the category */
+    public static final int SCORE = 3;
+
+    /** the event of a category being scratched, with the index of the category */
+    public static final int SCRATCH = 4;
+
+    /** the event of the turn passing to the next player */
+    public static final int NEXT_TURN = 5;
+
+    /** the shift of the kind of event in its byte */
+    public static final int EVENT_SHIFT = 5;
+
+    /** the mask of the die, category or number of players in an event's byte */
+    public static final int OPERAND_MASK = (1 << EVENT_SHIFT) - 1;
+
+    /** the most players a recorded game can have */
+    public static final int MAX_PLAYERS = OPERAND_MASK + 1;
+
+    /** the size of the buffer in bytes */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** the stream the events are written to */
+    private DataOutputStream out;
+
+    /** the game being recorded */
+    private Yahtzee game;
+
+    /**
+     * This is the constructor which starts a recording on a stream
+     * @param out the stream to write to
+     * @throws IOException if the header cannot be written
+    */
+    public GameRecorder(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        writeHeader();
+    }
+
+    /**
+     * This is the constructor which appends to a recording in a file,
+     * starting the file if it does not exist yet
+     * @param file the file to append to
+     * @throws IOException if the file cannot be opened or its header cannot be written
+    */
+    public GameRecorder(File file) throws IOException {
+        boolean fresh = file.length() == 0;
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true), BUFFER_SIZE));
+        if(fresh){
+            writeHeader();
+        }
+    }
+
+    /**
+     * writes the header of a new recording
+     * @throws IOException if the header cannot be written
+     */
+    private void writeHeader() throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    /**
+     * starts recording a new game, which must not have been played yet,
+     * and stops recording the game before it
+     * @param game the game to record
+     */
+    public void record(Yahtzee game){
+        if(game.getNumPlayers() > MAX_PLAYERS){
+            throw new IllegalArgumentException("Cannot record a game of more than " + MAX_PLAYERS + " players");
+        }
+        stop();
+        this.game = game;
+        game.addListener(this);
+        write(GAME, game.getNumPlayers() - 1);
+    }
+
+    /**
+     * stops recording the current game
+     */
+    public void stop(){
+        if(game != null){
+            game.removeListener(this);
+            game = null;
+        }
+    }
+
+    /**
+     * writes an event
+     * @param event the kind of event
+     * @param operand the die, category or number of players
+     */
+    private void write(int event, int operand){
+        try {
+            out.writeByte(event << EVENT_SHIFT | operand);
+        } catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * records a roll of the dice
+     * @param game the game
+     */
+    public void diceRolled(Yahtzee game){
+        write(ROLL, 0);
+        try {
+            out.writeShort(game.getEncodedRoll());
+        } catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * records a die being held or let go
+     * @param game the game
+     * @param die the index of the die
+     */
+    public void dieHeldToggled(Yahtzee game, int die){
+        write(HOLD, die);
+    }
+
+    /**
+     * records a category being selected
+     * @param game the game
+     * @param category the index of the category
+     * @param scratch whether the category was scratched
+     */
+    public void categoryScored(Yahtzee game, int category, boolean scratch){
+        write(scratch ? SCRATCH : SCORE, category);
+    }
+
+    /**
+     * records the turn passing to the next player
+     * @param game the game
+     */
+    public void turnChanged(Yahtzee game){
+        write(NEXT_TURN, 0);
+    }
+
+    /**
+     * stops recording a game that has been set back to a saved state. the
+     * game no longer follows from the events recorded, so they are left as
+     * they are and nothing is recorded for the restore
+     * @param game the game
+     */
+    public void gameRestored(Yahtzee game){
+        stop();
+    }
+
+    /**
+     * writes the buffered events out to the stream
+     * @throws IOException if the events cannot be written
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * stops recording and closes the stream
+     * @throws IOException if the stream cannot be closed
+     */
+    public void close() throws IOException {
+        stop();
+        out.close();
+    }
+
+    /**
+     * This is the main method, which records games played by the greedy strategy
+     * @param args Command line arguments, the file to append to, the number of games and the seed of the first game
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        File file = new File(args.length > 0 ? args[0] : "games.rec");
+        long numGames = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        Strategy[] seats = {new GreedyStrategy()};
+        long start = System.nanoTime();
+        GameRecorder recorder = new GameRecorder(file);
+        try {
+            for(long game = 0; game < numGames; game++){
+                Yahtzee yahtzee = new Yahtzee(seats.length, seed + game);
+                recorder.record(yahtzee);
+                YahtzeeSimulator.playGame(yahtzee, seats);
+            }
+        } finally {
+            recorder.close();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("recorded %d games in %.2f s to %s (%d bytes)%n", numGames, elapsed / 1e9, file, file.length());
+    }
+}
@@ -0,0 +1,186 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * GameReplayer.java
+ *
+ * This class plays back the games of a recording made by GameRecorder,
+ * one game at a time, making the same calls on a new Yahtzee that were
+ * made on the recorded one, with the dice landing where they landed
+ * before, so every player ends up with exactly the same scorecard.
+ * a recording file is mapped into memory rather than read through a stream,
+ * a segment of at most MAX_SEGMENT_BYTES at a time so a file of any size
+ * can be played back. a segment is mapped again from the start of the next
+ * game once less than RecordingAnalyzer.MAX_GAME_BYTES of it is left, so a
+ * game is always read from one mapping
+ *
+ * @author Robert Kenney
+ */
+public class GameReplayer implements Closeable {
+
+    /** the largest segment of a file mapped at once */
+    public static final long MAX_SEGMENT_BYTES = RecordingAnalyzer.MAX_SEGMENT_BYTES;
+
+    /** the events of the recording, after the header */
+    private ByteBuffer events;
+
+    /** the channel the file is mapped through, or null if the recording was given as a buffer */
+    private FileChannel channel;
+
+    /** where the mapped segment starts in the file */
+    private long offset;
+
+    /** the length of the file in bytes */
+    private long size;
+
+    /**
+     * This is the constructor which starts reading a recording
+     * @param recording the recording, from its header on
+     * @throws IOException if the recording does not start with a header
+    */
+    public GameReplayer(ByteBuffer recording) throws IOException {
+        if(recording.remaining() < GameRecorder.HEADER_BYTES
+                || recording.getInt() != GameRecorder.MAGIC || recording.getInt() != GameRecorder.VERSION){
+            throw new IOException("Not a game recording");
+        }
+        events = recording;
+    }
+
+    /**
+     * maps a recording file into memory, one segment at a time. the file
+     * stays open until the replayer is closed
+     * @param file the file to map
+     * @return the replayer
+     * @throws IOException if the file cannot be read or is not a recording
+     */
+    public static GameReplayer map(File file) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+        try {
+            long size = channel.size();
+            GameReplayer replayer = new GameReplayer(channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_SEGMENT_BYTES)));
+            replayer.channel = channel;
+            replayer.size = size;
+            return replayer;
+        } catch(IOException e){
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * maps the next segment of the file from the current event, if the
+     * game starting there could run past the end of the mapped segment
+     * @throws IOException if the file cannot be mapped
+     */
+    private void mapNextSegment() throws IOException {
+        if(channel == null || events.remaining() >= RecordingAnalyzer.MAX_GAME_BYTES || isMappedToEnd()){
+            return;
+        }
+        offset += events.position();
+        events = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(size - offset, MAX_SEGMENT_BYTES));
+    }
+
+    /**
+     * checks whether the mapped segment runs to the end of the recording
+     * @return true if there is nothing after the segment, false otherwise
+     */
+    private boolean isMappedToEnd(){
+        return channel == null || offset + events.limit() == size;
+    }
+
+    /**
+     * returns whether there are more games in the recording
+     * @return true if there is another game, false otherwise
+     */
+    public boolean hasNext(){
+        return events.hasRemaining() || !isMappedToEnd();
+    }
+
+    /**
+     * plays back the next game of the recording
+     * @return the game as it was when the recording of it ended
+     * @throws IOException if the recording is cut short or does not make sense
+     */
+    public Yahtzee next() throws IOException {
+        mapNextSegment();
+        try {
+            int first = events.get() & 0xff;
+            if(first >>> GameRecorder.EVENT_SHIFT != GameRecorder.GAME){
+                throw new IOException("Expected the start of a game at byte " + (offset + events.position() - 1));
+            }
+            Yahtzee game = new Yahtzee((first & GameRecorder.OPERAND_MASK) + 1, 0L);
+            while(events.hasRemaining()){
+                int event = events.get(events.position()) & 0xff;
+                int operand = event & GameRecorder.OPERAND_MASK;
+                switch(event >>> GameRecorder.EVENT_SHIFT){
+                    case GameRecorder.GAME:
+                        return game;
+                    case GameRecorder.ROLL:
+                        events.get();
+                        game.rollDice(events.getShort());
+                        break;
+                    case GameRecorder.HOLD:
+                        events.get();
+                        game.toggleHeld(operand);
+                        break;
+                    case GameRecorder.SCORE:
+                        events.get();
+                        game.scoreCategory(operand);
+                        break;
+                    case GameRecorder.SCRATCH:
+                        events.get();
+                        game.scratch(operand);
+                        break;
+                    case GameRecorder.NEXT_TURN:
+                        events.get();
+                        game.nextTurn();
+                        break;
+                    default:
+                        throw new IOException("Unknown event " + event + " at byte " + (offset + events.position()));
+                }
+            }
+            if(!isMappedToEnd()){
+                throw new IOException("A game is longer than " + RecordingAnalyzer.MAX_GAME_BYTES + " bytes");
+            }
+            return game;
+        } catch(BufferUnderflowException e){
+            if(!isMappedToEnd()){
+                throw new IOException("A game is longer than " + RecordingAnalyzer.MAX_GAME_BYTES + " bytes", e);
+            }
+            throw new IOException("The recording ends part way through an event", e);
+        }
+    }
+
+    /**
+     * closes the file the recording was mapped from, if there is one
+     * @throws IOException if the file cannot be closed
+     */
+    public void close() throws IOException {
+        if(channel != null){
+            channel.close();
+        }
+    }
+
+    /**
+     * This is the main method, which plays back every game in a recording
+     * and prints the average final score
+     * @param args Command line arguments, the recording file
+     * @throws IOException if the file cannot be read or is not a recording
+     */
+    public static void main(String[] args) throws IOException {
+        File file = new File(args.length > 0 ? args[0] : "games.rec");
+        long start = System.nanoTime();
+        GameReplayer replayer = map(file);
+        SimulationResult result = new SimulationResult();
+        try {
+            while(replayer.hasNext()){
+                result.addGame(replayer.next());
+            }
+        } finally {
+            replayer.close();
+        }
+        result.setElapsedNanos(System.nanoTime() - start);
+        System.out.println(result);
+    }
+}
@@ -0,0 +1,370 @@
+/**
+ * GameRoom.java
+ *
+ * This class is one room of a GameServer, holding a game and the players
+ * seated at it. a player takes the first free seat when they join, and
+ * the game starts once every seat is taken. only the player whose turn it
+ * is can roll, hold, score or pass the turn on
+ *
+ * every change to the game is made while holding the room's lock, and the
+ * room listens to its game to queue a line to every player for each
+ * change, so every player sees the changes in the same order. flush wakes
+ * each player's connection to write its own lines after the lock has been
+ * let go, so the room never waits on a player's socket
+ *
+ *   JOINED seat             a player took a seat
+ *   LEFT seat               a player left, their seat can be taken again
+ *   START players           every seat is taken and the game has started
+ *   TURN player             it is a player's turn
+ *   ROLL player d0 .. d4    the player rolled, and the dice show these values
+ *   HOLD player die held    the player held the die, if held is 1, or let it go
+ *   SCORE player category points    the player scored a category, or took a yahtzee bonus
+ *   SCRATCH player category the player scratched a category
+ *   STATE player rolls d0 .. d4 held score0 .. scoreN    the whole state, the held dice as a mask
+ *   OVER score0 .. scoreN   the game is over, with every player's final score
+ *
+ * @author Robert Kenney
+ */
+public class GameRoom implements GameListener {
+
+    /** the most players a room can seat */
+    public static final int MAX_PLAYERS = 8;
+
+    /** the server the room is on */
+    private GameServer server;
+
+    /** the name of the room */
+    private String name;
+
+    /** the game being played in the room */
+    private Yahtzee game;
+
+    /** the player in each seat, null if the seat is free. a new array is made for every change, so it can be read without the lock */
+    private volatile ServerConnection[] seats;
+
+    /** whether every seat has been taken at least once, starting the game */
+    private boolean started;
+
+    /** whether the game is over */
+    private boolean over;
+
+    /** whether the room has been removed from the server, so no one else can join it */
+    private boolean closed;
+
+    /**
+     * This is the constructor which initializes an empty room
+     * @param server the server the room is on
+     * @param name the name of the room
+     * @param numPlayers the number of players the game is for
+    */
+    public GameRoom(GameServer server, String name, int numPlayers){
+        this.server = server;
+        this.name = name;
+        game = new Yahtzee(numPlayers);
+        game.addListener(this);
+        seats = new ServerConnection[numPlayers];
+        started = false;
+        over = false;
+        closed = false;
+    }
+
+    /**
+     * gets the name of the room
+     * @return the name
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * checks whether the game in the room is over
+     * @return true if every player has finished
+     */
+    public synchronized boolean isOver(){
+        return over;
+    }
+
+    /**
+     * checks whether the room has been removed from the server, once its
+     * game was over or every player left, in which case a new room of the
+     * same name has to be joined instead
+     * @return true if the room can no longer be joined
+     */
+    public synchronized boolean isClosed(){
+        return closed;
+    }
+
+    /**
+     * seats a player at the first free seat, starting the game if it was the last one
+     * @param client the player's connection
+     * @return the seat taken, or -1 if the room is full or closed
+     */
+    public synchronized int join(ServerConnection client){
+        int seat = -1;
+        for(int free = 0; free < seats.length && seat < 0 && !closed; free++){
+            if(seats[free] == null){
+                seat = free;
+            }
+        }
+        if(seat < 0){
+            return -1;
+        }
+        ServerConnection[] taken = seats.clone();
+        taken[seat] = client;
+        seats = taken;
+        client.send("SEAT " + seat + " " + seats.length);
+        broadcast("JOINED " + seat);
+
+        boolean full = true;
+        for(ServerConnection player : seats){
+            full &= player != null;
+        }
+        if(full && !started){
+            started = true;
+            broadcast("START " + seats.length);
+            broadcast("TURN " + getCurrentSeat(game));
+        }
+        return seat;
+    }
+
+    /**
+     * frees a seat, removing the room from the server once every seat is free
+     * @param seat the seat being left
+     */
+    public synchronized void leave(int seat){
+        ServerConnection[] taken = seats.clone();
+        taken[seat] = null;
+        seats = taken;
+        broadcast("LEFT " + seat);
+        boolean empty = true;
+        for(ServerConnection player : seats){
+            empty &= player == null;
+        }
+        if(empty){
+            close();
+        }
+    }
+
+    /**
+     * removes the room from the server
+     */
+    private void close(){
+        closed = true;
+        server.removeRoom(this);
+    }
+
+    /**
+     * carries out a command from a player, with the same checks the gui makes
+     * @param seat the seat of the player
+     * @param command the command, in upper case
+     * @param words the words of the line, the command first
+     */
+    public synchronized void command(int seat, String command, String[] words){
+        ServerConnection client = seats[seat];
+        if(command.equals("STATE")){
+            client.send(getState());
+            return;
+        }
+        if(!started || over){
+            client.send(over ? "ERROR the game is over" : "ERROR waiting for players");
+            return;
+        }
+        if(seat != getCurrentSeat(game)){
+            client.send("ERROR it is not your turn");
+            return;
+        }
+
+        Player player = game.getCurrentPlayer();
+        if(command.equals("ROLL")){
+            if(!player.canRoll()){
+                client.send("ERROR you cannot roll again");
+                return;
+            }
+            game.rollDice();
+        } else if(command.equals("HOLD")){
+            int die = parse(words, Yahtzee.NUM_DICE);
+            if(die < 0 || player.getCurrentTurnRollCount() < 1){
+                client.send("ERROR HOLD needs a die from 0 to " + (Yahtzee.NUM_DICE - 1) + " after rolling");
+                return;
+            }
+            game.toggleHeld(die);
+        } else if(command.equals("SCORE")){
+            int category = parse(words, Yahtzee.NUM_SCORING_CATEGORIES);
+            String problem = checkScore(player, category);
+            if(problem != null){
+                client.send("ERROR " + problem);
+                return;
+            }
+            game.scoreCategory(category);
+            if(game.allPlayersFinished()){
+                over = true;
+                String scores = "OVER";
+                for(int scored = 0; scored < game.getNumPlayers(); scored++){
+                    scores += " " + game.getPlayer(scored).getTotalScore();
+                }
+                broadcast(scores);
+                close();
+            }
+        } else if(command.equals("NEXT")){
+            if(!player.hasSelectedScoreThisTurn()){
+                client.send("ERROR you must score a category before ending your turn");
+                return;
+            }
+            game.nextTurn();
+        } else {
+            client.send("ERROR unknown command " + command);
+        }
+    }
+
+    /**
+     * checks whether the current player can score a category, as the gui would
+     * @param player the current player
+     * @param category the index of the category, or -1 if it was not one
+     * @return what is stopping the category being scored, or null if it can be
+     */
+    private String checkScore(Player player, int category){
+        if(category < 0){
+            return "SCORE needs a category from 0 to " + (Yahtzee.NUM_SCORING_CATEGORIES - 1);
+        }
+        if(player.getCurrentTurnRollCount() < 1){
+            return "you must roll at least once before selecting a scoring option";
+        }
+        if(player.hasSelectedScoreThisTurn()){
+            return "you have already selected an option, end your turn";
+        }
+        if(category == Yahtzee.YAHTZEE_BONUS){
+            if(player.hasYahtzeeBonusedThisTurn() || !game.canYahtzeeBonus()){
+                return "you cannot take a yahtzee bonus";
+            }
+        } else if(!player.hasYahtzeeBonusedThisTurn() && player.isCategoryScored(category)){
+            return "that category has already been scored";
+        }
+        return null;
+    }
+
+    /**
+     * gets the seat of the player whose turn it is, counting from zero
+     * where the game counts its players from one
+     * @param game the game
+     * @return the seat of the current player
+     */
+    private static int getCurrentSeat(Yahtzee game){
+        return game.getCurrentPlayerID() - 1;
+    }
+
+    /**
+     * reads a number from the second word of a command
+     * @param words the words of the line
+     * @param limit one more than the largest number allowed
+     * @return the number, or -1 if there is none or it is out of range
+     */
+    private static int parse(String[] words, int limit){
+        if(words.length < 2){
+            return -1;
+        }
+        try {
+            int number = Integer.parseInt(words[1]);
+            return number >= 0 && number < limit ? number : -1;
+        } catch(NumberFormatException e){
+            return -1;
+        }
+    }
+
+    /**
+     * describes the whole game in one line
+     * @return the STATE line
+     */
+    private String getState(){
+        StringBuilder state = new StringBuilder("STATE ");
+        state.append(getCurrentSeat(game)).append(' ').append(game.getCurrentPlayer().getCurrentTurnRollCount());
+        int held = 0;
+        for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+            state.append(' ').append(game.getDie(die).getValue());
+            if(game.getDie(die).isHeld()){
+                held |= 1 << die;
+            }
+        }
+        state.append(' ').append(held);
+        for(int player = 0; player < game.getNumPlayers(); player++){
+            state.append(' ').append(game.getPlayer(player).getTotalScore());
+        }
+        return state.toString();
+    }
+
+    /**
+     * queues a line to every player in the room
+     * @param line the line
+     */
+    private void broadcast(String line){
+        for(ServerConnection player : seats){
+            if(player != null){
+                player.send(line);
+            }
+        }
+    }
+
+    /**
+     * wakes the connection of every player in the room to write their
+     * queued lines. this is called without the room's lock, after a command
+     * has been carried out, and never writes to a socket itself
+     */
+    public void flush(){
+        for(ServerConnection player : seats){
+            if(player != null){
+                player.flush();
+            }
+        }
+    }
+
+    /**
+     * tells the room the dice were rolled
+     * @param game the game
+     */
+    public void diceRolled(Yahtzee game){
+        String line = "ROLL " + getCurrentSeat(game);
+        for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+            line += " " + game.getDie(die).getValue();
+        }
+        broadcast(line);
+    }
+
+    /**
+     * tells the room a die was held or let go
+     * @param game the game
+     * @param die the index of the die
+     */
+    public void dieHeldToggled(Yahtzee game, int die){
+        broadcast("HOLD " + getCurrentSeat(game) + " " + die + " " + (game.getDie(die).isHeld() ? 1 : 0));
+    }
+
+    /**
+     * tells the room a category was scored or scratched
+     * @param game the game
+     * @param category the index of the category
+     * @param scratch whether the category was scratched
+     */
+    public void categoryScored(Yahtzee game, int category, boolean scratch){
+        Player player = game.getCurrentPlayer();
+        if(scratch || (category != Yahtzee.YAHTZEE_BONUS && player.isCategoryScratched(category))){
+            broadcast("SCRATCH " + getCurrentSeat(game) + " " + category);
+        } else {
+            broadcast("SCORE " + getCurrentSeat(game) + " " + category + " " + player.getScoreValue(category));
+        }
+    }
+
+    /**
+     * tells the room whose turn it is
+     * @param game the game
+     */
+    public void turnChanged(Yahtzee game){
+        broadcast("TURN " + getCurrentSeat(game));
+    }
+
+    /**
+     * tells the room whose turn it is after the game is set back to a saved state
+     * @param game the game
+     */
+    public void gameRestored(Yahtzee game){
+        turnChanged(game);
+    }
+}
@@ -0,0 +1,101 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+
+/**
+ * GameSave.java
+ *
+ * This class saves a game in progress to a file and loads it back. the
+ * file holds a short header followed by the game packed by
+ * PackedGameState, one long for the turn and one for each player, so even
+ * a game of many players is a few dozen bytes and loads in microseconds
+ *
+ * a save is written to a temporary file that is then moved over the old
+ * save, so a save cut off part way through never replaces a good one
+ *
+ * @author Robert Kenney
+ */
+public class GameSave {
+
+    /** the file a game is saved to when no other is given */
+    public static final String DEFAULT_FILE = "yahtzee-save.bin";
+
+    /** the number at the start of every save file */
+    private static final int MAGIC = 0x59534156;
+
+    /** the version of the file format, to be changed whenever PackedGameState's layout changes */
+    private static final int VERSION = 1;
+
+    /** the length of the file header in bytes */
+    private static final int HEADER_BYTES = 12;
+
+    /**
+     * This class only holds static methods
+     */
+    private GameSave(){
+    }
+
+    /**
+     * saves a game to a file
+     * @param game the game to save
+     * @param file the file to save to
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Yahtzee game, File file) throws IOException {
+        write(game.snapshot(new long[PackedGameState.getLength(game.getNumPlayers())]), file);
+    }
+
+    /**
+     * writes a packed game to a file
+     * @param state the packed game, see Yahtzee.snapshot()
+     * @param file the file to save to
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(long[] state, File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 8 * state.length);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(state.length - 1);
+        for(long word : state){
+            buffer.putLong(word);
+        }
+        Path path = file.toPath();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temporary, buffer.array());
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * loads a saved game from a file
+     * @param file the file to load
+     * @return the game, or null if there is no save file
+     * @throws IOException if the file cannot be read or is not a save of this version
+     */
+    public static Yahtzee load(File file) throws IOException {
+        if(!file.isFile()){
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        if(buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC){
+            throw new IOException(file + " is not a saved game");
+        }
+        int version = buffer.getInt();
+        if(version != VERSION){
+            throw new IOException(file + " was saved by version " + version + " of the game, not " + VERSION);
+        }
+        int numPlayers = buffer.getInt();
+        if(numPlayers < 1 || buffer.remaining() != 8L * PackedGameState.getLength(numPlayers)){
+            throw new IOException(file + " is the wrong length for a game of " + numPlayers + " players");
+        }
+        long[] state = new long[PackedGameState.getLength(numPlayers)];
+        for(int word = 0; word < state.length; word++){
+            state[word] = buffer.getLong();
+        }
+        if(PackedGameState.getCurrentPlayer(state[0]) >= numPlayers){
+            throw new IOException(file + " has no player " + (PackedGameState.getCurrentPlayer(state[0]) + 1));
+        }
+        Yahtzee game = new Yahtzee(numPlayers);
+        game.restore(state);
+        return game;
+    }
+}
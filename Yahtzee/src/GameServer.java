@@ -0,0 +1,205 @@
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * GameServer.java
+ *
+ * This class hosts games over the network with no gui. players connect
+ * over tcp and join rooms by name, each room holding one game, and the
+ * server can hold as many rooms as there are players to fill them. every
+ * connection is served by a thread of its own, a virtual thread on a java
+ * that has them and a pooled thread otherwise, and blocks on its socket
+ * without holding any lock. a room is only locked while a command changes
+ * its game, and the lines it sends are queued for each connection to write
+ * on a task of its own, so a slow player never holds up anyone else in
+ * the room, see ServerConnection. ServerLoad plays thousands of rooms at
+ * once against a server on localhost
+ *
+ * the protocol is lines of text, words split by spaces. a client sends
+ *
+ *   JOIN room players   takes the first free seat in a room, making the room for that many players if it is new
+ *   ROLL                rolls the dice that are not held
+ *   HOLD die            holds or lets go of a die, from 0 to 4
+ *   SCORE category      scores a category, from 0 to 13 as in Yahtzee, scratching it if the dice are worth nothing there
+ *   NEXT                passes the turn on, once a category has been scored
+ *   STATE               asks for the whole state of the game
+ *   METRICS             asks for the server's Metrics, in a room or not, answered with a METRIC line for each
+ *   QUIT                leaves the room and closes the connection
+ *
+ * and the server answers with SEAT seat players to the player who joined,
+ * ERROR message to a command that cannot be carried out, and sends every
+ * player in the room each change to the game, see GameRoom
+ *
+ * @author Robert Kenney
+ */
+public class GameServer implements Closeable {
+
+    /** the port the server listens on if none is given */
+    public static final int DEFAULT_PORT = 7476;
+
+    /** the socket connections are accepted on */
+    private ServerSocket serverSocket;
+
+    /** the threads serving the connections */
+    private ExecutorService connections;
+
+    /** the open connections, so they can be closed with the server */
+    private Set<ServerConnection> clients;
+
+    /** the rooms with a game being played, by name */
+    private ConcurrentMap<String, GameRoom> rooms;
+
+    /**
+     * This is the constructor which starts listening on a port
+     * @param port the port to listen on, or zero for any free port
+     * @throws IOException if the port cannot be listened on
+    */
+    public GameServer(int port) throws IOException {
+        serverSocket = new ServerSocket(port);
+        connections = newConnectionExecutor();
+        clients = ConcurrentHashMap.newKeySet();
+        rooms = new ConcurrentHashMap<String, GameRoom>();
+    }
+
+    /**
+     * makes the executor serving connections, with a virtual thread for each
+     * connection if the java running the server has them, and a cached pool
+     * of daemon threads if it does not
+     * @return the executor
+     */
+    private static ExecutorService newConnectionExecutor(){
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch(ReflectiveOperationException e){
+            return Executors.newCachedThreadPool(new ThreadFactory(){
+                public Thread newThread(Runnable task){
+                    Thread thread = new Thread(task, "connection");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    /**
+     * starts accepting connections on a thread of its own
+     * @return the thread accepting connections
+     */
+    public Thread start(){
+        Thread acceptor = new Thread(new Runnable(){
+            public void run(){
+                acceptConnections();
+            }
+        }, "accept");
+        acceptor.start();
+        return acceptor;
+    }
+
+    /**
+     * accepts connections until the server is closed, serving each on a thread of its own
+     */
+    private void acceptConnections(){
+        while(!serverSocket.isClosed()){
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                ServerConnection client = new ServerConnection(this, socket);
+                clients.add(client);
+                connections.execute(client);
+            } catch(IOException e){
+                if(!serverSocket.isClosed()){
+                    System.err.println("Could not accept a connection: " + e.getMessage());
+                }
+            } catch(RejectedExecutionException e){
+                return;
+            }
+        }
+    }
+
+    /**
+     * gets the port the server is listening on
+     * @return the port
+     */
+    public int getPort(){
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * gets the number of rooms with a game being played
+     * @return the number of rooms
+     */
+    public int getNumRooms(){
+        return rooms.size();
+    }
+
+    /**
+     * gets the executor connections are served and written on
+     * @return the executor
+     */
+    Executor getExecutor(){
+        return connections;
+    }
+
+    /**
+     * finds a room by name, making it if there is no room of that name
+     * @param name the name of the room
+     * @param numPlayers the number of players, if the room has to be made
+     * @return the room
+     */
+    GameRoom getRoom(String name, int numPlayers){
+        GameRoom room = rooms.get(name);
+        if(room == null){
+            GameRoom made = new GameRoom(this, name, numPlayers);
+            room = rooms.putIfAbsent(name, made);
+            if(room == null){
+                room = made;
+            }
+        }
+        return room;
+    }
+
+    /**
+     * removes a room once its game is over or every player has left, so the name can be used again
+     * @param room the room
+     */
+    void removeRoom(GameRoom room){
+        rooms.remove(room.getName(), room);
+    }
+
+    /**
+     * forgets a connection once it has closed
+     * @param client the connection
+     */
+    void removeClient(ServerConnection client){
+        clients.remove(client);
+    }
+
+    /**
+     * stops accepting connections and closes every open connection
+     */
+    public void close(){
+        try {
+            serverSocket.close();
+        } catch(IOException e){
+            System.err.println("Could not close the server: " + e.getMessage());
+        }
+        for(ServerConnection client : clients){
+            client.close();
+        }
+        connections.shutdown();
+    }
+
+    /**
+     * This is the main method, which runs a server until it is killed
+     * @param args Command line arguments, the port to listen on, optional
+     * @throws IOException if the port cannot be listened on
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer server = new GameServer(port);
+        System.out.println("Listening on port " + server.getPort());
+        server.start();
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * GameSnapshot.java
+ *
+ * This class is a copy of a whole game at one moment that can never
+ * change, so any number of threads can read it without a lock while the
+ * game itself moves on. the game is packed with Yahtzee.snapshot() and read
+ * back through PackedGameState, which makes a snapshot a single array of
+ * longs, one for the turn and the dice and one for each player, however far
+ * the game has gone
+ *
+ * @author Robert Kenney
+ */
+public class GameSnapshot {
+
+    /** the packed game, see PackedGameState, which is never changed or handed out */
+    private final long[] state;
+
+    /** the number of commands the game had carried out when the snapshot was taken */
+    private final long version;
+
+    /**
+     * This is the constructor which copies a game as it is now
+     * @param game the game, which must not be changed by another thread while it is copied
+     * @param version the number of commands the game has carried out
+    */
+    public GameSnapshot(Yahtzee game, long version){
+        state = game.snapshot(new long[PackedGameState.getLength(game.getNumPlayers())]);
+        this.version = version;
+    }
+
+    /**
+     * gets the number of commands the game had carried out when the snapshot was taken
+     * @return the version, higher for later snapshots of the same game
+     */
+    public long getVersion(){
+        return version;
+    }
+
+    /**
+     * gets the number of players in the game
+     * @return the number of players
+     */
+    public int getNumPlayers(){
+        return state.length - 1;
+    }
+
+    /**
+     * gets the player whose turn it was
+     * @return the index of the current player, starting from zero
+     */
+    public int getCurrentPlayer(){
+        return PackedGameState.getCurrentPlayer(state[0]);
+    }
+
+    /**
+     * gets the number of times the current player had rolled this turn
+     * @return the roll count of the current turn
+     */
+    public int getRollCount(){
+        return PackedGameState.getRollCount(state[getCurrentPlayer() + 1]);
+    }
+
+    /**
+     * gets the value of a die
+     * @param die the index of the die
+     * @return the value of the die, zero if it had not been rolled
+     */
+    public int getDieValue(int die){
+        return PackedGameState.getDieValue(state[0], die);
+    }
+
+    /**
+     * gets whether a die was held
+     * @param die the index of the die
+     * @return true if the die was held, false otherwise
+     */
+    public boolean isHeld(int die){
+        return PackedGameState.isHeld(state[0], die);
+    }
+
+    /**
+     * gets whether a player had scored or scratched a category
+     * @param player the index of the player, starting from zero
+     * @param category the index of the category
+     * @return true if the category was scored, false otherwise
+     */
+    public boolean isCategoryScored(int player, int category){
+        return (PackedGameState.getScoredCategories(state[player + 1]) & (1 << category)) != 0;
+    }
+
+    /**
+     * gets the points a player had scored in a category
+     * @param player the index of the player, starting from zero
+     * @param category the index of the category
+     * @return the points, zero if the category was unscored or scratched
+     */
+    public int getScore(int player, int category){
+        return PackedGameState.getScore(state[player + 1], category);
+    }
+
+    /**
+     * gets a player's total score
+     * @param player the index of the player, starting from zero
+     * @return the total score, with the bonus
+     */
+    public int getTotalScore(int player){
+        return PackedGameState.getTotalScore(state[player + 1]);
+    }
+
+    /**
+     * gets whether every player had finished, as Yahtzee.allPlayersFinished() would have said
+     * @return true if the game was over, false otherwise
+     */
+    public boolean isOver(){
+        for(int player = 0; player < getNumPlayers(); player++){
+            if((PackedGameState.getScoredCategories(state[player + 1]) & Player.ALL_CATEGORIES) != Player.ALL_CATEGORIES){
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * GreedyStrategy.java
+ *
+ * This class creates a simple strategy which chases the most common die
+ * value and scores whichever category is worth the most points right now
+ *
+ * @author Robert Kenney
+ */
+public class GreedyStrategy implements Strategy {
+
+    /**
+     * holds every die showing the most common value, preferring
+     * the higher value when two values are tied
+     * @param game the game
+     * @return the mask of the dice to hold
+     */
+    public int chooseHolds(Yahtzee game){
+        int bestValue = 1;
+        int bestCount = 0;
+        for(int value = Die.MAX_DIE_VALUE; value >= 1; value--){
+            int count = game.getNumSameValueDice(value);
+            if(count > bestCount){
+                bestCount = count;
+                bestValue = value;
+            }
+        }
+        int holds = 0;
+        for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+            if(game.getDie(die).getValue() == bestValue){
+                holds |= 1 << die;
+            }
+        }
+        return holds;
+    }
+
+    /**
+     * takes the yahtzee bonus whenever possible, otherwise scores the
+     * unscored category worth the most points. after a yahtzee bonus
+     * the category worth the least is given up instead
+     * @param game the game
+     * @return the index of the category to score
+     */
+    public int chooseCategory(Yahtzee game){
+        Player player = game.getCurrentPlayer();
+        if(!player.hasYahtzeeBonusedThisTurn() && game.canYahtzeeBonus()){
+            return Yahtzee.YAHTZEE_BONUS;
+        }
+        int bestCategory = -1;
+        int bestScore = 0;
+        for(int category = 0; category < Yahtzee.YAHTZEE_BONUS; category++){
+            if(!player.isCategoryScored(category)){
+                int score = game.getCategoryScore(category);
+                if(player.hasYahtzeeBonusedThisTurn()){
+                    score = -score;
+                }
+                if(bestCategory == -1 || score > bestScore){
+                    bestCategory = category;
+                    bestScore = score;
+                }
+            }
+        }
+        return bestCategory;
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * HandScorer.java
+ *
+ * This interface defines a way of scoring many hands in every category at
+ * once, laid out the way BatchScorer lays them out. ScoringFuzzer checks
+ * any implementation against the scoring in the Yahtzee class
+ *
+ * @author Robert Kenney
+ */
+public interface HandScorer {
+
+    /**
+     * scores hands in every category, with the yahtzee bonus last
+     * @param dice the value of each die of each hand, dice[die][hand], every value from 1 to 6, in the order rolled
+     * @param hasYahtzee whether the player has already scored a yahtzee, which decides the yahtzee bonus
+     * @param scores filled with the points of each hand in each category, scores[category][hand]
+     * @param numHands the number of hands to score, from the start of the arrays
+     */
+    public void score(byte[][] dice, boolean hasYahtzee, int[][] scores, int numHands);
+}
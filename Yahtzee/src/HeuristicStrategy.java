@@ -0,0 +1,20 @@
+/**
+ * HeuristicStrategy.java
+ *
+ * This class creates a strategy which plays each turn for the most points
+ * it can expect to score that turn, counting the upper section bonus when
+ * a numeric category would earn it. it looks no further than the end of
+ * the turn, so it needs no expected value table, and plays much better
+ * than GreedyStrategy while falling short of OptimalStrategy
+ *
+ * @author Robert Kenney
+ */
+public class HeuristicStrategy extends OptimalStrategy {
+
+    /**
+     * This is the constructor which initializes the strategy
+    */
+    public HeuristicStrategy(){
+        super(null);
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * HoldAdvice.java
+ *
+ * This class holds one suggestion from the hold advisor: which dice to
+ * hold before the next roll and the score that choice is expected to lead to
+ *
+ * @author Robert Kenney
+ */
+public class HoldAdvice {
+
+    /** the dice to hold, bit i being set if die i is to be held */
+    private int holds;
+
+    /** the keep the held dice make, see KeepTable */
+    private int keep;
+
+    /** the score the choice is expected to lead to */
+    private float expectedScore;
+
+    /**
+     * This is the constructor which initializes a suggestion
+     * @param holds the mask of dice to hold
+     * @param keep the index of the keep the held dice make
+     * @param expectedScore the score the choice is expected to lead to
+    */
+    public HoldAdvice(int holds, int keep, float expectedScore){
+        this.holds = holds;
+        this.keep = keep;
+        this.expectedScore = expectedScore;
+    }
+
+    /**
+     * gets the dice to hold
+     * @return a mask where bit i is set if die i is to be held
+     */
+    public int getHolds(){
+        return holds;
+    }
+
+    /**
+     * gets whether a die should be held
+     * @param die the index of the die
+     * @return true if the die should be held, false if it should be rolled
+     */
+    public boolean isHeld(int die){
+        return (holds & (1 << die)) != 0;
+    }
+
+    /**
+     * gets the keep the held dice make
+     * @return the index of the keep
+     */
+    public int getKeep(){
+        return keep;
+    }
+
+    /**
+     * gets the score the choice is expected to lead to
+     * @return the expected score
+     */
+    public float getExpectedScore(){
+        return expectedScore;
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.*;
+
+/**
+ * HoldAdvisor.java
+ *
+ * This class suggests which dice to hold after a roll. every different
+ * group of dice that could be held is valued by summing, over the hands it
+ * could turn into, the chance of each hand from KeepTable times the value
+ * of that hand from a TurnEvaluator
+ *
+ * the evaluator only has to be run again when the scorecard changes, which
+ * is once a turn, so the advice after each roll is a few thousand
+ * additions and fast enough to be worked out on the event thread
+ *
+ * with an expected value table, the expected score of a choice is the
+ * player's expected final score. without one it is the points the player
+ * can expect to score this turn
+ *
+ * @author Robert Kenney
+ */
+public class HoldAdvisor {
+
+    /** the evaluator valuing the hands of the turn */
+    private TurnEvaluator evaluator;
+
+    /** whether the advice includes the points expected after this turn */
+    private boolean hasTable;
+
+    /** the scorecard the evaluator was last run for, or -1 if it has not been run */
+    private long evaluatedState;
+
+    /** whether each keep has already been suggested, reused between calls */
+    private boolean[] suggested;
+
+    /**
+     * This is the constructor which initializes an advisor
+     * @param table the expected values of the scorecards, or null to only look at this turn
+    */
+    public HoldAdvisor(ExpectedValueTable table){
+        evaluator = new TurnEvaluator(table);
+        hasTable = table != null;
+        evaluatedState = -1;
+        suggested = new boolean[KeepTable.NUM_KEEPS];
+    }
+
+    /**
+     * suggests every different group of dice that could be held
+     * @param game the game, with the dice as they were last rolled
+     * @return the suggestions, best first, or none if the current player cannot roll again
+     */
+    public HoldAdvice[] advise(Yahtzee game){
+        Player player = game.getCurrentPlayer();
+        int hand = game.getHand();
+        if(hand < 0 || !player.canRoll()){
+            return new HoldAdvice[0];
+        }
+        evaluate(player);
+
+        int rollsLeft = Yahtzee.ROLLS_PER_TURN - player.getCurrentTurnRollCount();
+        float base = hasTable ? player.getTotalScore() : 0;
+        List<HoldAdvice> advice = new ArrayList<HoldAdvice>();
+        Arrays.fill(suggested, false);
+        for(int holds = Strategy.HOLD_ALL; holds >= 0; holds--){
+            int keep = KeepTable.getKeep(game, holds);
+            if(!suggested[keep]){
+                suggested[keep] = true;
+                advice.add(new HoldAdvice(holds, keep, base + getKeepValue(rollsLeft, keep)));
+            }
+        }
+        Collections.sort(advice, new Comparator<HoldAdvice>(){
+            public int compare(HoldAdvice a, HoldAdvice b){
+                return Float.compare(b.getExpectedScore(), a.getExpectedScore());
+            }
+        });
+        return advice.toArray(new HoldAdvice[advice.size()]);
+    }
+
+    /**
+     * suggests the best group of dice to hold
+     * @param game the game, with the dice as they were last rolled
+     * @return the best suggestion, or null if the current player cannot roll again
+     */
+    public HoldAdvice getBestHold(Yahtzee game){
+        HoldAdvice[] advice = advise(game);
+        if(advice.length == 0){
+            return null;
+        }
+        return advice[0];
+    }
+
+    /**
+     * runs the evaluator for a player's scorecard, unless it was the last one evaluated
+     * @param player the player
+     */
+    private void evaluate(Player player){
+        long state = ExpectedValueTable.index(player.getScoredCategories(), player.getTopScore(), player.hasYahtzee());
+        if(state != evaluatedState){
+            evaluator.evaluate(player);
+            evaluatedState = state;
+        }
+    }
+
+    /**
+     * values a keep by the chance of each hand it can turn into
+     * @param rollsLeft the number of rolls left in the turn, including the next one
+     * @param keep the index of the keep
+     * @return the points expected from holding the keep
+     */
+    private float getKeepValue(int rollsLeft, int keep){
+        float value = 0;
+        for(int outcome = KeepTable.getOutcomeStart(keep); outcome < KeepTable.getOutcomeEnd(keep); outcome++){
+            value += KeepTable.getOutcomeProbability(outcome) * evaluator.getHandValue(rollsLeft - 1, KeepTable.getOutcomeHand(outcome));
+        }
+        return value;
+    }
+}
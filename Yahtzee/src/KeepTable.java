@@ -0,0 +1,365 @@
+import java.util.*;
+
+/**
+ * KeepTable.java
+ *
+ * This class lists every group of dice a player can hold between rolls.
+ * like the hands in ScoreTable, the order of the held dice does not
+ * matter, so a keep is just how many of each value are held, from none
+ * to all five dice, which gives 462 different keeps
+ *
+ * keeps are numbered with the largest first, so the 252 keeps of five
+ * dice come first, in the same order as the hands in ScoreTable, and the
+ * empty keep, holding nothing, is the last
+ *
+ * the chance of each hand a keep can turn into, once the rest of the dice
+ * are rolled, is worked out when the class loads, so the value of a keep
+ * is a short sum over its outcomes
+ *
+ * @author Robert Kenney
+ */
+public class KeepTable {
+
+    /** the number of different keeps */
+    public static final int NUM_KEEPS = 462;
+
+    /** the keep holding no dice */
+    public static final int EMPTY_KEEP = NUM_KEEPS - 1;
+
+    /** the number of keys, one for each way of counting up to five of each value */
+    private static final int NUM_KEYS = 46656;
+
+    /** the keep for each key, where a key is the count of each value as a base six number */
+    private static final short[] KEEPS = new short[NUM_KEYS];
+
+    /** the key of each keep */
+    private static final int[] KEYS = new int[NUM_KEEPS];
+
+    /** the number of dice held in each keep */
+    private static final byte[] SIZES = new byte[NUM_KEEPS];
+
+    /** the keep made by adding a die of each value to each keep, six to a keep */
+    private static final short[] ADD = new short[NUM_KEEPS * Die.MAX_DIE_VALUE];
+
+    /** where each hand's list of smaller keeps starts in SUB_KEEPS, with one extra entry marking the end */
+    private static final int[] SUB_KEEP_START = new int[ScoreTable.NUM_HANDS + 1];
+
+    /** every different keep that can be held from each hand, listed hand after hand */
+    private static final short[] SUB_KEEPS;
+
+    /** where each keep's list of outcomes starts, with one extra entry marking the end */
+    private static final int[] OUTCOME_START = new int[NUM_KEEPS + 1];
+
+    /** the hands each keep can end up as once the rest of the dice are rolled, listed keep after keep */
+    private static final short[] OUTCOME_HANDS;
+
+    /** the chance of each outcome in OUTCOME_HANDS */
+    private static final float[] OUTCOME_PROBABILITIES;
+
+    /** the number of ways the dice not held can be rolled to make each outcome in OUTCOME_HANDS */
+    private static final short[] OUTCOME_WAYS;
+
+    static {
+        Arrays.fill(KEEPS, (short) -1);
+        int keep = 0;
+        for(int size = Yahtzee.NUM_DICE; size >= 0; size--){
+            if(size == Yahtzee.NUM_DICE){
+                for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+                    int[] counts = new int[Die.MAX_DIE_VALUE];
+                    for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+                        counts[ScoreTable.getHandValue(hand, die) - 1]++;
+                    }
+                    addKeep(keep++, counts, size);
+                }
+            } else {
+                int[] counts = new int[Die.MAX_DIE_VALUE];
+                for(int key = 0; key < NUM_KEYS; key++){
+                    int sum = 0;
+                    int rest = key;
+                    for(int value = 0; value < Die.MAX_DIE_VALUE; value++){
+                        counts[value] = rest % Die.MAX_DIE_VALUE;
+                        sum += counts[value];
+                        rest /= Die.MAX_DIE_VALUE;
+                    }
+                    if(sum == size){
+                        addKeep(keep++, counts, size);
+                    }
+                }
+            }
+        }
+
+        for(keep = 0; keep < NUM_KEEPS; keep++){
+            for(int value = 1; value <= Die.MAX_DIE_VALUE; value++){
+                int added = -1;
+                if(SIZES[keep] < Yahtzee.NUM_DICE){
+                    added = KEEPS[KEYS[keep] + power(value - 1)];
+                }
+                ADD[keep * Die.MAX_DIE_VALUE + value - 1] = (short) added;
+            }
+        }
+
+        List<Short> subKeeps = new ArrayList<Short>();
+        for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+            SUB_KEEP_START[hand] = subKeeps.size();
+            for(int mask = 0; mask < (1 << Yahtzee.NUM_DICE); mask++){
+                short sub = (short) getKeep(hand, mask);
+                if(!subKeeps.subList(SUB_KEEP_START[hand], subKeeps.size()).contains(sub)){
+                    subKeeps.add(sub);
+                }
+            }
+        }
+        SUB_KEEP_START[ScoreTable.NUM_HANDS] = subKeeps.size();
+        SUB_KEEPS = new short[subKeeps.size()];
+        for(int sub = 0; sub < SUB_KEEPS.length; sub++){
+            SUB_KEEPS[sub] = subKeeps.get(sub);
+        }
+
+        double[][] chances = new double[NUM_KEEPS][];
+        int numOutcomes = 0;
+        for(keep = 0; keep < NUM_KEEPS; keep++){
+            chances[keep] = new double[ScoreTable.NUM_HANDS];
+            if(SIZES[keep] == Yahtzee.NUM_DICE){
+                chances[keep][getHand(keep)] = 1;
+            } else {
+                for(int value = 1; value <= Die.MAX_DIE_VALUE; value++){
+                    double[] added = chances[add(keep, value)];
+                    for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+                        chances[keep][hand] += added[hand] / Die.MAX_DIE_VALUE;
+                    }
+                }
+            }
+            for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+                if(chances[keep][hand] > 0){
+                    numOutcomes++;
+                }
+            }
+        }
+        OUTCOME_HANDS = new short[numOutcomes];
+        OUTCOME_PROBABILITIES = new float[numOutcomes];
+        OUTCOME_WAYS = new short[numOutcomes];
+        int outcome = 0;
+        for(keep = 0; keep < NUM_KEEPS; keep++){
+            OUTCOME_START[keep] = outcome;
+            for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+                if(chances[keep][hand] > 0){
+                    OUTCOME_HANDS[outcome] = (short) hand;
+                    OUTCOME_PROBABILITIES[outcome] = (float) chances[keep][hand];
+                    OUTCOME_WAYS[outcome] = (short) Math.round(chances[keep][hand] * getNumRolls(keep));
+                    outcome++;
+                }
+            }
+        }
+        OUTCOME_START[NUM_KEEPS] = outcome;
+    }
+
+    /**
+     * fills in the table entries of a keep
+     * @param keep the index of the keep
+     * @param counts the number of dice of each value held
+     * @param size the number of dice held
+     */
+    private static void addKeep(int keep, int[] counts, int size){
+        int key = 0;
+        for(int value = Die.MAX_DIE_VALUE - 1; value >= 0; value--){
+            key = key * Die.MAX_DIE_VALUE + counts[value];
+        }
+        KEEPS[key] = (short) keep;
+        KEYS[keep] = key;
+        SIZES[keep] = (byte) size;
+    }
+
+    /**
+     * gets the place value of a die value's count in a key
+     * @param digit the die value minus one
+     * @return six to the power of the digit
+     */
+    private static int power(int digit){
+        int power = 1;
+        for(int i = 0; i < digit; i++){
+            power *= Die.MAX_DIE_VALUE;
+        }
+        return power;
+    }
+
+    /**
+     * gets the keep made by holding some of the dice of a hand
+     * @param hand the index of the hand
+     * @param holds a mask where bit i is set if the ith lowest die of the hand is held
+     * @return the index of the keep
+     */
+    public static int getKeep(int hand, int holds){
+        int key = 0;
+        for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+            if((holds & (1 << die)) != 0){
+                key += power(ScoreTable.getHandValue(hand, die) - 1);
+            }
+        }
+        return KEEPS[key];
+    }
+
+    /**
+     * gets the dice to hold in a game to make a keep, the first die of each value held first
+     * @param game the game
+     * @param keep the index of a keep that can be held from the dice
+     * @return a mask where bit i is set if die i is to be held
+     */
+    public static int getHolds(Yahtzee game, int keep){
+        int holds = 0;
+        for(int value = 1; value <= Die.MAX_DIE_VALUE; value++){
+            int count = getCount(keep, value);
+            for(int die = 0; die < Yahtzee.NUM_DICE && count > 0; die++){
+                if(game.getDie(die).getValue() == value){
+                    holds |= 1 << die;
+                    count--;
+                }
+            }
+        }
+        return holds;
+    }
+
+    /**
+     * gets the keep made by holding some of the dice in a game
+     * @param game the game
+     * @param holds a mask where bit i is set if die i is held
+     * @return the index of the keep
+     */
+    public static int getKeep(Yahtzee game, int holds){
+        int key = 0;
+        for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+            if((holds & (1 << die)) != 0){
+                key += power(game.getDie(die).getValue() - 1);
+            }
+        }
+        return KEEPS[key];
+    }
+
+    /**
+     * gets the number of dice of a value held in a keep
+     * @param keep the index of the keep
+     * @param value the die value
+     * @return the number of dice of that value
+     */
+    public static int getCount(int keep, int value){
+        return KEYS[keep] / power(value - 1) % Die.MAX_DIE_VALUE;
+    }
+
+    /**
+     * gets the number of dice held in a keep
+     * @param keep the index of the keep
+     * @return the number of dice held
+     */
+    public static int getSize(int keep){
+        return SIZES[keep];
+    }
+
+    /**
+     * gets the number of different ways the dice not held in a keep can be rolled
+     * @param keep the index of the keep
+     * @return six to the power of the number of dice not held
+     */
+    public static int getNumRolls(int keep){
+        return power(Yahtzee.NUM_DICE - SIZES[keep]);
+    }
+
+    /**
+     * gets the keep made by adding one die to a keep
+     * @param keep the index of the keep, which must hold fewer than five dice
+     * @param value the value of the added die
+     * @return the index of the larger keep
+     */
+    public static int add(int keep, int value){
+        return ADD[keep * Die.MAX_DIE_VALUE + value - 1];
+    }
+
+    /**
+     * gets the hand a keep of five dice makes
+     * @param keep the index of the keep, which must hold five dice
+     * @return the index of the hand
+     */
+    public static int getHand(int keep){
+        return keep;
+    }
+
+    /**
+     * gets the keep holding every die of a hand
+     * @param hand the index of the hand
+     * @return the index of the keep
+     */
+    public static int getFullKeep(int hand){
+        return hand;
+    }
+
+    /**
+     * gets where a hand's list of keeps starts
+     * @param hand the index of the hand
+     * @return the position of the first keep in the list
+     */
+    public static int getSubKeepStart(int hand){
+        return SUB_KEEP_START[hand];
+    }
+
+    /**
+     * gets where a hand's list of keeps ends
+     * @param hand the index of the hand
+     * @return the position after the last keep in the list
+     */
+    public static int getSubKeepEnd(int hand){
+        return SUB_KEEP_START[hand + 1];
+    }
+
+    /**
+     * gets a keep from the lists of keeps
+     * @param position the position in the lists
+     * @return the index of the keep
+     */
+    public static int getSubKeep(int position){
+        return SUB_KEEPS[position];
+    }
+
+    /**
+     * gets where a keep's list of outcomes starts
+     * @param keep the index of the keep
+     * @return the position of the first outcome in the list
+     */
+    public static int getOutcomeStart(int keep){
+        return OUTCOME_START[keep];
+    }
+
+    /**
+     * gets where a keep's list of outcomes ends
+     * @param keep the index of the keep
+     * @return the position after the last outcome in the list
+     */
+    public static int getOutcomeEnd(int keep){
+        return OUTCOME_START[keep + 1];
+    }
+
+    /**
+     * gets the hand of an outcome
+     * @param outcome the position in the lists of outcomes
+     * @return the index of the hand
+     */
+    public static int getOutcomeHand(int outcome){
+        return OUTCOME_HANDS[outcome];
+    }
+
+    /**
+     * gets the chance of an outcome
+     * @param outcome the position in the lists of outcomes
+     * @return the chance of rolling that hand from the keep
+     */
+    public static float getOutcomeProbability(int outcome){
+        return OUTCOME_PROBABILITIES[outcome];
+    }
+
+    /**
+     * gets the number of ways the dice not held can be rolled to make an
+     * outcome. divided by getNumRolls() of the keep, this is the exact
+     * chance of the outcome
+     * @param outcome the position in the lists of outcomes
+     * @return the number of rolls making that hand from the keep
+     */
+    public static int getOutcomeWays(int outcome){
+        return OUTCOME_WAYS[outcome];
+    }
+}
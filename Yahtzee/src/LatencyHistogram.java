@@ -0,0 +1,132 @@
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * LatencyHistogram.java
+ *
+ * This class counts how long an operation takes, in buckets of powers of
+ * two nanoseconds, so a percentile is known to within a factor of two.
+ * recording a time is an increment of one bucket and an add to the total,
+ * with no lock, so any number of threads can record at once
+ *
+ * @author Robert Kenney
+ */
+public class LatencyHistogram {
+
+    /** the number of buckets, enough for any time a long can hold */
+    public static final int NUM_BUCKETS = 64;
+
+    /** the name of the operation timed */
+    private String name;
+
+    /** the number of times in each bucket, bucket b holding times from 2^(b-1) up to 2^b - 1 nanoseconds, bucket 0 holding zero */
+    private AtomicLongArray buckets;
+
+    /** the sum of every time recorded */
+    private LongAdder totalNanos;
+
+    /** the longest time recorded */
+    private LongAccumulator maxNanos;
+
+    /**
+     * This is the constructor which initializes an empty histogram
+     * @param name the name of the operation timed
+    */
+    public LatencyHistogram(String name){
+        this.name = name;
+        buckets = new AtomicLongArray(NUM_BUCKETS);
+        totalNanos = new LongAdder();
+        maxNanos = new LongAccumulator(new LongBinaryOperator(){
+            public long applyAsLong(long a, long b){
+                return Math.max(a, b);
+            }
+        }, 0);
+    }
+
+    /**
+     * records the time since a start taken by Metrics.start(), if metrics are on
+     * @param start the start of the operation, in System.nanoTime()
+     */
+    public void recordSince(long start){
+        if(Metrics.ENABLED){
+            record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * records how long the operation took once
+     * @param nanos the time in nanoseconds
+     */
+    public void record(long nanos){
+        if(nanos < 0){
+            nanos = 0;
+        }
+        buckets.incrementAndGet(NUM_BUCKETS - Long.numberOfLeadingZeros(nanos));
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * gets the name of the operation timed
+     * @return the name
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * gets the number of times recorded
+     * @return the count
+     */
+    public long getCount(){
+        long count = 0;
+        for(int bucket = 0; bucket < NUM_BUCKETS; bucket++){
+            count += buckets.get(bucket);
+        }
+        return count;
+    }
+
+    /**
+     * gets the sum of every time recorded
+     * @return the total in nanoseconds
+     */
+    public long getTotalNanos(){
+        return totalNanos.sum();
+    }
+
+    /**
+     * gets the longest time recorded
+     * @return the time in nanoseconds
+     */
+    public long getMaxNanos(){
+        return maxNanos.get();
+    }
+
+    /**
+     * gets a time at least as long as a share of the times recorded
+     * @param percentile the share of the times, from 0 to 100
+     * @return the upper end of the bucket holding the percentile, in nanoseconds, or zero if nothing was recorded
+     */
+    public long getPercentile(double percentile){
+        long count = getCount();
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for(int bucket = 0; bucket < NUM_BUCKETS; bucket++){
+            seen += buckets.get(bucket);
+            if(seen >= rank && seen > 0){
+                return Math.min(bucket == 0 ? 0 : (1L << bucket) - 1, getMaxNanos());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * describes the histogram in one line
+     * @return the name, count, mean, percentiles and longest time
+     */
+    public String toString(){
+        long count = getCount();
+        return String.format("%s count=%d mean_ns=%d p50_ns=%d p99_ns=%d max_ns=%d", name, count,
+                count == 0 ? 0 : getTotalNanos() / count, getPercentile(50), getPercentile(99), getMaxNanos());
+    }
+}
@@ -0,0 +1,578 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Leaderboard.java
+ *
+ * This class keeps every player's result of every finished game in a
+ * file, and answers the best scores ever and each player's recent games.
+ * the file holds a short header followed by one record of RECORD_BYTES
+ * for each player of each game, only ever appended, so a record's
+ * position in the file is its number for good
+ *
+ * the index is the record numbers of each total score, and of each
+ * player's games in the order they were played. it is saved in a
+ * LeaderboardIndex file next to the leaderboard, which is mapped rather
+ * than read, and only the records written since it was saved are read
+ * and indexed in memory when the leaderboard is opened. the saved index
+ * is written again on close once MAX_UNINDEXED records are not in it, so
+ * opening stays quick however many games are stored. a query walks the
+ * index and reads only the records it returns, so it takes microseconds
+ *
+ * results are written by a thread of their own, so the gui never waits
+ * on the disk. every result waiting when the thread gets to them is
+ * written in one go, and they are added to the index once written
+ *
+ * @author Robert Kenney
+ */
+public class Leaderboard implements Closeable {
+
+    /** the file the leaderboard is kept in when no other is given */
+    public static final String DEFAULT_FILE = "yahtzee-scores.bin";
+
+    /** the number at the start of every leaderboard file */
+    public static final int MAGIC = 0x59534352;
+
+    /** the version of the file format */
+    public static final int VERSION = 1;
+
+    /** the length of the header in bytes */
+    public static final int HEADER_BYTES = 8;
+
+    /** the length of each record in bytes */
+    public static final int RECORD_BYTES = 64;
+
+    /** the most bytes of a player's name that are kept, as UTF-8 */
+    public static final int NAME_BYTES = 16;
+
+    /** the number of scores in each record, every category followed by the yahtzee bonuses */
+    public static final int NUM_SCORES = Yahtzee.YAHTZEE_BONUS + 1;
+
+    /** the most players a stored game can have */
+    public static final int MAX_PLAYERS = 255;
+
+    /** the number of results shown when none is given on the command line */
+    public static final int DEFAULT_NUM_SHOWN = 10;
+
+    /** the most records left out of the saved index when the leaderboard is closed */
+    public static final int MAX_UNINDEXED = 1 << 16;
+
+    /** the position of the player's name in a record */
+    private static final int NAME_OFFSET = RECORD_BYTES - NAME_BYTES;
+
+    /** the number of records read at once when the index is built */
+    private static final int RECORDS_PER_READ = 1 << 14;
+
+    /** the file */
+    private File file;
+
+    /** the file the index is saved in */
+    private File indexFile;
+
+    /** the saved index, covering the first records, or null if there is none */
+    private LeaderboardIndex saved;
+
+    /** the number of records the saved index covers, the rest are indexed in memory */
+    private int numIndexed;
+
+    /** the channel the file is read and written through */
+    private FileChannel channel;
+
+    /** the thread the results are written on */
+    private ExecutorService writer;
+
+    /** the results waiting to be written */
+    private Queue<LeaderboardEntry> pending;
+
+    /** the number of the next game to be recorded */
+    private AtomicLong nextGame;
+
+    /** the number of records in the file, guarded by this */
+    private int numEntries;
+
+    /** the record numbers of each total score not in the saved index, in the order they were written, guarded by this */
+    private Records[] byScore;
+
+    /** the highest total score not in the saved index, or -1 if there are none, guarded by this */
+    private int highestScore;
+
+    /** the record numbers of each player's games not in the saved index, in the order they were played, guarded by this */
+    private Map<String, Records> byName;
+
+    /**
+     * This is the constructor which opens a leaderboard, making the file if
+     * there is none, maps its saved index and indexes the records written
+     * since. a record cut off part way through by a crash is dropped
+     * @param file the file the leaderboard is kept in
+     * @throws IOException if the file cannot be read or is not a leaderboard of this version
+    */
+    public Leaderboard(File file) throws IOException {
+        this.file = file;
+        indexFile = LeaderboardIndex.getFile(file);
+        pending = new ConcurrentLinkedQueue<LeaderboardEntry>();
+        nextGame = new AtomicLong();
+        byScore = new Records[Short.MAX_VALUE + 1];
+        highestScore = -1;
+        byName = new HashMap<String, Records>();
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            readIndex();
+        } catch(IOException e){
+            channel.close();
+            throw e;
+        }
+        writer = Executors.newSingleThreadExecutor(new ThreadFactory(){
+            public Thread newThread(Runnable task){
+                Thread thread = new Thread(task, "leaderboard");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * checks the header, writing it to a new file, maps the saved index if
+     * it matches the file, and indexes every whole record it does not cover
+     * @throws IOException if the file cannot be read or is not a leaderboard of this version
+     */
+    private void readIndex() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if(channel.size() < HEADER_BYTES){
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.flip();
+            channel.truncate(0);
+            writeFully(header, 0);
+            return;
+        }
+        readFully(header, 0);
+        header.flip();
+        if(header.getInt() != MAGIC){
+            throw new IOException(file + " is not a leaderboard");
+        }
+        int version = header.getInt();
+        if(version != VERSION){
+            throw new IOException(file + " is version " + version + " of the leaderboard, not " + VERSION);
+        }
+
+        long records = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+        if(records > Integer.MAX_VALUE){
+            throw new IOException(file + " holds more records than can be indexed");
+        }
+        channel.truncate(HEADER_BYTES + records * RECORD_BYTES);
+        numEntries = (int) records;
+        saved = LeaderboardIndex.open(indexFile);
+        if(saved != null && !matchesIndex(saved)){
+            System.err.println("Ignoring " + indexFile + ", it does not match " + file);
+            saved = null;
+        }
+        numIndexed = saved == null ? 0 : saved.getNumEntries();
+        if(saved != null){
+            nextGame.set(saved.getNextGame());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORDS_PER_READ * RECORD_BYTES);
+        for(int first = numIndexed; first < records; first += RECORDS_PER_READ){
+            int count = (int) Math.min(RECORDS_PER_READ, records - first);
+            buffer.clear().limit(count * RECORD_BYTES);
+            readFully(buffer, getPosition(first));
+            for(int record = 0; record < count; record++){
+                int offset = record * RECORD_BYTES;
+                nextGame.set(Math.max(nextGame.get(), buffer.getLong(offset + 8) + 1));
+                index(first + record, buffer.getShort(offset + 16), readName(buffer, offset));
+            }
+        }
+    }
+
+    /**
+     * checks that a saved index covers records that are in the file, by its last record
+     * @param index the saved index
+     * @return true if the index can be used, false otherwise
+     * @throws IOException if the file cannot be read
+     */
+    private boolean matchesIndex(LeaderboardIndex index) throws IOException {
+        if(index.getNumEntries() > numEntries){
+            return false;
+        }
+        if(index.getNumEntries() == 0){
+            return true;
+        }
+        LeaderboardEntry last = readRecord(index.getNumEntries() - 1);
+        return index.matches(last.getTime(), last.getGame());
+    }
+
+    /**
+     * saves the index of every record written so far, so the next time the
+     * leaderboard is opened no records need to be read
+     * @throws IOException if the index cannot be written
+     */
+    public synchronized void saveIndex() throws IOException {
+        int[] scores = new int[numEntries - numIndexed];
+        String[] names = new String[numEntries - numIndexed];
+        for(int score = 0; score <= highestScore; score++){
+            Records records = byScore[score];
+            for(int i = 0; records != null && i < records.size; i++){
+                scores[records.records[i] - numIndexed] = score;
+            }
+        }
+        for(Map.Entry<String, Records> player : byName.entrySet()){
+            Records records = player.getValue();
+            for(int i = 0; i < records.size; i++){
+                names[records.records[i] - numIndexed] = player.getKey();
+            }
+        }
+        long lastTime = 0;
+        long lastGame = 0;
+        if(numEntries > 0){
+            LeaderboardEntry last = readRecord(numEntries - 1);
+            lastTime = last.getTime();
+            lastGame = last.getGame();
+        }
+        LeaderboardIndex.write(indexFile, saved, scores, names, nextGame.get(), lastTime, lastGame);
+    }
+
+    /**
+     * adds a record to the index
+     * @param record the record number
+     * @param totalScore the total score of the record
+     * @param name the name of the player
+     */
+    private void index(int record, int totalScore, String name){
+        if(byScore[totalScore] == null){
+            byScore[totalScore] = new Records();
+        }
+        byScore[totalScore].add(record);
+        highestScore = Math.max(highestScore, totalScore);
+        Records games = byName.get(name);
+        if(games == null){
+            games = new Records();
+            byName.put(name, games);
+        }
+        games.add(record);
+    }
+
+    /**
+     * records the result of every player in a finished game. the results are
+     * written on the leaderboard's own thread, and can be queried once written
+     * @param game the game, which should be over
+     * @param names the name of each player, cut down to NAME_BYTES of UTF-8 if longer
+     * @throws IllegalArgumentException if there is not a name for each player or there are too many players
+     */
+    public void record(Yahtzee game, String[] names){
+        int numPlayers = game.getNumPlayers();
+        if(names.length != numPlayers || numPlayers > MAX_PLAYERS){
+            throw new IllegalArgumentException("Cannot record a game of " + numPlayers + " players with " + names.length + " names");
+        }
+        long time = System.currentTimeMillis();
+        long number = nextGame.getAndIncrement();
+        for(int seat = 0; seat < numPlayers; seat++){
+            Player player = game.getPlayer(seat);
+            int[] scores = new int[NUM_SCORES];
+            for(int category = 0; category < NUM_SCORES; category++){
+                scores[category] = player.getScoreValue(category);
+            }
+            pending.add(new LeaderboardEntry(fitName(names[seat]), time, number, seat, numPlayers, player.getTotalScore(), scores));
+        }
+        writer.execute(new Runnable(){
+            public void run(){
+                writePending();
+            }
+        });
+    }
+
+    /**
+     * writes every result waiting in one go and adds them to the index
+     */
+    private void writePending(){
+        if(pending.isEmpty()){
+            return;
+        }
+        List<LeaderboardEntry> batch = new ArrayList<LeaderboardEntry>();
+        LeaderboardEntry entry;
+        while((entry = pending.poll()) != null){
+            batch.add(entry);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(batch.size() * RECORD_BYTES);
+        for(LeaderboardEntry result : batch){
+            writeRecord(buffer, result);
+        }
+        buffer.flip();
+
+        int first;
+        synchronized(this){
+            first = numEntries;
+        }
+        try {
+            writeFully(buffer, getPosition(first));
+            channel.force(false);
+        } catch(IOException e){
+            System.err.println("Could not record " + batch.size() + " results to " + file + ": " + e.getMessage());
+            return;
+        }
+        synchronized(this){
+            for(int record = 0; record < batch.size(); record++){
+                index(first + record, batch.get(record).getTotalScore(), batch.get(record).getName());
+            }
+            numEntries = first + batch.size();
+        }
+    }
+
+    /**
+     * writes a result to a buffer as a record
+     * @param buffer the buffer, with room for the record
+     * @param entry the result
+     */
+    private static void writeRecord(ByteBuffer buffer, LeaderboardEntry entry){
+        int start = buffer.position();
+        buffer.putLong(entry.getTime());
+        buffer.putLong(entry.getGame());
+        buffer.putShort((short) entry.getTotalScore());
+        buffer.put((byte) entry.getSeat());
+        buffer.put((byte) entry.getNumPlayers());
+        for(int category = 0; category < NUM_SCORES; category++){
+            buffer.putShort((short) entry.getScore(category));
+        }
+        buffer.put(entry.getName().getBytes(StandardCharsets.UTF_8));
+        buffer.position(start + RECORD_BYTES);
+    }
+
+    /**
+     * reads a record
+     * @param record the record number
+     * @return the result held in the record
+     * @throws IOException if the file cannot be read
+     */
+    private LeaderboardEntry readRecord(int record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+        readFully(buffer, getPosition(record));
+        int[] scores = new int[NUM_SCORES];
+        for(int category = 0; category < NUM_SCORES; category++){
+            scores[category] = buffer.getShort(20 + 2 * category);
+        }
+        return new LeaderboardEntry(readName(buffer, 0), buffer.getLong(0), buffer.getLong(8),
+                buffer.get(18) & 0xFF, buffer.get(19) & 0xFF, buffer.getShort(16), scores);
+    }
+
+    /**
+     * reads the player's name from a record
+     * @param buffer the buffer holding the record
+     * @param offset the position of the record in the buffer
+     * @return the name
+     */
+    private static String readName(ByteBuffer buffer, int offset){
+        byte[] bytes = new byte[NAME_BYTES];
+        int length = 0;
+        while(length < NAME_BYTES && buffer.get(offset + NAME_OFFSET + length) != 0){
+            bytes[length] = buffer.get(offset + NAME_OFFSET + length);
+            length++;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * cuts a name down to the longest start of it that fits in NAME_BYTES of UTF-8
+     * @param name the name
+     * @return the name as it is stored
+     */
+    public static String fitName(String name){
+        while(name.getBytes(StandardCharsets.UTF_8).length > NAME_BYTES){
+            name = name.substring(0, name.offsetByCodePoints(name.length(), -1));
+        }
+        return name;
+    }
+
+    /**
+     * gets the position of a record in the file
+     * @param record the record number
+     * @return the position in bytes
+     */
+    private static long getPosition(int record){
+        return HEADER_BYTES + (long) record * RECORD_BYTES;
+    }
+
+    /**
+     * reads from the file until a buffer is full
+     * @param buffer the buffer
+     * @param position the position in the file to start reading from
+     * @throws IOException if the file cannot be read or ends first
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()){
+            int read = channel.read(buffer, position);
+            if(read < 0){
+                throw new EOFException(file + " ended part way through a record");
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * writes all of a buffer to the file
+     * @param buffer the buffer
+     * @param position the position in the file to start writing at
+     * @throws IOException if the file cannot be written
+     */
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()){
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * gets the best results ever stored, results with the same score in the order they were played
+     * @param count the most results to return
+     * @return the results, best first
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized LeaderboardEntry[] getTopScores(int count) throws IOException {
+        List<LeaderboardEntry> top = new ArrayList<LeaderboardEntry>();
+        int highest = Math.max(highestScore, saved == null ? -1 : saved.getHighestScore());
+        for(int score = highest; score >= 0 && top.size() < count; score--){
+            for(int i = 0; saved != null && i < saved.getScoreCount(score) && top.size() < count; i++){
+                top.add(readRecord(saved.getScoreRecord(score, i)));
+            }
+            Records records = byScore[score];
+            for(int i = 0; records != null && i < records.size && top.size() < count; i++){
+                top.add(readRecord(records.records[i]));
+            }
+        }
+        return top.toArray(new LeaderboardEntry[top.size()]);
+    }
+
+    /**
+     * gets a player's most recent results
+     * @param name the name of the player
+     * @param count the most results to return
+     * @return the results, newest first
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized LeaderboardEntry[] getHistory(String name, int count) throws IOException {
+        name = fitName(name);
+        List<LeaderboardEntry> history = new ArrayList<LeaderboardEntry>();
+        Records records = byName.get(name);
+        for(int i = records == null ? -1 : records.size - 1; i >= 0 && history.size() < count; i--){
+            history.add(readRecord(records.records[i]));
+        }
+        int entry = saved == null ? -1 : saved.findName(name);
+        for(int i = entry < 0 ? -1 : saved.getNameCount(entry) - 1; i >= 0 && history.size() < count; i--){
+            history.add(readRecord(saved.getNameRecord(entry, i)));
+        }
+        return history.toArray(new LeaderboardEntry[history.size()]);
+    }
+
+    /**
+     * gets the highest total score ever stored
+     * @return the score, or zero if nothing has been stored
+     */
+    public synchronized int getHighScore(){
+        return Math.max(Math.max(highestScore, saved == null ? -1 : saved.getHighestScore()), 0);
+    }
+
+    /**
+     * gets the number of results stored, one for each player of each game
+     * @return the number of results written
+     */
+    public synchronized int getNumEntries(){
+        return numEntries;
+    }
+
+    /**
+     * waits until every result recorded so far has been written
+     */
+    public void flush(){
+        try {
+            writer.submit(new Runnable(){
+                public void run(){
+                }
+            }).get();
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        } catch(ExecutionException e){
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * writes the results waiting to be written, saves the index if
+     * MAX_UNINDEXED records are not in it, and closes the file
+     * @throws IOException if the file cannot be closed
+     */
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if(getNumEntries() - numIndexed >= MAX_UNINDEXED){
+                saveIndex();
+            }
+        } catch(IOException e){
+            System.err.println("Could not save the index of " + file + ": " + e.getMessage());
+        }
+        channel.close();
+    }
+
+    /**
+     * This is the main method, which prints the best scores or a player's recent games
+     * @param args Command line arguments, either "top" and the number of results,
+     * or "history", the name of a player and the number of results
+     * @throws IOException if the leaderboard cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        Leaderboard leaderboard = new Leaderboard(new File(DEFAULT_FILE));
+        try {
+            LeaderboardEntry[] entries;
+            if(args.length > 1 && args[0].equals("history")){
+                int count = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NUM_SHOWN;
+                entries = leaderboard.getHistory(args[1], count);
+            } else {
+                int count = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUM_SHOWN;
+                entries = leaderboard.getTopScores(count);
+            }
+            for(LeaderboardEntry entry : entries){
+                System.out.println(entry);
+            }
+        } finally {
+            leaderboard.close();
+        }
+    }
+
+    /**
+     * This class is a list of record numbers that grows as records are added
+     */
+    private static class Records {
+
+        /** the record numbers, the first size of them in use */
+        private int[] records;
+
+        /** the number of record numbers in the list */
+        private int size;
+
+        /**
+         * This is the constructor which initializes an empty list
+        */
+        private Records(){
+            records = new int[4];
+            size = 0;
+        }
+
+        /**
+         * adds a record number to the end of the list
+         * @param record the record number
+         */
+        private void add(int record){
+            if(size == records.length){
+                records = Arrays.copyOf(records, size * 2);
+            }
+            records[size++] = record;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * LeaderboardEntry.java
+ *
+ * This class is one player's result in one finished game, as stored by
+ * a Leaderboard
+ *
+ * @author Robert Kenney
+ */
+public class LeaderboardEntry {
+
+    /** the name of the player */
+    private String name;
+
+    /** when the game finished, in milliseconds since the epoch */
+    private long time;
+
+    /** the number of the game, counting every game the leaderboard has stored */
+    private long game;
+
+    /** the seat the player sat in, starting from zero */
+    private int seat;
+
+    /** the number of players in the game */
+    private int numPlayers;
+
+    /** the player's total score, with the bonus */
+    private int totalScore;
+
+    /** the points scored in each category, with the yahtzee bonuses last */
+    private int[] scores;
+
+    /**
+     * This is the constructor which initializes an entry
+     * @param name the name of the player
+     * @param time when the game finished, in milliseconds since the epoch
+     * @param game the number of the game
+     * @param seat the seat the player sat in, starting from zero
+     * @param numPlayers the number of players in the game
+     * @param totalScore the player's total score
+     * @param scores the points scored in each category, which is not copied
+    */
+    public LeaderboardEntry(String name, long time, long game, int seat, int numPlayers, int totalScore, int[] scores){
+        this.name = name;
+        this.time = time;
+        this.game = game;
+        this.seat = seat;
+        this.numPlayers = numPlayers;
+        this.totalScore = totalScore;
+        this.scores = scores;
+    }
+
+    /**
+     * gets the name of the player
+     * @return the name
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * gets when the game finished
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTime(){
+        return time;
+    }
+
+    /**
+     * gets the number of the game, counting every game the leaderboard has stored
+     * @return the game number, starting from zero
+     */
+    public long getGame(){
+        return game;
+    }
+
+    /**
+     * gets the seat the player sat in
+     * @return the seat, starting from zero
+     */
+    public int getSeat(){
+        return seat;
+    }
+
+    /**
+     * gets the number of players in the game
+     * @return the number of players
+     */
+    public int getNumPlayers(){
+        return numPlayers;
+    }
+
+    /**
+     * gets the player's total score
+     * @return the total score, with the bonus
+     */
+    public int getTotalScore(){
+        return totalScore;
+    }
+
+    /**
+     * gets the points the player scored in a category
+     * @param category the index of the category, or Yahtzee.YAHTZEE_BONUS for the yahtzee bonuses
+     * @return the points, zero if the category was scratched
+     */
+    public int getScore(int category){
+        return scores[category];
+    }
+
+    /**
+     * describes the entry in one line
+     * @return the game, player and scores
+     */
+    public String toString(){
+        return String.format("%tF %<tR game %d seat %d/%d %s: %d", time, game, seat + 1, numPlayers, name, totalScore);
+    }
+}
@@ -0,0 +1,485 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * LeaderboardIndex.java
+ *
+ * This class is the index of a Leaderboard kept in a file next to it, so
+ * opening a leaderboard only reads the records written since the index
+ * was last saved rather than every record ever stored. the file is
+ * memory-mapped and read in place, so it costs no heap however many
+ * games it covers
+ *
+ * the file holds a header, the record numbers grouped by total score,
+ * the names of the players in byte order, each with where their records
+ * start and how many there are, and the record numbers grouped by name.
+ * within a score or a name the records are in the order they were
+ * written. the file is mapped in chunks, so it can be larger than 2 GB
+ *
+ * @author Robert Kenney
+ */
+public class LeaderboardIndex {
+
+    /** the ending added to the name of the leaderboard file */
+    public static final String SUFFIX = ".idx";
+
+    /** the number at the start of every index file */
+    public static final int MAGIC = 0x59534958;
+
+    /** the version of the file format */
+    public static final int VERSION = 1;
+
+    /** the number of different total scores, the most a record can hold */
+    public static final int NUM_SCORES = Short.MAX_VALUE + 1;
+
+    /** the length of the header in bytes */
+    private static final int HEADER_BYTES = 48;
+
+    /** the position of where each score's records start, with one extra entry marking the end */
+    private static final long SCORE_STARTS = HEADER_BYTES;
+
+    /** the position of the record numbers grouped by score */
+    private static final long SCORE_RECORDS = SCORE_STARTS + 4L * (NUM_SCORES + 1);
+
+    /** the length of each entry in the table of names: the name, where its records start and how many there are */
+    private static final int NAME_ENTRY_BYTES = Leaderboard.NAME_BYTES + 8;
+
+    /** the length of each mapped chunk of the file, a multiple of four so no record number is split */
+    private static final long CHUNK_BYTES = 1L << 30;
+
+    /** the mapped chunks of the file */
+    private MappedByteBuffer[] chunks;
+
+    /** the number of records covered */
+    private int numEntries;
+
+    /** the highest total score covered, or -1 if there are none */
+    private int highestScore;
+
+    /** the number of the next game after those covered */
+    private long nextGame;
+
+    /** the time of the last record covered, to check it against the leaderboard */
+    private long lastTime;
+
+    /** the game of the last record covered, to check it against the leaderboard */
+    private long lastGame;
+
+    /** the number of different names */
+    private int numNames;
+
+    /**
+     * This is the constructor which maps an index file
+     * @param file the file
+     * @throws IOException if the file cannot be read or is not an index of this version
+    */
+    private LeaderboardIndex(File file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            long size = channel.size();
+            if(size < SCORE_RECORDS){
+                throw new IOException(file + " is too short to be a leaderboard index");
+            }
+            chunks = new MappedByteBuffer[(int) ((size + CHUNK_BYTES - 1) / CHUNK_BYTES)];
+            for(int chunk = 0; chunk < chunks.length; chunk++){
+                long start = chunk * CHUNK_BYTES;
+                chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_BYTES, size - start));
+            }
+            if(getInt(0) != MAGIC || getInt(4) != VERSION){
+                throw new IOException(file + " is not a leaderboard index of version " + VERSION);
+            }
+            numEntries = getInt(8);
+            highestScore = getInt(12);
+            nextGame = getLong(16);
+            lastTime = getLong(24);
+            lastGame = getLong(32);
+            numNames = getInt(40);
+            if(size != getNameRecords() + 4L * numEntries){
+                throw new IOException(file + " is not the length its header says");
+            }
+        }
+    }
+
+    /**
+     * gets the index file of a leaderboard
+     * @param leaderboard the leaderboard file
+     * @return the index file
+     */
+    public static File getFile(File leaderboard){
+        return new File(leaderboard.getPath() + SUFFIX);
+    }
+
+    /**
+     * maps the index of a leaderboard, if it has one
+     * @param file the index file
+     * @return the index, or null if there is no index file or it cannot be read
+     */
+    public static LeaderboardIndex open(File file){
+        if(!file.exists()){
+            return null;
+        }
+        try {
+            return new LeaderboardIndex(file);
+        } catch(IOException e){
+            System.err.println("Ignoring the leaderboard index: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * reads a byte of the file
+     * @param position the position in the file
+     * @return the byte
+     */
+    private byte getByte(long position){
+        return chunks[(int) (position / CHUNK_BYTES)].get((int) (position % CHUNK_BYTES));
+    }
+
+    /**
+     * reads an int of the file, which must not cross a chunk
+     * @param position the position in the file, a multiple of four
+     * @return the int
+     */
+    private int getInt(long position){
+        return chunks[(int) (position / CHUNK_BYTES)].getInt((int) (position % CHUNK_BYTES));
+    }
+
+    /**
+     * reads a long of the header
+     * @param position the position in the header
+     * @return the long
+     */
+    private long getLong(int position){
+        return chunks[0].getLong(position);
+    }
+
+    /**
+     * gets the position of the table of names
+     * @return the position in the file
+     */
+    private long getNames(){
+        return SCORE_RECORDS + 4L * numEntries;
+    }
+
+    /**
+     * gets the position of the record numbers grouped by name
+     * @return the position in the file
+     */
+    private long getNameRecords(){
+        return getNames() + (long) NAME_ENTRY_BYTES * numNames;
+    }
+
+    /**
+     * gets the number of records covered, the first records of the leaderboard
+     * @return the number of records
+     */
+    public int getNumEntries(){
+        return numEntries;
+    }
+
+    /**
+     * gets the highest total score covered
+     * @return the score, or -1 if no records are covered
+     */
+    public int getHighestScore(){
+        return highestScore;
+    }
+
+    /**
+     * gets the number of the next game after those covered
+     * @return the game number
+     */
+    public long getNextGame(){
+        return nextGame;
+    }
+
+    /**
+     * checks the last record covered against the record in the leaderboard
+     * @param time the time of the record
+     * @param game the game of the record
+     * @return true if they are the same, false otherwise
+     */
+    public boolean matches(long time, long game){
+        return time == lastTime && game == lastGame;
+    }
+
+    /**
+     * gets the number of records with a total score
+     * @param score the total score
+     * @return the number of records
+     */
+    public int getScoreCount(int score){
+        return getInt(SCORE_STARTS + 4L * (score + 1)) - getInt(SCORE_STARTS + 4L * score);
+    }
+
+    /**
+     * gets one of the records with a total score
+     * @param score the total score
+     * @param i which of the records, from zero for the first written
+     * @return the record number
+     */
+    public int getScoreRecord(int score, int i){
+        return getInt(SCORE_RECORDS + 4L * (getInt(SCORE_STARTS + 4L * score) + i));
+    }
+
+    /**
+     * finds a player in the table of names
+     * @param name the name, as stored
+     * @return the position of the name in the table, or -1 if the player has no records covered
+     */
+    public int findName(String name){
+        byte[] key = getKey(name);
+        int low = 0;
+        int high = numNames - 1;
+        while(low <= high){
+            int middle = (low + high) >>> 1;
+            int compared = compareName(middle, key);
+            if(compared < 0){
+                low = middle + 1;
+            } else if(compared > 0){
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * compares a name in the table with a key
+     * @param entry the position of the name in the table
+     * @param key the key
+     * @return less than, equal to or greater than zero as the name is before, the same as or after the key
+     */
+    private int compareName(int entry, byte[] key){
+        long position = getNames() + (long) NAME_ENTRY_BYTES * entry;
+        for(int i = 0; i < Leaderboard.NAME_BYTES; i++){
+            int compared = (getByte(position + i) & 0xFF) - (key[i] & 0xFF);
+            if(compared != 0){
+                return compared;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * gets the number of records of a player
+     * @param entry the position of the name in the table, from findName()
+     * @return the number of records
+     */
+    public int getNameCount(int entry){
+        return getInt(getNames() + (long) NAME_ENTRY_BYTES * entry + Leaderboard.NAME_BYTES + 4);
+    }
+
+    /**
+     * gets one of the records of a player
+     * @param entry the position of the name in the table, from findName()
+     * @param i which of the records, from zero for the first written
+     * @return the record number
+     */
+    public int getNameRecord(int entry, int i){
+        int start = getInt(getNames() + (long) NAME_ENTRY_BYTES * entry + Leaderboard.NAME_BYTES);
+        return getInt(getNameRecords() + 4L * (start + i));
+    }
+
+    /**
+     * gets the key a name is sorted by, its UTF-8 bytes padded with zeros
+     * @param name the name, as stored
+     * @return the key
+     */
+    private static byte[] getKey(String name){
+        return Arrays.copyOf(name.getBytes(StandardCharsets.UTF_8), Leaderboard.NAME_BYTES);
+    }
+
+    /**
+     * writes the index of a leaderboard, made of an older index and the
+     * records written after it. the index is written to a new file which
+     * then takes the place of the old one, so a crash leaves the old index
+     * @param file the index file
+     * @param old the index being replaced, or null if there is none
+     * @param scores the total score of each record after those the old index covers
+     * @param names the name of each record after those the old index covers
+     * @param nextGame the number of the next game
+     * @param lastTime the time of the last record
+     * @param lastGame the game of the last record
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(File file, LeaderboardIndex old, int[] scores, String[] names,
+            long nextGame, long lastTime, long lastGame) throws IOException {
+        int first = old == null ? 0 : old.numEntries;
+        int numEntries = first + scores.length;
+
+        int[] scoreStarts = new int[NUM_SCORES + 1];
+        int highestScore = old == null ? -1 : old.highestScore;
+        for(int score : scores){
+            scoreStarts[score + 1]++;
+            highestScore = Math.max(highestScore, score);
+        }
+        for(int score = 0; score < NUM_SCORES; score++){
+            if(old != null){
+                scoreStarts[score + 1] += old.getScoreCount(score);
+            }
+            scoreStarts[score + 1] += scoreStarts[score];
+        }
+        int[][] newByScore = group(scores, NUM_SCORES);
+
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        int[] nameIds = new int[names.length];
+        for(int record = 0; record < names.length; record++){
+            Integer id = ids.get(names[record]);
+            if(id == null){
+                id = ids.size();
+                ids.put(names[record], id);
+            }
+            nameIds[record] = id;
+        }
+        int[][] newByName = group(nameIds, ids.size());
+        List<String> newNames = new ArrayList<String>(ids.keySet());
+        Collections.sort(newNames, new Comparator<String>(){
+            public int compare(String a, String b){
+                return Arrays.compareUnsigned(getKey(a), getKey(b));
+            }
+        });
+        int[][] sortedByName = new int[newNames.size()][];
+        for(int i = 0; i < newNames.size(); i++){
+            sortedByName[i] = newByName[ids.get(newNames.get(i))];
+        }
+
+        File temporary = new File(file.getPath() + ".tmp");
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary), 1 << 16))){
+            int numNames = countNames(old, newNames);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(numEntries);
+            out.writeInt(highestScore);
+            out.writeLong(nextGame);
+            out.writeLong(lastTime);
+            out.writeLong(lastGame);
+            out.writeInt(numNames);
+            out.writeInt(0);
+            for(int start : scoreStarts){
+                out.writeInt(start);
+            }
+            for(int score = 0; score < NUM_SCORES; score++){
+                for(int i = 0; old != null && i < old.getScoreCount(score); i++){
+                    out.writeInt(old.getScoreRecord(score, i));
+                }
+                for(int record : newByScore[score]){
+                    out.writeInt(first + record);
+                }
+            }
+            writeNames(out, old, newNames, sortedByName, first, true);
+            writeNames(out, old, newNames, sortedByName, first, false);
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * groups numbers from zero up by their value, as a counting sort
+     * @param values the value of each number
+     * @param numValues the number of different values
+     * @return the numbers with each value, in order
+     */
+    private static int[][] group(int[] values, int numValues){
+        int[] counts = new int[numValues];
+        for(int value : values){
+            counts[value]++;
+        }
+        int[][] groups = new int[numValues][];
+        for(int value = 0; value < numValues; value++){
+            groups[value] = new int[counts[value]];
+            counts[value] = 0;
+        }
+        for(int i = 0; i < values.length; i++){
+            groups[values[i]][counts[values[i]]++] = i;
+        }
+        return groups;
+    }
+
+    /**
+     * counts the different names in an old index and a sorted list of new names
+     * @param old the old index, or null
+     * @param newNames the new names, sorted
+     * @return the number of different names
+     */
+    private static int countNames(LeaderboardIndex old, List<String> newNames){
+        int count = newNames.size();
+        for(String name : newNames){
+            if(old != null && old.findName(name) >= 0){
+                count--;
+            }
+        }
+        return count + (old == null ? 0 : old.numNames);
+    }
+
+    /**
+     * writes the table of names or the records grouped by name, merging
+     * the names of an old index with new names in byte order
+     * @param out the stream
+     * @param old the old index, or null
+     * @param newNames the new names, sorted
+     * @param newByName the records of each new name, counted from the first record after the old index
+     * @param first the number of records the old index covers
+     * @param table true to write the table of names, false to write the records
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writeNames(DataOutputStream out, LeaderboardIndex old, List<String> newNames,
+            int[][] newByName, int first, boolean table) throws IOException {
+        int oldNames = old == null ? 0 : old.numNames;
+        int oldEntry = 0;
+        int newEntry = 0;
+        int start = 0;
+        while(oldEntry < oldNames || newEntry < newNames.size()){
+            byte[] key;
+            int compared;
+            if(newEntry == newNames.size()){
+                key = old.getName(oldEntry);
+                compared = -1;
+            } else {
+                key = getKey(newNames.get(newEntry));
+                compared = oldEntry == oldNames ? 1 : old.compareName(oldEntry, key);
+                if(compared < 0){
+                    key = old.getName(oldEntry);
+                }
+            }
+            int oldCount = compared <= 0 ? old.getNameCount(oldEntry) : 0;
+            int[] records = compared >= 0 ? newByName[newEntry] : new int[0];
+            if(table){
+                out.write(key);
+                out.writeInt(start);
+                out.writeInt(oldCount + records.length);
+            } else {
+                for(int i = 0; i < oldCount; i++){
+                    out.writeInt(old.getNameRecord(oldEntry, i));
+                }
+                for(int record : records){
+                    out.writeInt(first + record);
+                }
+            }
+            start += oldCount + records.length;
+            if(compared <= 0){
+                oldEntry++;
+            }
+            if(compared >= 0){
+                newEntry++;
+            }
+        }
+    }
+
+    /**
+     * reads a name from the table of names
+     * @param entry the position of the name in the table
+     * @return the name's key, its UTF-8 bytes padded with zeros
+     */
+    private byte[] getName(int entry){
+        long position = getNames() + (long) NAME_ENTRY_BYTES * entry;
+        byte[] key = new byte[Leaderboard.NAME_BYTES];
+        for(int i = 0; i < key.length; i++){
+            key[i] = getByte(position + i);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,159 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Metrics.java
+ *
+ * This class holds the counters and latency histograms of the game's
+ * busiest operations: rolling, scoring each category, passing the turn,
+ * totalling a scorecard and handling a click in the gui. they can be read
+ * as a snapshot of numbers or as lines of text, which GameServer answers
+ * the METRICS command with
+ *
+ * metrics are off unless java is started with -Dyahtzee.metrics=true.
+ * the switch is a constant, so with metrics off the timing around each
+ * operation is compiled away and simulations run exactly as fast as
+ * without it
+ *
+ * @author Robert Kenney
+ */
+public class Metrics {
+
+    /** whether metrics are recorded, read once when the class is loaded */
+    public static final boolean ENABLED = Boolean.getBoolean("yahtzee.metrics");
+
+    /** every histogram, by name */
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentSkipListMap<String, LatencyHistogram>();
+
+    /** every counter, by name */
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentSkipListMap<String, LongAdder>();
+
+    /** the time of Yahtzee.rollDice() */
+    public static final LatencyHistogram ROLL_DICE = histogram("game.roll_dice");
+
+    /** the time of Yahtzee.nextTurn() */
+    public static final LatencyHistogram NEXT_TURN = histogram("game.next_turn");
+
+    /** the time of each category's scoreXxx() method in Yahtzee, called directly or by scoreCategory() */
+    public static final LatencyHistogram[] SCORE_CATEGORY = new LatencyHistogram[Yahtzee.SCORECARD_CATEGORIES.length];
+
+    /** the time of Player.getTotalScore() */
+    public static final LatencyHistogram TOTAL_SCORE = histogram("player.total_score");
+
+    /** the time of YahtzeeGUI.actionPerformed(), leaving out the time any dialog it opens is shown */
+    public static final LatencyHistogram GUI_ACTION = histogram("gui.action");
+
+    static {
+        for(int category = 0; category < SCORE_CATEGORY.length; category++){
+            String name = Yahtzee.SCORECARD_CATEGORIES[category].toLowerCase().replace(' ', '_');
+            SCORE_CATEGORY[category] = histogram("game.score." + name);
+        }
+    }
+
+    /**
+     * This class only holds static methods
+     */
+    private Metrics(){
+    }
+
+    /**
+     * gets a histogram by name, making it the first time
+     * @param name the name, without spaces
+     * @return the histogram
+     */
+    public static LatencyHistogram histogram(String name){
+        LatencyHistogram histogram = HISTOGRAMS.get(name);
+        if(histogram == null){
+            HISTOGRAMS.putIfAbsent(name, new LatencyHistogram(name));
+            histogram = HISTOGRAMS.get(name);
+        }
+        return histogram;
+    }
+
+    /**
+     * gets a counter by name, making it the first time
+     * @param name the name, without spaces
+     * @return the counter
+     */
+    public static LongAdder counter(String name){
+        LongAdder counter = COUNTERS.get(name);
+        if(counter == null){
+            COUNTERS.putIfAbsent(name, new LongAdder());
+            counter = COUNTERS.get(name);
+        }
+        return counter;
+    }
+
+    /**
+     * adds one to a counter, if metrics are on
+     * @param counter the counter
+     */
+    public static void increment(LongAdder counter){
+        if(ENABLED){
+            counter.increment();
+        }
+    }
+
+    /**
+     * gets the start of an operation to be timed
+     * @return System.nanoTime() if metrics are on, zero otherwise
+     */
+    public static long start(){
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * reads every metric as numbers. a histogram gives name.count,
+     * name.total_ns, name.p50_ns, name.p99_ns and name.max_ns
+     * @return the value of each metric, by name
+     */
+    public static Map<String, Long> snapshot(){
+        Map<String, Long> values = new TreeMap<String, Long>();
+        for(LatencyHistogram histogram : HISTOGRAMS.values()){
+            String name = histogram.getName();
+            values.put(name + ".count", histogram.getCount());
+            values.put(name + ".total_ns", histogram.getTotalNanos());
+            values.put(name + ".p50_ns", histogram.getPercentile(50));
+            values.put(name + ".p99_ns", histogram.getPercentile(99));
+            values.put(name + ".max_ns", histogram.getMaxNanos());
+        }
+        for(Map.Entry<String, LongAdder> counter : COUNTERS.entrySet()){
+            values.put(counter.getKey(), counter.getValue().sum());
+        }
+        return values;
+    }
+
+    /**
+     * describes every metric that has been recorded, one to a line
+     * @return the lines, without line breaks
+     */
+    public static List<String> getLines(){
+        List<String> lines = new ArrayList<String>();
+        if(!ENABLED){
+            lines.add("metrics are off, start java with -Dyahtzee.metrics=true");
+            return lines;
+        }
+        for(LatencyHistogram histogram : HISTOGRAMS.values()){
+            if(histogram.getCount() > 0){
+                lines.add(histogram.toString());
+            }
+        }
+        for(Map.Entry<String, LongAdder> counter : COUNTERS.entrySet()){
+            lines.add(counter.getKey() + " count=" + counter.getValue().sum());
+        }
+        return lines;
+    }
+
+    /**
+     * describes every metric that has been recorded
+     * @return the lines of getLines(), each ending in a line break
+     */
+    public static String getText(){
+        StringBuilder text = new StringBuilder();
+        for(String line : getLines()){
+            text.append(line).append('\n');
+        }
+        return text.toString();
+    }
+}
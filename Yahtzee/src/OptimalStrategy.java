@@ -0,0 +1,119 @@
+import java.io.*;
+
+/**
+ * OptimalStrategy.java
+ *
+ * This class creates a strategy which plays every turn to get the highest
+ * expected final score. the turn is worked out by a TurnEvaluator from the
+ * expected value table written by YahtzeeSolver, so every hold and every
+ * category is the best possible choice for a single player
+ *
+ * the evaluators reuse their arrays, so each thread playing with the
+ * strategy gets its own, which is only run again when the scorecard
+ * changes. the strategy itself keeps no state between calls
+ *
+ * @author Robert Kenney
+ */
+public class OptimalStrategy implements Strategy {
+
+    /** the evaluator of each thread and the scorecard it was last run for */
+    private ThreadLocal<Evaluation> evaluations;
+
+    /**
+     * This is the constructor which maps the expected value table written by
+     * YahtzeeSolver to ExpectedValueTable.DEFAULT_FILE
+     * @throws IllegalStateException if the table cannot be read
+    */
+    public OptimalStrategy(){
+        this(mapDefaultTable());
+    }
+
+    /**
+     * This is the constructor which plays with an expected value table
+     * @param table the expected values of the scorecards, or null to only look at this turn
+    */
+    public OptimalStrategy(final ExpectedValueTable table){
+        evaluations = new ThreadLocal<Evaluation>(){
+            protected Evaluation initialValue(){
+                return new Evaluation(table);
+            }
+        };
+    }
+
+    /**
+     * maps the default expected value table
+     * @return the table
+     * @throws IllegalStateException if the table cannot be read
+     */
+    private static ExpectedValueTable mapDefaultTable(){
+        try {
+            return ExpectedValueTable.map(new File(ExpectedValueTable.DEFAULT_FILE));
+        } catch(IOException e){
+            throw new IllegalStateException("Could not read " + ExpectedValueTable.DEFAULT_FILE
+                    + ", run YahtzeeSolver to write it first", e);
+        }
+    }
+
+    /**
+     * holds the dice of the best keep, or every die if rolling again is worth less than stopping
+     * @param game the game
+     * @return the mask of the dice to hold
+     */
+    public int chooseHolds(Yahtzee game){
+        Player player = game.getCurrentPlayer();
+        int rollsLeft = Yahtzee.ROLLS_PER_TURN - player.getCurrentTurnRollCount();
+        int keep = evaluate(player).getBestKeep(rollsLeft, game.getHand());
+        return KeepTable.getHolds(game, keep);
+    }
+
+    /**
+     * scores the best category for the hand, taking the yahtzee bonus when
+     * it is worth the most, and gives up the category worth the least after one
+     * @param game the game
+     * @return the index of the category to score
+     */
+    public int chooseCategory(Yahtzee game){
+        Player player = game.getCurrentPlayer();
+        TurnEvaluator evaluator = evaluate(player);
+        if(player.hasYahtzeeBonusedThisTurn()){
+            return evaluator.getBonusScratch();
+        }
+        return evaluator.getBestCategory(game.getHand());
+    }
+
+    /**
+     * gets this thread's evaluator, run for the player's scorecard
+     * @param player the current player
+     * @return the evaluator
+     */
+    private TurnEvaluator evaluate(Player player){
+        Evaluation evaluation = evaluations.get();
+        long state = ExpectedValueTable.index(player.getScoredCategories(), player.getTopScore(), player.hasYahtzee());
+        if(state != evaluation.state){
+            evaluation.evaluator.evaluate(player);
+            evaluation.state = state;
+        }
+        return evaluation.evaluator;
+    }
+
+    /**
+     * This class is one thread's evaluator
+     */
+    private static class Evaluation {
+
+        /** the evaluator */
+        private TurnEvaluator evaluator;
+
+        /** the scorecard the evaluator was last run for, or -1 if it has not been run */
+        private long state;
+
+        /**
+         * This is the constructor which initializes an evaluator that has not been run
+         * @param table the expected values of the scorecards, or null
+        */
+        private Evaluation(ExpectedValueTable table){
+            evaluator = new TurnEvaluator(table);
+            state = -1;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+/**
+ * PackedGameState.java
+ *
+ * This class packs a whole game into an array of longs, so a search can
+ * copy and undo games millions of times without making a single object.
+ * the first long holds the turn, the dice and the current player, and
+ * each player's scorecard and turn fit in one long of their own, so a one
+ * player game takes two longs
+ *
+ * a turn packs each die into six bits, its value in three, whether it is
+ * held in one and its roll count in two, followed by the index of the
+ * current player in the high 32 bits
+ *
+ * a player packs the score of each category in as few bits as it can
+ * take. a numeric category is stored as the number of dice counted, three
+ * of a kind, four of a kind and chance as their points, and the categories
+ * with a fixed score only as whether they were scratched, a scratched
+ * category being stored as the highest value of its field. then come the
+ * scored categories, the number of yahtzee bonuses, and the player's turn.
+ * any game played through the Yahtzee class packs exactly, except that the
+ * roll count of a player who keeps rolling stops at 31
+ *
+ * the random number generator is not part of the state, so the dice of
+ * a restored game roll differently than they would have
+ *
+ * @author Robert Kenney
+ */
+public class PackedGameState {
+
+    /** the number of bits of a die */
+    private static final int DIE_BITS = 6;
+
+    /** the mask of a die's value, in its bits */
+    private static final int DIE_VALUE_MASK = 0x7;
+
+    /** the bit of a die that is set if it is held */
+    private static final int DIE_HELD = 1 << 3;
+
+    /** the shift of a die's roll count, in its bits */
+    private static final int DIE_ROLL_COUNT_SHIFT = 4;
+
+    /** the highest roll count a die can be packed with */
+    private static final int MAX_DIE_ROLL_COUNT = 3;
+
+    /** the shift of the current player, in the turn */
+    private static final int CURRENT_PLAYER_SHIFT = 32;
+
+    /** the number of bits of the dice counted in a numeric category */
+    private static final int NUMERIC_BITS = 3;
+
+    /** the value of a numeric category's field when it is scratched */
+    private static final int NUMERIC_SCRATCHED = (1 << NUMERIC_BITS) - 1;
+
+    /** the shift of the first of three of a kind, four of a kind and chance */
+    private static final int SUM_SHIFT = Die.MAX_DIE_VALUE * NUMERIC_BITS;
+
+    /** the number of bits of the points of three of a kind, four of a kind and chance */
+    private static final int SUM_BITS = 5;
+
+    /** the value of three of a kind, four of a kind and chance's field when they are scratched */
+    private static final int SUM_SCRATCHED = (1 << SUM_BITS) - 1;
+
+    /** the categories scored as the sum of the dice, in the order they are packed */
+    private static final int[] SUM_CATEGORIES = {Yahtzee.THREE_OF_A_KIND, Yahtzee.FOUR_OF_A_KIND, Yahtzee.CHANCE};
+
+    /** the shift of the first of the scratched bits of the fixed score categories */
+    private static final int FIXED_SHIFT = SUM_SHIFT + SUM_CATEGORIES.length * SUM_BITS;
+
+    /** the categories worth a fixed score, in the order they are packed */
+    private static final int[] FIXED_CATEGORIES = {Yahtzee.FULL_HOUSE, Yahtzee.SMALL_STRAIGHT, Yahtzee.LARGE_STRAIGHT, Yahtzee.YAHTZEE};
+
+    /** the fixed score of each of the fixed score categories */
+    private static final int[] FIXED_SCORES = {Yahtzee.FULL_HOUSE_SCORE, Yahtzee.SMALL_STRAIGHT_SCORE, Yahtzee.LARGE_STRAIGHT_SCORE, Yahtzee.YAHTZEE_SCORE};
+
+    /** the shift of the scored categories */
+    private static final int SCORED_SHIFT = FIXED_SHIFT + FIXED_CATEGORIES.length;
+
+    /** the mask of the scored categories, once shifted down */
+    private static final int SCORED_MASK = (1 << Yahtzee.NUM_SCORING_CATEGORIES) - 1;
+
+    /** the shift of the number of yahtzee bonuses */
+    private static final int BONUS_COUNT_SHIFT = SCORED_SHIFT + Yahtzee.NUM_SCORING_CATEGORIES;
+
+    /** the mask of the number of yahtzee bonuses, once shifted down */
+    private static final int BONUS_COUNT_MASK = 0xf;
+
+    /** the bit set if the yahtzee bonus was scratched */
+    private static final long BONUS_SCRATCHED = 1L << (BONUS_COUNT_SHIFT + 4);
+
+    /** the bit set if the player has a yahtzee */
+    private static final long HAS_YAHTZEE = BONUS_SCRATCHED << 1;
+
+    /** the bit set if the player has selected a score this turn */
+    private static final long SELECTED = HAS_YAHTZEE << 1;
+
+    /** the bit set if the player has taken a yahtzee bonus this turn */
+    private static final long BONUSED = SELECTED << 1;
+
+    /** the shift of the player's roll count */
+    private static final int ROLL_COUNT_SHIFT = BONUS_COUNT_SHIFT + 8;
+
+    /** the highest roll count a player can be packed with */
+    private static final int MAX_ROLL_COUNT = 31;
+
+    /**
+     * This class only holds static methods
+     */
+    private PackedGameState(){
+    }
+
+    /**
+     * gets the number of longs a packed game takes
+     * @param numPlayers the number of players in the game
+     * @return the length of the array to pack the game into
+     */
+    public static int getLength(int numPlayers){
+        return numPlayers + 1;
+    }
+
+    /**
+     * packs the turn, the dice and the current player of a game
+     * @param game the game
+     * @return the packed turn
+     */
+    public static long packTurn(Yahtzee game){
+        long turn = (long) (game.getCurrentPlayerID() - 1) << CURRENT_PLAYER_SHIFT;
+        for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+            Die d = game.getDie(die);
+            int bits = d.getValue() | Math.min(d.getCurrentTurnRollCount(), MAX_DIE_ROLL_COUNT) << DIE_ROLL_COUNT_SHIFT;
+            if(d.isHeld()){
+                bits |= DIE_HELD;
+            }
+            turn |= (long) bits << (die * DIE_BITS);
+        }
+        return turn;
+    }
+
+    /**
+     * packs a player's scorecard and turn
+     * @param player the player
+     * @return the packed player
+     */
+    public static long packPlayer(Player player){
+        long packed = 0;
+        for(int category = 0; category < Die.MAX_DIE_VALUE; category++){
+            long field = player.isCategoryScratched(category) ? NUMERIC_SCRATCHED : player.getScoreValue(category) / (category + 1);
+            packed |= field << (category * NUMERIC_BITS);
+        }
+        for(int i = 0; i < SUM_CATEGORIES.length; i++){
+            long field = player.isCategoryScratched(SUM_CATEGORIES[i]) ? SUM_SCRATCHED : player.getScoreValue(SUM_CATEGORIES[i]);
+            packed |= field << (SUM_SHIFT + i * SUM_BITS);
+        }
+        for(int i = 0; i < FIXED_CATEGORIES.length; i++){
+            if(player.isCategoryScratched(FIXED_CATEGORIES[i])){
+                packed |= 1L << (FIXED_SHIFT + i);
+            }
+        }
+        packed |= (long) player.getScoredCategories() << SCORED_SHIFT;
+        packed |= (long) (player.getScoreValue(Yahtzee.YAHTZEE_BONUS) / Yahtzee.YAHTZEE_BONUS_SCORE) << BONUS_COUNT_SHIFT;
+        if(player.isCategoryScratched(Yahtzee.YAHTZEE_BONUS)){
+            packed |= BONUS_SCRATCHED;
+        }
+        if(player.hasYahtzee()){
+            packed |= HAS_YAHTZEE;
+        }
+        if(player.hasSelectedScoreThisTurn()){
+            packed |= SELECTED;
+        }
+        if(player.hasYahtzeeBonusedThisTurn()){
+            packed |= BONUSED;
+        }
+        packed |= (long) Math.min(player.getCurrentTurnRollCount(), MAX_ROLL_COUNT) << ROLL_COUNT_SHIFT;
+        return packed;
+    }
+
+    /**
+     * sets a die back to how it was when the turn was packed
+     * @param turn the packed turn
+     * @param die the index of the die
+     * @param d the die to restore
+     */
+    public static void restoreDie(long turn, int die, Die d){
+        int bits = (int) (turn >>> (die * DIE_BITS));
+        d.restore(bits & DIE_VALUE_MASK, (bits & DIE_HELD) != 0, (bits >>> DIE_ROLL_COUNT_SHIFT) & MAX_DIE_ROLL_COUNT);
+    }
+
+    /**
+     * sets a player back to how they were when they were packed
+     * @param packed the packed player
+     * @param player the player to restore
+     */
+    public static void restorePlayer(long packed, Player player){
+        int scored = getScoredCategories(packed);
+        int scratched = getScratchedCategories(packed);
+        player.restore(scored, scratched, hasYahtzee(packed), (packed & SELECTED) != 0,
+                getRollCount(packed), (packed & BONUSED) != 0);
+        for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
+            int score = getScore(packed, category);
+            if(score != 0){
+                player.restoreScore(category, score);
+            }
+        }
+    }
+
+    /**
+     * gets the index of the current player from a packed turn
+     * @param turn the packed turn
+     * @return the index of the current player, starting from zero
+     */
+    public static int getCurrentPlayer(long turn){
+        return (int) (turn >>> CURRENT_PLAYER_SHIFT);
+    }
+
+    /**
+     * gets the value of a die from a packed turn
+     * @param turn the packed turn
+     * @param die the index of the die
+     * @return the value of the die, zero if it has not been rolled
+     */
+    public static int getDieValue(long turn, int die){
+        return (int) (turn >>> (die * DIE_BITS)) & DIE_VALUE_MASK;
+    }
+
+    /**
+     * gets whether a die is held from a packed turn
+     * @param turn the packed turn
+     * @param die the index of the die
+     * @return true if the die is held, false otherwise
+     */
+    public static boolean isHeld(long turn, int die){
+        return ((turn >>> (die * DIE_BITS)) & DIE_HELD) != 0;
+    }
+
+    /**
+     * gets the scored categories of a packed player
+     * @param packed the packed player
+     * @return a mask with bit i set if category i has been scored or scratched
+     */
+    public static int getScoredCategories(long packed){
+        return (int) (packed >>> SCORED_SHIFT) & SCORED_MASK;
+    }
+
+    /**
+     * gets the scratched categories of a packed player
+     * @param packed the packed player
+     * @return a mask with bit i set if category i has been scratched
+     */
+    public static int getScratchedCategories(long packed){
+        int scratched = 0;
+        for(int category = 0; category < Die.MAX_DIE_VALUE; category++){
+            if(((packed >>> (category * NUMERIC_BITS)) & NUMERIC_SCRATCHED) == NUMERIC_SCRATCHED){
+                scratched |= 1 << category;
+            }
+        }
+        for(int i = 0; i < SUM_CATEGORIES.length; i++){
+            if(((packed >>> (SUM_SHIFT + i * SUM_BITS)) & SUM_SCRATCHED) == SUM_SCRATCHED){
+                scratched |= 1 << SUM_CATEGORIES[i];
+            }
+        }
+        for(int i = 0; i < FIXED_CATEGORIES.length; i++){
+            if((packed & (1L << (FIXED_SHIFT + i))) != 0){
+                scratched |= 1 << FIXED_CATEGORIES[i];
+            }
+        }
+        if((packed & BONUS_SCRATCHED) != 0){
+            scratched |= 1 << Yahtzee.YAHTZEE_BONUS;
+        }
+        return scratched;
+    }
+
+    /**
+     * gets the points a packed player scored in a category
+     * @param packed the packed player
+     * @param category the index of the category
+     * @return the points scored, zero if the category is unscored or scratched
+     */
+    public static int getScore(long packed, int category){
+        if(category < Die.MAX_DIE_VALUE){
+            int count = (int) (packed >>> (category * NUMERIC_BITS)) & NUMERIC_SCRATCHED;
+            return count == NUMERIC_SCRATCHED ? 0 : count * (category + 1);
+        }
+        if(category == Yahtzee.YAHTZEE_BONUS){
+            return ((int) (packed >>> BONUS_COUNT_SHIFT) & BONUS_COUNT_MASK) * Yahtzee.YAHTZEE_BONUS_SCORE;
+        }
+        for(int i = 0; i < SUM_CATEGORIES.length; i++){
+            if(SUM_CATEGORIES[i] == category){
+                int sum = (int) (packed >>> (SUM_SHIFT + i * SUM_BITS)) & SUM_SCRATCHED;
+                return sum == SUM_SCRATCHED ? 0 : sum;
+            }
+        }
+        for(int i = 0; i < FIXED_CATEGORIES.length; i++){
+            if(FIXED_CATEGORIES[i] == category){
+                boolean scored = (getScoredCategories(packed) & (1 << category)) != 0;
+                boolean scratched = (packed & (1L << (FIXED_SHIFT + i))) != 0;
+                return scored && !scratched ? FIXED_SCORES[i] : 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * gets the score of a packed player's numeric categories
+     * @param packed the packed player
+     * @return the total score of the numeric categories
+     */
+    public static int getTopScore(long packed){
+        int score = 0;
+        for(int category = 0; category < Die.MAX_DIE_VALUE; category++){
+            score += getScore(packed, category);
+        }
+        return score;
+    }
+
+    /**
+     * gets the total score of a packed player
+     * @param packed the packed player
+     * @return the player's total score, with their bonus
+     */
+    public static int getTotalScore(long packed){
+        int score = 0;
+        for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
+            score += getScore(packed, category);
+        }
+        if(getTopScore(packed) >= Yahtzee.POINTS_NEEDED_FOR_BONUS){
+            score += Yahtzee.BONUS;
+        }
+        return score;
+    }
+
+    /**
+     * gets whether a packed player has a yahtzee
+     * @param packed the packed player
+     * @return true if has yahtzee, false otherwise
+     */
+    public static boolean hasYahtzee(long packed){
+        return (packed & HAS_YAHTZEE) != 0;
+    }
+
+    /**
+     * gets the roll count of a packed player's turn
+     * @param packed the packed player
+     * @return the roll count of the current turn
+     */
+    public static int getRollCount(long packed){
+        return (int) (packed >>> ROLL_COUNT_SHIFT) & MAX_ROLL_COUNT;
+    }
+}
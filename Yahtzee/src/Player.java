@@ -1,5 +1,3 @@
-import java.util.*;
-
 /**
  * Player.java
  * 
@@ -9,11 +7,26 @@ import java.util.*;
  */
 public class Player{
 
-    /** the scores a for each category, a list of strings for scratching */
-    private String[] scores;
+    /** the mask with a bit set for every category a player must score to finish */
+    public static final int ALL_CATEGORIES = (1 << Yahtzee.YAHTZEE_BONUS) - 1;
+
+    /** the mask with a bit set for each of the numeric categories */
+    public static final int NUMERIC_CATEGORIES = (1 << Die.MAX_DIE_VALUE) - 1;
+
+    /** the points scored in each category, zero for unscored and scratched categories */
+    private int[] scores;
+
+    /** a mask with bit i set if category i has been scored or scratched */
+    private int scoredCategories;
 
-    /** whether each category has been scored or not */
-    private boolean[] scoredCategories;
+    /** a mask with bit i set if category i has been scratched */
+    private int scratchedCategories;
+
+    /** the sum of the scores of the numeric categories */
+    private int topScore;
+
+    /** the sum of the scores of every category, not counting the bonus */
+    private int categoryTotal;
 
     /** whether the player has selected a scoring category this turn */
     private boolean hasSelectedScoreThisTurn;
@@ -32,23 +45,36 @@ public class Player{
      * and their instance variables.
     */
     public Player(){
-        scores = new String[Yahtzee.NUM_SCORING_CATEGORIES];
-        scoredCategories = new boolean[Yahtzee.NUM_SCORING_CATEGORIES];
+        scores = new int[Yahtzee.NUM_SCORING_CATEGORIES];
+        scoredCategories = 0;
+        scratchedCategories = 0;
+        topScore = 0;
+        categoryTotal = 0;
 
         hasYahtzee = false;
+    }
 
-        for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
-            scores[category] = "--";
-            scoredCategories[category] = false;
+    /**
+     * gets the score for a particular category, as it is shown on the scorecard
+     * @param category the index of the category
+     * @return the scor eof the selected category, "X" if scratched or "--" if not yet scored
+     */
+    public String getScore(int category){
+        if(isCategoryScratched(category)){
+            return "X";
         }
+        if(isCategoryScored(category) || scores[category] != 0){
+            return Integer.toString(scores[category]);
+        }
+        return "--";
     }
 
     /**
-     * gets the score for a particular category
+     * gets the points scored in a particular category
      * @param category the index of the category
-     * @return the scor eof the selected category
+     * @return the points scored, zero if the category is unscored or scratched
      */
-    public String getScore(int category){
+    public int getScoreValue(int category){
         return scores[category];
     }
 
@@ -60,7 +86,7 @@ public class Player{
      */
     public boolean hasBonus(){
         
-        if(getTopScore() >= Yahtzee.POINTS_NEEDED_FOR_BONUS){
+        if(topScore >= Yahtzee.POINTS_NEEDED_FOR_BONUS){
             return true;
         }
         return false;
@@ -71,15 +97,7 @@ public class Player{
      * @return the total score of the numeric categories
      */
     public int getTopScore(){
-        int sum = 0;
-        Scanner scnr;
-        for(int category = 0; category < Die.MAX_DIE_VALUE; category++){
-            scnr = new Scanner(scores[category]);
-            if(scnr.hasNextInt()){
-                sum += scnr.nextInt();
-            }
-        }
-        return sum;
+        return topScore;
     }
 
     /**
@@ -87,19 +105,13 @@ public class Player{
      * @return the players total score
      */
     public int getTotalScore(){
-        int sum = 0;
-        Scanner scnr;
-        for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
-            scnr = new Scanner(scores[category]);
-            if(scnr.hasNextInt()){
-                sum += scnr.nextInt();
-            }
-        }
-
+        long start = Metrics.start();
+        int total = categoryTotal;
         if(hasBonus()){
-            sum += 35;
+            total += Yahtzee.BONUS;
         }
-        return sum;
+        Metrics.TOTAL_SCORE.recordSince(start);
+        return total;
     }
     
     /**
@@ -108,7 +120,32 @@ public class Player{
      * @return true if the category has been scored, false otherwise
      */
     public boolean isCategoryScored(int category){
-        return scoredCategories[category];
+        return (scoredCategories & (1 << category)) != 0;
+    }
+
+    /**
+     * returns if a category has been scratched
+     * @param category the category to be checked
+     * @return true if the category has been scratched, false otherwise
+     */
+    public boolean isCategoryScratched(int category){
+        return (scratchedCategories & (1 << category)) != 0;
+    }
+
+    /**
+     * gets the categories that have been scored
+     * @return a mask with bit i set if category i has been scored or scratched
+     */
+    public int getScoredCategories(){
+        return scoredCategories;
+    }
+
+    /**
+     * gets the categories that have been scratched
+     * @return a mask with bit i set if category i has been scratched
+     */
+    public int getScratchedCategories(){
+        return scratchedCategories;
     }
 
     /**
@@ -116,12 +153,7 @@ public class Player{
      * @return true if all categories have been scored, false otherwise
      */
     public boolean isFinished(){
-        for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES - 1; category++){
-            if(!scoredCategories[category]){
-                return false;
-            }
-        }
-        return true;
+        return (scoredCategories & ALL_CATEGORIES) == ALL_CATEGORIES;
     }
 
     /**
@@ -138,38 +170,105 @@ public class Player{
      * @param category the category to be scored
      * @param score the score which it is to be assigned
      */
-    public void setScore(int category, String score){
+    public void setScore(int category, int score){
+        select(category, score, false);
+    }
+
+    /**
+     * scratches a particular category
+     * @param category the category to be scratched
+     */
+    public void scratch(int category){
+        select(category, 0, true);
+    }
+
+    /**
+     * selects a category for this turn, scratching it instead
+     * if the player has just taken a yahtzee bonus
+     * @param category the category selected
+     * @param score the points for the category
+     * @param scratched whether the category is being scratched
+     */
+    private void select(int category, int score, boolean scratched){
         if(yahtzeeBonusedThisTurn){
-            scores[category] = "X";
-            scoredCategories[category] = true;
+            record(category, 0, true);
             hasSelectedScoreThisTurn = true;
         }
-        if(!hasSelectedScoreThisTurn && !scoredCategories[category] && currentTurnRollCount > 0 && !yahtzeeBonusedThisTurn){
-            scores[category] = score;
-            scoredCategories[category] = true;
+        if(!hasSelectedScoreThisTurn && !isCategoryScored(category) && currentTurnRollCount > 0 && !yahtzeeBonusedThisTurn){
+            record(category, score, scratched);
             hasSelectedScoreThisTurn = true;
         }
     }
 
     /**
-     * scratches a particular category
-     * @param category the category to be scratched
+     * writes a score into a category, keeping the sums up to date
+     * @param category the category to be written
+     * @param score the points for the category
+     * @param scratched whether the category is being scratched
      */
-    public void scratch(int category){
-        setScore(category, "X");
+    private void record(int category, int score, boolean scratched){
+        int change = score - scores[category];
+        scores[category] = score;
+        categoryTotal += change;
+        if(category < Die.MAX_DIE_VALUE){
+            topScore += change;
+        }
+        scoredCategories |= 1 << category;
+        if(scratched){
+            scratchedCategories |= 1 << category;
+        } else {
+            scratchedCategories &= ~(1 << category);
+        }
     }
     
+    /**
+     * clears the player's scores and sets their scorecard and turn back
+     * to a saved state, the points of each category then being put back
+     * with restoreScore, see PackedGameState
+     * @param scored a mask with bit i set if category i has been scored or scratched
+     * @param scratched a mask with bit i set if category i has been scratched
+     * @param hasYahtzee whether the player has a yahtzee
+     * @param selected whether the player has selected a score this turn
+     * @param rollCount the roll count of the current turn
+     * @param bonused whether the player has taken a yahtzee bonus this turn
+     */
+    public void restore(int scored, int scratched, boolean hasYahtzee, boolean selected, int rollCount, boolean bonused){
+        for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
+            scores[category] = 0;
+        }
+        topScore = 0;
+        categoryTotal = 0;
+        scoredCategories = scored;
+        scratchedCategories = scratched;
+        this.hasYahtzee = hasYahtzee;
+        hasSelectedScoreThisTurn = selected;
+        currentTurnRollCount = rollCount;
+        yahtzeeBonusedThisTurn = bonused;
+    }
+
+    /**
+     * puts back the points of a category while restoring a saved state,
+     * without checking whether the player could score them
+     * @param category the category
+     * @param score the points scored in it
+     */
+    public void restoreScore(int category, int score){
+        int change = score - scores[category];
+        scores[category] = score;
+        categoryTotal += change;
+        if(category < Die.MAX_DIE_VALUE){
+            topScore += change;
+        }
+    }
+
     /**
      * scores the yahtzee bonus for the player
      */
     public void yahtzeeBonus(){
-        Scanner scnr = new Scanner(scores[Yahtzee.YAHTZEE_BONUS]);
-        int score = 0;
-        if(scnr.hasNextInt()){
-            score = scnr.nextInt();
-        }
         if(!hasSelectedScoreThisTurn && !yahtzeeBonusedThisTurn && currentTurnRollCount > 0){
-            scores[Yahtzee.YAHTZEE_BONUS] = Integer.toString(score +  Yahtzee.YAHTZEE_BONUS_SCORE);
+            scores[Yahtzee.YAHTZEE_BONUS] += Yahtzee.YAHTZEE_BONUS_SCORE;
+            categoryTotal += Yahtzee.YAHTZEE_BONUS_SCORE;
+            scratchedCategories &= ~(1 << Yahtzee.YAHTZEE_BONUS);
             yahtzeeBonusedThisTurn = true;
         }
     }
@@ -216,6 +315,15 @@ public class Player{
         hasYahtzee = true;
     }
 
+    /**
+     * returns whether the player has taken a yahtzee bonus this turn,
+     * meaning their next selection will be scratched
+     * @return true if the player has yahtzee bonused this turn, false otherwise
+     */
+    public boolean hasYahtzeeBonusedThisTurn(){
+        return yahtzeeBonusedThisTurn;
+    }
+
     /**
      * returns whether the player has selected a score this turn
      * @return true if the player has selected a score, false otherwise
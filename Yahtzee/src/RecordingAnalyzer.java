@@ -0,0 +1,346 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * RecordingAnalyzer.java
+ *
+ * This class answers questions about every game in a recording made by
+ * GameRecorder, such as how often Large Straight was scratched in the last
+ * turn, without playing the games back. the file is mapped into memory
+ * and the events are read straight out of the mapping, keeping only the
+ * seat, turn, last roll and scored categories of the game being read, so
+ * a recording of any size is scanned with nothing on the heap but the
+ * counts
+ *
+ * the file is split into segments scanned in parallel. a game can only
+ * be read from its start, and the bytes of a roll can look like the start
+ * of a game, so each segment guesses where its first game starts and
+ * reads every game starting before its end. the segments are then checked
+ * in order: a segment is only counted if it started where the one before
+ * it stopped, and is scanned again from there if it did not, which a bad
+ * guess very rarely makes necessary
+ *
+ * @author Robert Kenney
+ */
+public class RecordingAnalyzer {
+
+    /** the largest segment mapped at once */
+    public static final long MAX_SEGMENT_BYTES = 1L << 28;
+
+    /** the smallest segment worth giving a thread of its own */
+    public static final long MIN_SEGMENT_BYTES = 1L << 20;
+
+    /** the number of segments for each thread, so threads finishing early can take another */
+    public static final int SEGMENTS_PER_THREAD = 4;
+
+    /** the longest game that can be read, the most a segment's mapping goes past its end */
+    public static final int MAX_GAME_BYTES = 1 << 20;
+
+    /** the categories the game scratches, rather than scores for nothing, when the dice are worth nothing in them */
+    private static final int SCRATCHED_FOR_NOTHING = 1 << Yahtzee.THREE_OF_A_KIND | 1 << Yahtzee.FOUR_OF_A_KIND
+            | 1 << Yahtzee.FULL_HOUSE | 1 << Yahtzee.SMALL_STRAIGHT | 1 << Yahtzee.LARGE_STRAIGHT | 1 << Yahtzee.YAHTZEE;
+
+    /** the byte of the first event of every game, a roll */
+    private static final int FIRST_ROLL = GameRecorder.ROLL << GameRecorder.EVENT_SHIFT;
+
+    /** the file */
+    private File file;
+
+    /** the channel the file is mapped through */
+    private FileChannel channel;
+
+    /** the length of the file in bytes */
+    private long size;
+
+    /**
+     * This is the constructor which opens a recording
+     * @param file the recording
+     * @throws IOException if the file cannot be read or is not a recording
+    */
+    public RecordingAnalyzer(File file) throws IOException {
+        this.file = file;
+        channel = new RandomAccessFile(file, "r").getChannel();
+        size = channel.size();
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, GameRecorder.HEADER_BYTES));
+        if(size < GameRecorder.HEADER_BYTES || header.getInt() != GameRecorder.MAGIC || header.getInt() != GameRecorder.VERSION){
+            channel.close();
+            throw new IOException(file + " is not a game recording");
+        }
+    }
+
+    /**
+     * closes the recording
+     * @throws IOException if the file cannot be closed
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * counts the events of every game in the recording that match a query
+     * @param query the query
+     * @param parallelism the number of threads to scan on
+     * @return the counts
+     * @throws IOException if the file cannot be read or a game cannot be understood
+     */
+    public ReplayStatistics analyze(final ReplayQuery query, int parallelism) throws IOException {
+        long start = System.nanoTime();
+        long length = size - GameRecorder.HEADER_BYTES;
+        long segmentBytes = length / ((long) parallelism * SEGMENTS_PER_THREAD) + 1;
+        segmentBytes = Math.max(MIN_SEGMENT_BYTES, Math.min(MAX_SEGMENT_BYTES, segmentBytes));
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        List<Future<Segment>> futures = new ArrayList<Future<Segment>>();
+        for(long first = GameRecorder.HEADER_BYTES; first < size; first += segmentBytes){
+            final long from = first;
+            final long to = Math.min(size, first + segmentBytes);
+            futures.add(pool.submit(new Callable<Segment>(){
+                public Segment call() throws IOException {
+                    return scan(query, from, to, from == GameRecorder.HEADER_BYTES);
+                }
+            }));
+        }
+
+        ReplayStatistics statistics = new ReplayStatistics();
+        long next = GameRecorder.HEADER_BYTES;
+        try {
+            for(Future<Segment> future : futures){
+                Segment segment = future.get();
+                if(next >= segment.end){
+                    continue;
+                }
+                if(!segment.valid || segment.start != next){
+                    segment = scan(query, next, segment.end, true);
+                }
+                statistics.merge(segment.statistics);
+                next = segment.next;
+            }
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The scan was interrupted");
+        } catch(ExecutionException e){
+            if(e.getCause() instanceof IOException){
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("The scan failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        statistics.setElapsedNanos(System.nanoTime() - start);
+        return statistics;
+    }
+
+    /**
+     * reads every game starting in a segment of the file
+     * @param query the query
+     * @param from where the segment starts
+     * @param end where the segment ends, games starting before it are read to their end
+     * @param exact whether a game is known to start at from, rather than being looked for
+     * @return the counts of the segment and where it started and stopped
+     * @throws IOException if the file cannot be mapped, or a game known to start at from cannot be understood
+     */
+    private Segment scan(ReplayQuery query, long from, long end, boolean exact) throws IOException {
+        long limit = Math.min(size, end + MAX_GAME_BYTES);
+        ByteBuffer events = channel.map(FileChannel.MapMode.READ_ONLY, from, limit - from);
+        int segmentEnd = (int) (end - from);
+        int position = 0;
+        if(!exact){
+            while(position < segmentEnd && !isGameStart(events, position)){
+                position++;
+            }
+        }
+        Segment segment = new Segment(from + position, end);
+        int[] scored = new int[GameRecorder.OPERAND_MASK + 1];
+        while(position < segmentEnd){
+            int gameEnd = readGame(events, position, limit == size, query, scored, segment.statistics);
+            if(gameEnd < 0){
+                if(exact){
+                    throw new IOException(file + " has a game that cannot be understood or is longer than "
+                            + MAX_GAME_BYTES + " bytes, starting at byte " + (from + position));
+                }
+                segment.valid = false;
+                return segment;
+            }
+            position = gameEnd;
+        }
+        segment.next = from + position;
+        return segment;
+    }
+
+    /**
+     * checks whether a game could start at a position, a game event followed by a roll
+     * @param events the mapped events
+     * @param position the position
+     * @return true if a game could start there, false otherwise
+     */
+    private static boolean isGameStart(ByteBuffer events, int position){
+        return position + 4 <= events.limit()
+                && (events.get(position) & 0xff) >>> GameRecorder.EVENT_SHIFT == GameRecorder.GAME
+                && (events.get(position + 1) & 0xff) == FIRST_ROLL
+                && (events.getShort(position + 2) & 0xffff) < ScoreTable.NUM_ROLLS;
+    }
+
+    /**
+     * reads one game, counting its events. the selections are followed as
+     * Player.select() takes them, so a selection the game ignored, made
+     * before rolling, after another selection or of a category already
+     * scored, is not counted, nor is a yahtzee bonus the player could not
+     * take, and the selection forced after a yahtzee bonus counts as a
+     * scratch. a category selected for no points counts as scratched when
+     * the game scratches it, as it does for every category but the numbers
+     * and chance
+     * @param events the mapped events
+     * @param position the position of the game's first event
+     * @param atEnd whether the mapping runs to the end of the file, so the last game can end with it
+     * @param query the query
+     * @param scored the categories each seat has selected, as masks, overwritten for this game
+     * @param statistics the counts to add the game to
+     * @return the position after the game, or -1 if the game cannot be understood or runs past the mapping
+     */
+    private static int readGame(ByteBuffer events, int position, boolean atEnd, ReplayQuery query, int[] scored,
+            ReplayStatistics statistics){
+        int start = position;
+        int limit = events.limit();
+        int first = events.get(position++) & 0xff;
+        if(first >>> GameRecorder.EVENT_SHIFT != GameRecorder.GAME){
+            return -1;
+        }
+        int numPlayers = (first & GameRecorder.OPERAND_MASK) + 1;
+        Arrays.fill(scored, 0, numPlayers, 0);
+        int turnsPassed = 0;
+        int yahtzees = 0;
+        int hand = -1;
+        boolean selected = false;
+        boolean bonused = false;
+        boolean matched = false;
+        while(position < limit){
+            int event = events.get(position) & 0xff;
+            int operand = event & GameRecorder.OPERAND_MASK;
+            switch(event >>> GameRecorder.EVENT_SHIFT){
+                case GameRecorder.GAME:
+                    statistics.addGame(position - start, matched);
+                    return position;
+                case GameRecorder.ROLL:
+                    if(position + 3 > limit){
+                        return -1;
+                    }
+                    int roll = events.getShort(position + 1) & 0xffff;
+                    if(roll >= ScoreTable.NUM_ROLLS){
+                        return -1;
+                    }
+                    hand = ScoreTable.getHand(roll);
+                    position += 3;
+                    break;
+                case GameRecorder.HOLD:
+                    position++;
+                    break;
+                case GameRecorder.NEXT_TURN:
+                    turnsPassed++;
+                    hand = -1;
+                    selected = false;
+                    bonused = false;
+                    position++;
+                    break;
+                case GameRecorder.SCORE:
+                case GameRecorder.SCRATCH:
+                    if(operand > Yahtzee.YAHTZEE_BONUS){
+                        return -1;
+                    }
+                    position++;
+                    int seat = turnsPassed % numPlayers;
+                    boolean scratch = event >>> GameRecorder.EVENT_SHIFT == GameRecorder.SCRATCH;
+                    int points = 0;
+                    if(operand == Yahtzee.YAHTZEE_BONUS && !scratch){
+                        if(hand < 0 || selected || bonused || (yahtzees & (1 << seat)) == 0
+                                || ScoreTable.getScore(hand, Yahtzee.YAHTZEE) == 0){
+                            break;
+                        }
+                        bonused = true;
+                        points = Yahtzee.YAHTZEE_BONUS_SCORE;
+                    } else {
+                        if(operand == Yahtzee.YAHTZEE && !scratch && hand >= 0 && ScoreTable.getScore(hand, Yahtzee.YAHTZEE) > 0){
+                            yahtzees |= 1 << seat;
+                        }
+                        if(bonused){
+                            scratch = true;
+                        } else if(hand < 0 || selected || (scored[seat] & (1 << operand)) != 0){
+                            break;
+                        } else if(!scratch){
+                            points = ScoreTable.getScore(hand, operand);
+                            scratch = points == 0 && (SCRATCHED_FOR_NOTHING & (1 << operand)) != 0;
+                        }
+                        scored[seat] |= 1 << operand;
+                        selected = true;
+                    }
+                    int kind = scratch ? GameRecorder.SCRATCH : GameRecorder.SCORE;
+                    boolean match = query.matches(kind, operand, turnsPassed / numPlayers + 1, seat);
+                    statistics.addEvent(match, points);
+                    matched |= match;
+                    break;
+                default:
+                    return -1;
+            }
+        }
+        if(!atEnd){
+            return -1;
+        }
+        statistics.addGame(position - start, matched);
+        return position;
+    }
+
+    /**
+     * This is the main method, which scans a recording for the events matching a query
+     * and prints how many there were and how fast the recording was scanned
+     * @param args Command line arguments, the recording file followed by the query, see ReplayQuery.parse()
+     * @throws IOException if the file cannot be read or is not a recording
+     */
+    public static void main(String[] args) throws IOException {
+        File file = new File(args.length > 0 ? args[0] : "games.rec");
+        ReplayQuery query = ReplayQuery.parse(args, 1);
+        RecordingAnalyzer analyzer = new RecordingAnalyzer(file);
+        try {
+            ReplayStatistics statistics = analyzer.analyze(query, Runtime.getRuntime().availableProcessors());
+            System.out.println(statistics.getGames() + " games, " + query);
+            System.out.println(statistics);
+        } finally {
+            analyzer.close();
+        }
+    }
+
+    /**
+     * This class is the result of scanning one segment of the recording
+     */
+    private static class Segment {
+
+        /** where the first game read starts */
+        private long start;
+
+        /** where the segment ends */
+        private long end;
+
+        /** where the first game not read starts, at or after the end */
+        private long next;
+
+        /** whether every game was understood, false if the guess of where the first game starts was wrong */
+        private boolean valid;
+
+        /** the counts of the games read */
+        private ReplayStatistics statistics;
+
+        /**
+         * This is the constructor which initializes an empty segment
+         * @param start where the first game starts
+         * @param end where the segment ends
+        */
+        private Segment(long start, long end){
+            this.start = start;
+            this.end = end;
+            next = end;
+            valid = true;
+            statistics = new ReplayStatistics();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import java.io.*;
+
+/**
+ * RecordingCheck.java
+ *
+ * This class checks that RecordingAnalyzer counts a recording the way the
+ * games in it were really played. games of the greedy strategy are
+ * recorded to a temporary file, played back with GameReplayer to collect
+ * their finished scorecards, and scanned by the analyzer once for the
+ * scores and once for the scratches of every category. the number of
+ * categories scored and scratched and the points of each must agree with
+ * the scorecards, and the yahtzee bonuses with the bonuses taken
+ *
+ * @author Robert Kenney
+ */
+public class RecordingCheck {
+
+    /** the number of games recorded if none is given */
+    public static final long DEFAULT_NUM_GAMES = 20000;
+
+    /**
+     * This class only holds static methods
+    */
+    private RecordingCheck(){
+    }
+
+    /**
+     * records games played by the greedy strategy
+     * @param file the file to record to
+     * @param numGames the number of games
+     * @param numPlayers the number of players in each game
+     * @param seed the seed of the first game
+     * @throws IOException if the file cannot be written
+     */
+    public static void record(File file, long numGames, int numPlayers, long seed) throws IOException {
+        Strategy[] seats = new Strategy[numPlayers];
+        for(int seat = 0; seat < numPlayers; seat++){
+            seats[seat] = new GreedyStrategy();
+        }
+        GameRecorder recorder = new GameRecorder(new FileOutputStream(file));
+        try {
+            for(long game = 0; game < numGames; game++){
+                Yahtzee yahtzee = new Yahtzee(numPlayers, seed + game);
+                recorder.record(yahtzee);
+                YahtzeeSimulator.playGame(yahtzee, seats);
+            }
+        } finally {
+            recorder.close();
+        }
+    }
+
+    /**
+     * plays back every game of a recording and collects the scorecards
+     * @param file the recording
+     * @return the statistics of every finished scorecard
+     * @throws IOException if the recording cannot be played back
+     */
+    public static ScorecardStatistics replay(File file) throws IOException {
+        ScorecardStatistics statistics = new ScorecardStatistics();
+        GameReplayer replayer = GameReplayer.map(file);
+        try {
+            while(replayer.hasNext()){
+                statistics.add(replayer.next());
+            }
+        } finally {
+            replayer.close();
+        }
+        return statistics;
+    }
+
+    /**
+     * compares what the analyzer counts for every category with the scorecards played back,
+     * printing a line for each category
+     * @param file the recording
+     * @param replayed the statistics of the scorecards played back from it
+     * @param parallelism the number of threads the analyzer scans on
+     * @return the number of counts that disagree
+     * @throws IOException if the recording cannot be scanned
+     */
+    public static int compare(File file, ScorecardStatistics replayed, int parallelism) throws IOException {
+        int mismatches = 0;
+        RecordingAnalyzer analyzer = new RecordingAnalyzer(file);
+        try {
+            System.out.printf("%-16s %21s %21s %25s%n", "Category", "scored", "scratched", "points");
+            for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
+                ReplayStatistics scores = analyzer.analyze(
+                        new ReplayQuery(GameRecorder.SCORE, category, ReplayQuery.ANY, ReplayQuery.ANY), parallelism);
+                ReplayStatistics scratches = analyzer.analyze(
+                        new ReplayQuery(GameRecorder.SCRATCH, category, ReplayQuery.ANY, ReplayQuery.ANY), parallelism);
+                long scored = category == Yahtzee.YAHTZEE_BONUS ? replayed.getYahtzeeBonuses() : replayed.getScoredCount(category);
+                long scratched = replayed.getScratchCount(category);
+                long points = replayed.getPointSum(category);
+                long analyzedPoints = scores.getPoints() + scratches.getPoints();
+                boolean agrees = scores.getMatches() == scored && scratches.getMatches() == scratched && analyzedPoints == points;
+                if(!agrees){
+                    mismatches++;
+                }
+                System.out.printf("%-16s %10d %10d %10d %10d %12d %12d%s%n", Yahtzee.SCORECARD_CATEGORIES[category],
+                        scores.getMatches(), scored, scratches.getMatches(), scratched, analyzedPoints, points,
+                        agrees ? "" : "  MISMATCH");
+            }
+        } finally {
+            analyzer.close();
+        }
+        return mismatches;
+    }
+
+    /**
+     * This is the main method, which records games, checks the analyzer's counts of them against
+     * the games played back and exits with status 1 if any disagree
+     * @param args Command line arguments, the number of games, the number of players in each and the seed of the first game
+     * @throws IOException if the recording cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        long numGames = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_NUM_GAMES;
+        int numPlayers = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        File file = File.createTempFile("yahtzee", ".rec");
+        int mismatches;
+        try {
+            record(file, numGames, numPlayers, seed);
+            ScorecardStatistics replayed = replay(file);
+            System.out.println(numGames + " games of " + numPlayers + " players from seed " + seed
+                    + ", analyzer then replay");
+            mismatches = compare(file, replayed, Runtime.getRuntime().availableProcessors());
+        } finally {
+            file.delete();
+        }
+        System.out.println(mismatches + " categories disagree");
+        if(mismatches > 0){
+            System.exit(1);
+        }
+    }
+}
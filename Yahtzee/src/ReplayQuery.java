@@ -0,0 +1,140 @@
+/**
+ * ReplayQuery.java
+ *
+ * This class picks out the categories scored or scratched in recorded
+ * games that a RecordingAnalyzer counts, by whether the category was
+ * scored or scratched, which category, in which turn and by which seat.
+ * anything left unset matches every event. a category counts as
+ * scratched when the game scratched it, which it does for a category
+ * worth no points other than the numbers and chance, and for the category
+ * selected after a yahtzee bonus
+ *
+ * @author Robert Kenney
+ */
+public class ReplayQuery {
+
+    /** the value of a filter matching everything */
+    public static final int ANY = -1;
+
+    /** GameRecorder.SCORE or GameRecorder.SCRATCH, or ANY */
+    private int event;
+
+    /** the index of the category, or ANY */
+    private int category;
+
+    /** the turn of the player, from 1 to 13, or ANY */
+    private int turn;
+
+    /** the seat of the player, starting from zero, or ANY */
+    private int seat;
+
+    /**
+     * This is the constructor which initializes a query
+     * @param event GameRecorder.SCORE or GameRecorder.SCRATCH, or ANY
+     * @param category the index of the category, or ANY
+     * @param turn the turn of the player, from 1 to 13, or ANY
+     * @param seat the seat of the player, starting from zero, or ANY
+    */
+    public ReplayQuery(int event, int category, int turn, int seat){
+        this.event = event;
+        this.category = category;
+        this.turn = turn;
+        this.seat = seat;
+    }
+
+    /**
+     * reads a query from command line arguments of the form key=value, with the keys
+     * event (score or scratch), category (a name from the scorecard or an index),
+     * turn (from 1) and seat (from 1)
+     * @param args the arguments
+     * @param first the index of the first argument of the query
+     * @return the query
+     * @throws IllegalArgumentException if an argument cannot be understood
+     */
+    public static ReplayQuery parse(String[] args, int first){
+        int event = ANY;
+        int category = ANY;
+        int turn = ANY;
+        int seat = ANY;
+        for(int i = first; i < args.length; i++){
+            int equals = args[i].indexOf('=');
+            if(equals < 0){
+                throw new IllegalArgumentException("Expected key=value but got " + args[i]);
+            }
+            String key = args[i].substring(0, equals);
+            String value = args[i].substring(equals + 1);
+            if(key.equals("event")){
+                if(value.equalsIgnoreCase("score")){
+                    event = GameRecorder.SCORE;
+                } else if(value.equalsIgnoreCase("scratch")){
+                    event = GameRecorder.SCRATCH;
+                } else {
+                    throw new IllegalArgumentException("The event must be score or scratch, not " + value);
+                }
+            } else if(key.equals("category")){
+                category = parseCategory(value);
+            } else if(key.equals("turn")){
+                turn = Integer.parseInt(value);
+            } else if(key.equals("seat")){
+                seat = Integer.parseInt(value) - 1;
+            } else {
+                throw new IllegalArgumentException("Unknown key " + key);
+            }
+        }
+        return new ReplayQuery(event, category, turn, seat);
+    }
+
+    /**
+     * reads a category by its name on the scorecard or its index
+     * @param value the name, in any case, or the index
+     * @return the index of the category
+     * @throws IllegalArgumentException if there is no such category
+     */
+    private static int parseCategory(String value){
+        for(int category = 0; category < Yahtzee.SCORECARD_CATEGORIES.length; category++){
+            if(Yahtzee.SCORECARD_CATEGORIES[category].equalsIgnoreCase(value)){
+                return category;
+            }
+        }
+        try {
+            int category = Integer.parseInt(value);
+            if(category >= 0 && category < Yahtzee.SCORECARD_CATEGORIES.length){
+                return category;
+            }
+        } catch(NumberFormatException e){
+            // not an index either
+        }
+        throw new IllegalArgumentException("Unknown category " + value);
+    }
+
+    /**
+     * checks whether a recorded event is counted
+     * @param event GameRecorder.SCORE or GameRecorder.SCRATCH
+     * @param category the index of the category
+     * @param turn the turn of the player, from 1
+     * @param seat the seat of the player, starting from zero
+     * @return true if the event matches every filter, false otherwise
+     */
+    public boolean matches(int event, int category, int turn, int seat){
+        return (this.event == ANY || this.event == event)
+                && (this.category == ANY || this.category == category)
+                && (this.turn == ANY || this.turn == turn)
+                && (this.seat == ANY || this.seat == seat);
+    }
+
+    /**
+     * describes the query
+     * @return the filters that are set
+     */
+    public String toString(){
+        String description = event == GameRecorder.SCORE ? "scored" : event == GameRecorder.SCRATCH ? "scratched" : "scored or scratched";
+        description += " " + (category == ANY ? "any category" : Yahtzee.SCORECARD_CATEGORIES[category]);
+        if(turn != ANY){
+            description += " in turn " + turn;
+        }
+        if(seat != ANY){
+            description += " by seat " + (seat + 1);
+        }
+        return description;
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * ReplayStatistics.java
+ *
+ * This class holds the counts a RecordingAnalyzer collects from a
+ * stretch of a recording, which are added together across stretches
+ *
+ * @author Robert Kenney
+ */
+public class ReplayStatistics {
+
+    /** the number of bytes of the recording scanned */
+    private long bytes;
+
+    /** the number of games scanned */
+    private long games;
+
+    /** the number of categories scored or scratched */
+    private long events;
+
+    /** the number of events matching the query */
+    private long matches;
+
+    /** the number of games with at least one event matching the query */
+    private long matchingGames;
+
+    /** the points scored by the matching events */
+    private long points;
+
+    /** the time the scan took, in nanoseconds */
+    private long elapsedNanos;
+
+    /**
+     * This is the constructor which initializes empty statistics
+    */
+    public ReplayStatistics(){
+    }
+
+    /**
+     * counts a game that has been scanned
+     * @param bytes the length of the game in the recording
+     * @param matched whether any of its events matched the query
+     */
+    public void addGame(long bytes, boolean matched){
+        this.bytes += bytes;
+        games++;
+        if(matched){
+            matchingGames++;
+        }
+    }
+
+    /**
+     * counts a category being scored or scratched
+     * @param matched whether it matched the query
+     * @param points the points it scored
+     */
+    public void addEvent(boolean matched, int points){
+        events++;
+        if(matched){
+            matches++;
+            this.points += points;
+        }
+    }
+
+    /**
+     * adds the counts of another stretch of the recording to these
+     * @param other the other statistics
+     */
+    public void merge(ReplayStatistics other){
+        bytes += other.bytes;
+        games += other.games;
+        events += other.events;
+        matches += other.matches;
+        matchingGames += other.matchingGames;
+        points += other.points;
+    }
+
+    /**
+     * gets the number of games scanned
+     * @return the number of games
+     */
+    public long getGames(){
+        return games;
+    }
+
+    /**
+     * gets the number of categories scored or scratched
+     * @return the number of events
+     */
+    public long getEvents(){
+        return events;
+    }
+
+    /**
+     * gets the number of events matching the query
+     * @return the number of matches
+     */
+    public long getMatches(){
+        return matches;
+    }
+
+    /**
+     * gets the number of games with at least one event matching the query
+     * @return the number of games
+     */
+    public long getMatchingGames(){
+        return matchingGames;
+    }
+
+    /**
+     * gets the points scored by the matching events
+     * @return the points
+     */
+    public long getPoints(){
+        return points;
+    }
+
+    /**
+     * gets the number of bytes of the recording scanned
+     * @return the bytes
+     */
+    public long getBytes(){
+        return bytes;
+    }
+
+    /**
+     * sets the time the scan took
+     * @param elapsedNanos the time in nanoseconds
+     */
+    public void setElapsedNanos(long elapsedNanos){
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * describes the statistics in a few lines
+     * @return the counts, how often the query matched and how fast the recording was scanned
+     */
+    public String toString(){
+        return String.format("%d matches in %d games (%.4f%% of games), %d events (%.4f%%), mean points %.2f%n"
+                + "scanned %d bytes in %.3f s (%.2f GB/s)",
+                matches, matchingGames, 100.0 * matchingGames / Math.max(games, 1), events,
+                100.0 * matches / Math.max(events, 1), (double) points / Math.max(matches, 1),
+                bytes, elapsedNanos / 1e9, bytes / Math.max(elapsedNanos, 1.0));
+    }
+}
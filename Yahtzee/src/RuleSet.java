@@ -0,0 +1,569 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * RuleSet.java
+ *
+ * This class describes the rules of a dice game in the Yahtzee family:
+ * how many dice there are, how many faces they have, how many rolls a
+ * turn has, the bonuses, and the categories of the scorecard. the game's
+ * own rules are built in as STANDARD, and other rules are read from a
+ * properties file, so a variant such as Yatzy or a six dice house rule
+ * can be played without changing any code
+ *
+ *   name=Yatzy
+ *   dice=5
+ *   faces=6
+ *   rolls=3
+ *   bonus=50
+ *   bonusThreshold=63
+ *   yahtzeeBonus=0
+ *   category.0=Ones: numeric 1
+ *   category.1=...
+ *
+ * each category is a name and a rule, the rule being one of
+ *
+ *   numeric face                the dice showing the face, added up
+ *   kind n [score]              at least n dice showing the same face
+ *   pairs n                     n different faces each shown by two dice, scoring the two dice of each
+ *   fullhouse [score]           exactly two different faces, each shown by at least two dice
+ *   straight n [steps|from face] [score]    n faces in a row, see below
+ *   chance                      any dice, scoring their sum
+ *   yahtzee [score]             every die showing the same face, 50 unless given
+ *
+ * where the score is sum for the sum of every die, matched for only the
+ * dice making the category, or a number of points. a straight is any run
+ * of n faces unless it says from, when it must start at that face, or
+ * steps, when it is counted the way this game always has, as one more than
+ * the number of times a die is one more than the die below it, with the
+ * dice in order
+ *
+ * the tables a rule set is played with are worked out the first time they
+ * are asked for and kept, see RuleTable, and rule sets are kept by name
+ * once loaded, so the work is only ever done once
+ *
+ * @author Robert Kenney
+ */
+public class RuleSet {
+
+    /** the rule of a numeric category */
+    public static final int NUMERIC = 0;
+
+    /** the rule of an n of a kind */
+    public static final int KIND = 1;
+
+    /** the rule of n pairs */
+    public static final int PAIRS = 2;
+
+    /** the rule of a full house */
+    public static final int FULL_HOUSE = 3;
+
+    /** the rule of a straight */
+    public static final int STRAIGHT = 4;
+
+    /** the rule of chance */
+    public static final int CHANCE = 5;
+
+    /** the rule of a yahtzee */
+    public static final int YAHTZEE = 6;
+
+    /** the score of a category worth the sum of every die */
+    public static final int SUM = -1;
+
+    /** the score of a category worth the sum of the dice making it */
+    public static final int MATCHED = -2;
+
+    /** the start of a straight that may start at any face */
+    public static final int ANY_START = 0;
+
+    /** the start of a straight counted as this game always has */
+    public static final int STEPS = -1;
+
+    /** the most dice a rule set can have */
+    public static final int MAX_DICE = 8;
+
+    /** the most faces a die can have */
+    public static final int MAX_FACES = 12;
+
+    /** the most different rolls of the dice, when the order matters, so the tables fit in memory */
+    public static final int MAX_ROLLS = 1 << 21;
+
+    /** the names of the rules, by rule */
+    private static final String[] RULE_NAMES = {"numeric", "kind", "pairs", "fullhouse", "straight", "chance", "yahtzee"};
+
+    /** the rules of the game as it is built, the same as the constants of Yahtzee */
+    public static final RuleSet STANDARD = standard();
+
+    /** the rule sets loaded so far, by lower case name or the canonical path of their file */
+    private static final ConcurrentMap<String, RuleSet> LOADED = new ConcurrentHashMap<String, RuleSet>();
+
+    /** the name of the rule set */
+    private String name;
+
+    /** the number of dice */
+    private int numDice;
+
+    /** the number of faces of each die */
+    private int numFaces;
+
+    /** the number of rolls in a turn */
+    private int rollsPerTurn;
+
+    /** the points of the bonus for the numeric categories */
+    private int bonus;
+
+    /** the numeric subtotal needed for the bonus */
+    private int bonusThreshold;
+
+    /** the points of each extra yahtzee, zero if there is no yahtzee bonus */
+    private int yahtzeeBonus;
+
+    /** the name of each category */
+    private String[] categoryNames;
+
+    /** the rule of each category */
+    private int[] rules;
+
+    /** the face, number of dice or length of each category's rule */
+    private int[] sizes;
+
+    /** the face each straight starts at, ANY_START or STEPS */
+    private int[] starts;
+
+    /** the points of each category, SUM, MATCHED or a fixed number */
+    private int[] scores;
+
+    /** the tables of the rule set, worked out the first time they are needed */
+    private volatile RuleTable table;
+
+    /**
+     * This is the constructor which initializes a rule set
+     * @param name the name of the rule set
+     * @param numDice the number of dice
+     * @param numFaces the number of faces of each die
+     * @param rollsPerTurn the number of rolls in a turn
+     * @param bonus the points of the bonus for the numeric categories
+     * @param bonusThreshold the numeric subtotal needed for the bonus
+     * @param yahtzeeBonus the points of each extra yahtzee, zero if there is no yahtzee bonus
+     * @param categories each category as its name, a colon and its rule
+    */
+    public RuleSet(String name, int numDice, int numFaces, int rollsPerTurn, int bonus, int bonusThreshold,
+            int yahtzeeBonus, String[] categories){
+        if(numDice < 1 || numDice > MAX_DICE || numFaces < 2 || numFaces > MAX_FACES || rollsPerTurn < 1
+                || Math.pow(numFaces, numDice) > MAX_ROLLS){
+            throw new IllegalArgumentException("Rules need 1 to " + MAX_DICE + " dice of 2 to " + MAX_FACES
+                    + " faces, with at most " + MAX_ROLLS + " different rolls, and at least one roll a turn");
+        }
+        if(categories.length == 0 || categories.length > Integer.SIZE - 1){
+            throw new IllegalArgumentException("Rules need from 1 to " + (Integer.SIZE - 1) + " categories");
+        }
+        this.name = name;
+        this.numDice = numDice;
+        this.numFaces = numFaces;
+        this.rollsPerTurn = rollsPerTurn;
+        this.bonus = bonus;
+        this.bonusThreshold = bonusThreshold;
+        this.yahtzeeBonus = yahtzeeBonus;
+        categoryNames = new String[categories.length];
+        rules = new int[categories.length];
+        sizes = new int[categories.length];
+        starts = new int[categories.length];
+        scores = new int[categories.length];
+        for(int category = 0; category < categories.length; category++){
+            parseCategory(category, categories[category]);
+        }
+    }
+
+    /**
+     * builds the rules of the game from the constants of Yahtzee
+     * @return the standard rules
+     */
+    private static RuleSet standard(){
+        String[] categories = new String[ScoreTable.NUM_CATEGORIES];
+        for(int face = 1; face <= Die.MAX_DIE_VALUE; face++){
+            categories[face - 1] = "numeric " + face;
+        }
+        categories[Yahtzee.THREE_OF_A_KIND] = "kind 3 sum";
+        categories[Yahtzee.FOUR_OF_A_KIND] = "kind 4 sum";
+        categories[Yahtzee.FULL_HOUSE] = "fullhouse " + Yahtzee.FULL_HOUSE_SCORE;
+        categories[Yahtzee.SMALL_STRAIGHT] = "straight 4 steps " + Yahtzee.SMALL_STRAIGHT_SCORE;
+        categories[Yahtzee.LARGE_STRAIGHT] = "straight 5 steps " + Yahtzee.LARGE_STRAIGHT_SCORE;
+        categories[Yahtzee.CHANCE] = "chance";
+        categories[Yahtzee.YAHTZEE] = "yahtzee " + Yahtzee.YAHTZEE_SCORE;
+        for(int category = 0; category < categories.length; category++){
+            categories[category] = Yahtzee.SCORECARD_CATEGORIES[category] + ": " + categories[category];
+        }
+        return new RuleSet("Yahtzee", Yahtzee.NUM_DICE, Die.MAX_DIE_VALUE, Yahtzee.ROLLS_PER_TURN, Yahtzee.BONUS,
+                Yahtzee.POINTS_NEEDED_FOR_BONUS, Yahtzee.YAHTZEE_BONUS_SCORE, categories);
+    }
+
+    /**
+     * reads one category from its name and rule
+     * @param category the index of the category
+     * @param description the name, a colon and the rule
+     */
+    private void parseCategory(int category, String description){
+        int colon = description.indexOf(':');
+        if(colon < 0){
+            throw new IllegalArgumentException("Category " + category + " needs a name and a rule: " + description);
+        }
+        categoryNames[category] = description.substring(0, colon).trim();
+        String[] words = description.substring(colon + 1).trim().toLowerCase().split("\\s+");
+        int rule = Arrays.asList(RULE_NAMES).indexOf(words[0]);
+        if(rule < 0){
+            throw new IllegalArgumentException("Unknown rule " + words[0] + " for " + categoryNames[category]);
+        }
+        rules[category] = rule;
+        starts[category] = ANY_START;
+        scores[category] = SUM;
+        int word = 1;
+        if(rule == NUMERIC || rule == KIND || rule == PAIRS || rule == STRAIGHT){
+            if(words.length < 2){
+                throw new IllegalArgumentException(words[0] + " needs a number for " + categoryNames[category]);
+            }
+            sizes[category] = parseNumber(words[word++], category);
+        }
+        if(rule == STRAIGHT && word < words.length && words[word].equals("steps")){
+            starts[category] = STEPS;
+            word++;
+        } else if(rule == STRAIGHT && word < words.length && words[word].equals("from")){
+            if(word + 1 >= words.length){
+                throw new IllegalArgumentException("from needs a face for " + categoryNames[category]);
+            }
+            starts[category] = parseNumber(words[word + 1], category);
+            if(starts[category] < 1){
+                throw new IllegalArgumentException("from needs a face of at least 1 for " + categoryNames[category]);
+            }
+            word += 2;
+        }
+        if(rule == NUMERIC || rule == PAIRS){
+            scores[category] = MATCHED;
+        } else if(rule == YAHTZEE){
+            scores[category] = Yahtzee.YAHTZEE_SCORE;
+        }
+        if(word < words.length && rule != NUMERIC && rule != PAIRS && rule != CHANCE){
+            if(words[word].equals("sum")){
+                scores[category] = SUM;
+            } else if(words[word].equals("matched")){
+                scores[category] = MATCHED;
+            } else {
+                scores[category] = parseNumber(words[word], category);
+            }
+            word++;
+        }
+        if(word < words.length){
+            throw new IllegalArgumentException("Unexpected " + words[word] + " in the rule for " + categoryNames[category]);
+        }
+        boolean sized = rule == NUMERIC || rule == KIND || rule == PAIRS || rule == STRAIGHT;
+        if((sized && sizes[category] < 1) || (rule == NUMERIC && sizes[category] > numFaces)
+                || (rule != NUMERIC && sizes[category] > numDice)
+                || (rule == STRAIGHT && Math.max(starts[category], 1) + sizes[category] - 1 > numFaces)){
+            throw new IllegalArgumentException("The rule for " + categoryNames[category] + " cannot be made with "
+                    + numDice + " dice of " + numFaces + " faces");
+        }
+    }
+
+    /**
+     * reads a number from a rule
+     * @param word the word holding the number
+     * @param category the index of the category, for the message if it is not a number
+     * @return the number
+     */
+    private int parseNumber(String word, int category){
+        try {
+            int number = Integer.parseInt(word);
+            if(number < 0){
+                throw new IllegalArgumentException("Negative number " + word + " in the rule for " + categoryNames[category]);
+            }
+            return number;
+        } catch(NumberFormatException e){
+            throw new IllegalArgumentException("Expected a number, not " + word + ", in the rule for " + categoryNames[category]);
+        }
+    }
+
+    /**
+     * reads a rule set from properties, see the class comment
+     * @param properties the properties
+     * @return the rule set
+     */
+    public static RuleSet fromProperties(Properties properties){
+        List<String> categories = new ArrayList<String>();
+        String category;
+        while((category = properties.getProperty("category." + categories.size())) != null){
+            categories.add(category);
+        }
+        return new RuleSet(properties.getProperty("name", "Unnamed"),
+                Integer.parseInt(properties.getProperty("dice", String.valueOf(Yahtzee.NUM_DICE)).trim()),
+                Integer.parseInt(properties.getProperty("faces", String.valueOf(Die.MAX_DIE_VALUE)).trim()),
+                Integer.parseInt(properties.getProperty("rolls", String.valueOf(Yahtzee.ROLLS_PER_TURN)).trim()),
+                Integer.parseInt(properties.getProperty("bonus", "0").trim()),
+                Integer.parseInt(properties.getProperty("bonusThreshold", "0").trim()),
+                Integer.parseInt(properties.getProperty("yahtzeeBonus", "0").trim()),
+                categories.toArray(new String[categories.size()]));
+    }
+
+    /**
+     * reads a rule set from a properties file
+     * @param in the file's contents
+     * @param source where the file came from, for the message if it cannot be read
+     * @return the rule set
+     * @throws IOException if the file cannot be read or does not describe a rule set
+     */
+    public static RuleSet load(InputStream in, String source) throws IOException {
+        Properties properties = new Properties();
+        try {
+            properties.load(new InputStreamReader(in, "UTF-8"));
+            return fromProperties(properties);
+        } catch(IllegalArgumentException e){
+            throw new IOException(source + ": " + e.getMessage(), e);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * finds a rule set by name, once each: yahtzee for the standard rules,
+     * a rule set that comes with the game such as yatzy or sixdice, or the
+     * path of a properties file. the names of the rule sets that come with
+     * the game are not case sensitive, and a file is known by its canonical
+     * path, so the same rules are only loaded once however they are named
+     * @param name the name of the rule set or its file
+     * @return the rule set
+     * @throws IOException if there is no such rule set or it cannot be read
+     */
+    public static RuleSet forName(String name) throws IOException {
+        if(name.equalsIgnoreCase("yahtzee")){
+            return STANDARD;
+        }
+        String resource = "/rules/" + name.toLowerCase() + ".properties";
+        boolean builtIn = RuleSet.class.getResource(resource) != null;
+        String key = builtIn ? name.toLowerCase() : new File(name).getCanonicalPath();
+        RuleSet rules = LOADED.get(key);
+        if(rules == null){
+            if(builtIn){
+                rules = load(RuleSet.class.getResourceAsStream(resource), name);
+            } else {
+                rules = load(new FileInputStream(name), name);
+            }
+            RuleSet other = LOADED.putIfAbsent(key, rules);
+            if(other != null){
+                rules = other;
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * gets the tables to play the rule set with, working them out the first time
+     * @return the tables
+     */
+    public RuleTable getTable(){
+        RuleTable built = table;
+        if(built == null){
+            synchronized(this){
+                built = table;
+                if(built == null){
+                    built = new RuleTable(this);
+                    table = built;
+                }
+            }
+        }
+        return built;
+    }
+
+    /**
+     * works out the points a hand is worth in a category
+     * @param category the index of the category
+     * @param counts the number of dice showing each face, counts[face - 1]
+     * @return the points, zero if the hand does not make the category
+     */
+    public int score(int category, int[] counts){
+        int size = sizes[category];
+        int sum = 0;
+        int most = 0;
+        int mostFace = 0;
+        for(int face = 1; face <= numFaces; face++){
+            sum += counts[face - 1] * face;
+            if(counts[face - 1] >= size && counts[face - 1] > 0){
+                mostFace = face;
+            }
+            most = Math.max(most, counts[face - 1]);
+        }
+        switch(rules[category]){
+            case NUMERIC:
+                return counts[size - 1] * size;
+            case KIND:
+                return mostFace == 0 ? 0 : points(category, sum, size * mostFace);
+            case PAIRS:
+                int pairs = 0;
+                int matched = 0;
+                for(int face = numFaces; face >= 1 && pairs < size; face--){
+                    if(counts[face - 1] >= 2){
+                        pairs++;
+                        matched += 2 * face;
+                    }
+                }
+                return pairs < size ? 0 : matched;
+            case FULL_HOUSE:
+                int faces = 0;
+                int least = numDice;
+                for(int face = 1; face <= numFaces; face++){
+                    if(counts[face - 1] > 0){
+                        faces++;
+                        least = Math.min(least, counts[face - 1]);
+                    }
+                }
+                return faces == 2 && least >= 2 ? points(category, sum, sum) : 0;
+            case STRAIGHT:
+                int run = getRun(category, counts);
+                return run < 0 ? 0 : points(category, sum, run);
+            case CHANCE:
+                return sum;
+            default:
+                return most == numDice ? points(category, sum, sum) : 0;
+        }
+    }
+
+    /**
+     * checks a hand for a straight
+     * @param category the index of the straight category
+     * @param counts the number of dice showing each face
+     * @return the sum of the faces in the straight, or -1 if the hand has no straight
+     */
+    private int getRun(int category, int[] counts){
+        int length = sizes[category];
+        if(starts[category] == STEPS){
+            int steps = 1;
+            int matched = 0;
+            for(int face = 1; face <= numFaces; face++){
+                if(counts[face - 1] > 0){
+                    steps += face > 1 && counts[face - 2] > 0 ? 1 : 0;
+                    matched += face;
+                }
+            }
+            return steps >= length ? matched : -1;
+        }
+        for(int start = 1; start + length - 1 <= numFaces; start++){
+            if(starts[category] != ANY_START && start != starts[category]){
+                continue;
+            }
+            int matched = 0;
+            for(int face = start; face < start + length && counts[face - 1] > 0; face++){
+                matched += face;
+                if(face == start + length - 1){
+                    return matched;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * works out the points of a category a hand makes
+     * @param category the index of the category
+     * @param sum the sum of every die
+     * @param matched the sum of the dice making the category
+     * @return the points
+     */
+    private int points(int category, int sum, int matched){
+        if(scores[category] == SUM){
+            return sum;
+        }
+        if(scores[category] == MATCHED){
+            return matched;
+        }
+        return scores[category];
+    }
+
+    /**
+     * gets the name of the rule set
+     * @return the name
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * gets the number of dice
+     * @return the number of dice
+     */
+    public int getNumDice(){
+        return numDice;
+    }
+
+    /**
+     * gets the number of faces of each die
+     * @return the number of faces
+     */
+    public int getNumFaces(){
+        return numFaces;
+    }
+
+    /**
+     * gets the number of rolls in a turn
+     * @return the number of rolls
+     */
+    public int getRollsPerTurn(){
+        return rollsPerTurn;
+    }
+
+    /**
+     * gets the points of the bonus for the numeric categories
+     * @return the points
+     */
+    public int getBonus(){
+        return bonus;
+    }
+
+    /**
+     * gets the numeric subtotal needed for the bonus
+     * @return the subtotal
+     */
+    public int getBonusThreshold(){
+        return bonusThreshold;
+    }
+
+    /**
+     * gets the points of each yahtzee after the first scored for points
+     * @return the points, zero if there is no yahtzee bonus
+     */
+    public int getYahtzeeBonus(){
+        return yahtzeeBonus;
+    }
+
+    /**
+     * gets the number of categories on the scorecard, not counting the yahtzee bonus
+     * @return the number of categories
+     */
+    public int getNumCategories(){
+        return categoryNames.length;
+    }
+
+    /**
+     * gets the name of a category
+     * @param category the index of the category
+     * @return the name
+     */
+    public String getCategoryName(int category){
+        return categoryNames[category];
+    }
+
+    /**
+     * gets the rule of a category
+     * @param category the index of the category
+     * @return NUMERIC, KIND, PAIRS, FULL_HOUSE, STRAIGHT, CHANCE or YAHTZEE
+     */
+    public int getRule(int category){
+        return rules[category];
+    }
+
+    /**
+     * returns the name of the rule set with its dice
+     * @return the description
+     */
+    public String toString(){
+        return String.format("%s (%d dice of %d faces, %d rolls, %d categories)", name, numDice, numFaces,
+                rollsPerTurn, categoryNames.length);
+    }
+}
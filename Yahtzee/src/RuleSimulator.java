@@ -0,0 +1,112 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * RuleSimulator.java
+ *
+ * This class plays one player games under any RuleSet with a greedy
+ * player, who chases the most common face and scores whichever category
+ * is worth the most, like GreedyStrategy. every roll is scored with the
+ * rule set's RuleTable, so games under a variant are played just as fast
+ * as under the standard rules
+ *
+ * @author Robert Kenney
+ */
+public class RuleSimulator {
+
+    /** the number of games played if no number is given */
+    public static final long DEFAULT_NUM_GAMES = 1000000;
+
+    /**
+     * This class only holds static methods
+     */
+    private RuleSimulator(){
+    }
+
+    /**
+     * plays one game with the greedy player
+     * @param table the tables of the rules
+     * @param random the random number generator to roll with
+     * @return the final score
+     */
+    public static int playGame(RuleTable table, SplittableRandom random){
+        RuleSet rules = table.getRules();
+        int numDice = rules.getNumDice();
+        int numFaces = rules.getNumFaces();
+        int[] values = new int[numDice];
+        int[] counts = new int[numFaces];
+        int scored = 0;
+        int total = 0;
+        int upper = 0;
+        boolean hasYahtzee = false;
+        for(int turn = 0; turn < rules.getNumCategories(); turn++){
+            int heldFace = 0;
+            for(int roll = 0; roll < rules.getRollsPerTurn(); roll++){
+                Arrays.fill(counts, 0);
+                for(int die = 0; die < numDice; die++){
+                    if(values[die] != heldFace || roll == 0){
+                        values[die] = random.nextInt(numFaces) + 1;
+                    }
+                    counts[values[die] - 1]++;
+                }
+                heldFace = numFaces;
+                for(int face = numFaces - 1; face >= 1; face--){
+                    if(counts[face - 1] > counts[heldFace - 1]){
+                        heldFace = face;
+                    }
+                }
+            }
+
+            int hand = table.getHand(table.encode(values));
+            if(counts[heldFace - 1] == numDice && hasYahtzee){
+                total += rules.getYahtzeeBonus();
+            }
+            int best = -1;
+            for(int category = 0; category < rules.getNumCategories(); category++){
+                if((scored & (1 << category)) == 0
+                        && (best < 0 || table.getScore(hand, category) > table.getScore(hand, best))){
+                    best = category;
+                }
+            }
+            int points = table.getScore(hand, best);
+            scored |= 1 << best;
+            total += points;
+            if(rules.getRule(best) == RuleSet.NUMERIC){
+                upper += points;
+            }
+            if(rules.getRule(best) == RuleSet.YAHTZEE && points > 0){
+                hasYahtzee = true;
+            }
+        }
+        if(upper >= rules.getBonusThreshold()){
+            total += rules.getBonus();
+        }
+        return total;
+    }
+
+    /**
+     * This is the main method, which plays games under a rule set and
+     * prints the average score and how fast they were played
+     * @param args Command line arguments, the rule set, the number of games and the seed, all optional
+     * @throws IOException if the rule set cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        RuleSet rules = args.length > 0 ? RuleSet.forName(args[0]) : RuleSet.STANDARD;
+        long numGames = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_NUM_GAMES;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        long start = System.nanoTime();
+        RuleTable table = rules.getTable();
+        long built = System.nanoTime();
+        System.out.printf("%s, %d hands, tables built in %.1f ms%n", rules, table.getNumHands(), (built - start) / 1e6);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        long totalScore = 0;
+        for(long game = 0; game < numGames; game++){
+            totalScore += playGame(table, random);
+        }
+        long elapsed = System.nanoTime() - built;
+        System.out.printf("%d games in %.2f s (%.0f games/s), scores avg %.2f%n", numGames, elapsed / 1e9,
+                numGames * 1e9 / elapsed, (double) totalScore / numGames);
+    }
+}
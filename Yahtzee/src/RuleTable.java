@@ -0,0 +1,177 @@
+import java.util.*;
+
+/**
+ * RuleTable.java
+ *
+ * This class is ScoreTable for any RuleSet. it holds every hand the dice
+ * of the rule set can make, the hand of every roll, and the score of every
+ * hand in every category, all worked out once when the table is made, so
+ * scoring a roll under any rules is two array lookups, just as it is for
+ * the standard rules
+ *
+ * a roll is encoded by reading the dice, minus one, as the digits of a
+ * number in base numFaces, die 0 being the most significant, and hands are
+ * numbered in order of their dice sorted ascending, the same way ScoreTable
+ * numbers them, so the table of the standard rules matches ScoreTable
+ * hand for hand
+ *
+ * @author Robert Kenney
+ */
+public class RuleTable {
+
+    /** the rules the table is for */
+    private RuleSet rules;
+
+    /** the number of dice */
+    private int numDice;
+
+    /** the number of faces of each die */
+    private int numFaces;
+
+    /** the number of categories */
+    private int numCategories;
+
+    /** the number of different hands, ignoring the order of the dice */
+    private int numHands;
+
+    /** the hand each encoded roll belongs to */
+    private int[] hands;
+
+    /** the dice of each hand in ascending order, numDice to a hand */
+    private byte[] handValues;
+
+    /** the score of each hand in each category, numCategories to a hand */
+    private int[] scores;
+
+    /**
+     * This is the constructor which works out the tables of a rule set.
+     * use RuleSet.getTable() rather than making a table directly, so it is only made once
+     * @param rules the rules
+    */
+    public RuleTable(RuleSet rules){
+        this.rules = rules;
+        numDice = rules.getNumDice();
+        numFaces = rules.getNumFaces();
+        numCategories = rules.getNumCategories();
+
+        List<int[]> sortedHands = new ArrayList<int[]>();
+        addHands(new int[numDice], 0, 1, sortedHands);
+        numHands = sortedHands.size();
+        handValues = new byte[numHands * numDice];
+        scores = new int[numHands * numCategories];
+        Map<Integer, Integer> handsByRoll = new HashMap<Integer, Integer>();
+        int[] counts = new int[numFaces];
+        for(int hand = 0; hand < numHands; hand++){
+            int[] values = sortedHands.get(hand);
+            Arrays.fill(counts, 0);
+            for(int die = 0; die < numDice; die++){
+                handValues[hand * numDice + die] = (byte) values[die];
+                counts[values[die] - 1]++;
+            }
+            for(int category = 0; category < numCategories; category++){
+                scores[hand * numCategories + category] = rules.score(category, counts);
+            }
+            handsByRoll.put(encode(values), hand);
+        }
+
+        int numRolls = 1;
+        for(int die = 0; die < numDice; die++){
+            numRolls *= numFaces;
+        }
+        hands = new int[numRolls];
+        int[] sorted = new int[numDice];
+        for(int roll = 0; roll < numRolls; roll++){
+            int code = roll;
+            for(int die = numDice - 1; die >= 0; die--){
+                sorted[die] = code % numFaces + 1;
+                code /= numFaces;
+            }
+            Arrays.sort(sorted);
+            hands[roll] = handsByRoll.get(encode(sorted));
+        }
+    }
+
+    /**
+     * lists every hand in ascending order, one die at a time
+     * @param values the dice chosen so far, ascending
+     * @param die the index of the die being chosen
+     * @param lowest the lowest face the die can show, so the dice stay in order
+     * @param sortedHands the list the finished hands are added to
+     */
+    private void addHands(int[] values, int die, int lowest, List<int[]> sortedHands){
+        if(die == numDice){
+            sortedHands.add(values.clone());
+            return;
+        }
+        for(int face = lowest; face <= numFaces; face++){
+            values[die] = face;
+            addHands(values, die + 1, face, sortedHands);
+        }
+    }
+
+    /**
+     * encodes a roll of the dice
+     * @param values the value of each die, from one to numFaces
+     * @return the encoded roll
+     */
+    public int encode(int[] values){
+        int code = 0;
+        for(int die = 0; die < numDice; die++){
+            code = code * numFaces + values[die] - 1;
+        }
+        return code;
+    }
+
+    /**
+     * gets the rules the table is for
+     * @return the rules
+     */
+    public RuleSet getRules(){
+        return rules;
+    }
+
+    /**
+     * gets the number of different hands
+     * @return the number of hands
+     */
+    public int getNumHands(){
+        return numHands;
+    }
+
+    /**
+     * gets the number of different rolls, when the order of the dice matters
+     * @return the number of rolls
+     */
+    public int getNumRolls(){
+        return hands.length;
+    }
+
+    /**
+     * gets the hand a roll belongs to
+     * @param roll the encoded roll
+     * @return the index of the hand
+     */
+    public int getHand(int roll){
+        return hands[roll];
+    }
+
+    /**
+     * gets the value of one of the dice of a hand
+     * @param hand the index of the hand
+     * @param die the index of the die, the dice being in ascending order
+     * @return the value of the die
+     */
+    public int getHandValue(int hand, int die){
+        return handValues[hand * numDice + die];
+    }
+
+    /**
+     * gets the score of a hand in a category
+     * @param hand the index of the hand
+     * @param category the index of the category
+     * @return the points the hand is worth in the category
+     */
+    public int getScore(int hand, int category){
+        return scores[hand * numCategories + category];
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * ScoreHistogram.java
+ *
+ * This class counts how many games ended with each final score, one
+ * bucket per score up to MAX_SCORE, with higher scores sharing the last
+ * bucket. the buckets are a plain array of longs, so counting a game is
+ * a single increment
+ *
+ * an instance is not safe to share between threads. each thread fills in
+ * its own and they are merged into the shared statistics at the end of a
+ * batch
+ *
+ * @author Robert Kenney
+ */
+public class ScoreHistogram {
+
+    /** the highest score with its own bucket, higher scores share the last bucket */
+    public static final int MAX_SCORE = 2047;
+
+    /** the number of games ending in each bucket */
+    private long[] counts;
+
+    /**
+     * This is the constructor which initializes an empty histogram
+    */
+    public ScoreHistogram(){
+        counts = new long[MAX_SCORE + 1];
+    }
+
+    /**
+     * gets the bucket a score is counted in
+     * @param score the final score
+     * @return the score, no less than zero and no more than MAX_SCORE
+     */
+    public static int getBucket(long score){
+        return (int) Math.max(0, Math.min(score, MAX_SCORE));
+    }
+
+    /**
+     * counts one game
+     * @param score the final score
+     */
+    public void add(long score){
+        counts[getBucket(score)]++;
+    }
+
+    /**
+     * counts a number of games ending with the same score
+     * @param score the final score
+     * @param count the number of games
+     */
+    public void add(long score, long count){
+        counts[getBucket(score)] += count;
+    }
+
+    /**
+     * counts every game of another histogram
+     * @param other the histogram to be added
+     */
+    public void merge(ScoreHistogram other){
+        for(int score = 0; score <= MAX_SCORE; score++){
+            counts[score] += other.counts[score];
+        }
+    }
+
+    /**
+     * gets the number of games that ended with a score
+     * @param score the final score
+     * @return the number of games in the score's bucket
+     */
+    public long getCount(long score){
+        return counts[getBucket(score)];
+    }
+
+    /**
+     * gets the number of games counted
+     * @return the number of games
+     */
+    public long getTotal(){
+        long total = 0;
+        for(int score = 0; score <= MAX_SCORE; score++){
+            total += counts[score];
+        }
+        return total;
+    }
+
+    /**
+     * gets the score below which a fraction of the games ended
+     * @param fraction the fraction, from 0 to 1
+     * @return the score
+     */
+    public int getPercentile(double fraction){
+        long target = (long) Math.ceil(fraction * getTotal());
+        long seen = 0;
+        for(int score = 0; score <= MAX_SCORE; score++){
+            seen += counts[score];
+            if(seen >= target && seen > 0){
+                return score;
+            }
+        }
+        return MAX_SCORE;
+    }
+}
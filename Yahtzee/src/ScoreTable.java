@@ -0,0 +1,135 @@
+import java.util.*;
+
+/**
+ * ScoreTable.java
+ *
+ * This class holds the score of every possible roll of the dice in every
+ * category. the order of the dice does not matter for scoring, so the
+ * 7776 ordered rolls collapse into 252 hands, and each hand's scores are
+ * worked out once, with the game's own scoring methods, when the class loads
+ *
+ * a roll is encoded as a number from 0 to 7775 by reading the dice, minus
+ * one, as the digits of a base six number, die 0 being the most significant
+ *
+ * @author Robert Kenney
+ */
+public class ScoreTable {
+
+    /** the number of different hands, ignoring the order of the dice */
+    public static final int NUM_HANDS = 252;
+
+    /** the number of different rolls, when the order of the dice matters */
+    public static final int NUM_ROLLS = 7776;
+
+    /** the number of categories in the table, every category but the yahtzee bonus */
+    public static final int NUM_CATEGORIES = Yahtzee.YAHTZEE_BONUS;
+
+    /** the hand each encoded roll belongs to */
+    private static final short[] HANDS = new short[NUM_ROLLS];
+
+    /** the dice of each hand in ascending order, five to a hand */
+    private static final byte[] HAND_VALUES = new byte[NUM_HANDS * Yahtzee.NUM_DICE];
+
+    /** the score of each hand in each category, thirteen to a hand */
+    private static final int[] SCORES = new int[NUM_HANDS * NUM_CATEGORIES];
+
+    static {
+        int[] values = new int[Yahtzee.NUM_DICE];
+        int hand = 0;
+        for(values[0] = 1; values[0] <= Die.MAX_DIE_VALUE; values[0]++){
+            for(values[1] = values[0]; values[1] <= Die.MAX_DIE_VALUE; values[1]++){
+                for(values[2] = values[1]; values[2] <= Die.MAX_DIE_VALUE; values[2]++){
+                    for(values[3] = values[2]; values[3] <= Die.MAX_DIE_VALUE; values[3]++){
+                        for(values[4] = values[3]; values[4] <= Die.MAX_DIE_VALUE; values[4]++){
+                            for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+                                HAND_VALUES[hand * Yahtzee.NUM_DICE + die] = (byte) values[die];
+                            }
+                            hand++;
+                        }
+                    }
+                }
+            }
+        }
+
+        Yahtzee game = new Yahtzee(1);
+        for(hand = 0; hand < NUM_HANDS; hand++){
+            for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+                game.getDie(die).roll(getHandValue(hand, die));
+            }
+            for(int category = 0; category < NUM_CATEGORIES; category++){
+                SCORES[hand * NUM_CATEGORIES + category] = game.computeCategoryScore(category);
+            }
+        }
+
+        for(int roll = 0; roll < NUM_ROLLS; roll++){
+            int[] sorted = new int[Yahtzee.NUM_DICE];
+            int code = roll;
+            for(int die = Yahtzee.NUM_DICE - 1; die >= 0; die--){
+                sorted[die] = code % Die.MAX_DIE_VALUE + 1;
+                code /= Die.MAX_DIE_VALUE;
+            }
+            Arrays.sort(sorted);
+            HANDS[roll] = (short) findHand(sorted);
+        }
+    }
+
+    /**
+     * finds the hand with the given dice, by searching the table
+     * @param sorted the dice in ascending order
+     * @return the index of the hand
+     */
+    private static int findHand(int[] sorted){
+        for(int hand = 0; hand < NUM_HANDS; hand++){
+            boolean match = true;
+            for(int die = 0; die < Yahtzee.NUM_DICE && match; die++){
+                match = HAND_VALUES[hand * Yahtzee.NUM_DICE + die] == sorted[die];
+            }
+            if(match){
+                return hand;
+            }
+        }
+        throw new IllegalArgumentException("Not a hand: " + Arrays.toString(sorted));
+    }
+
+    /**
+     * encodes a roll of the dice
+     * @param values the value of each die, from one to six
+     * @return the encoded roll
+     */
+    public static int encode(int[] values){
+        int code = 0;
+        for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+            code = code * Die.MAX_DIE_VALUE + values[die] - 1;
+        }
+        return code;
+    }
+
+    /**
+     * gets the hand an encoded roll belongs to
+     * @param roll the encoded roll
+     * @return the index of the hand
+     */
+    public static int getHand(int roll){
+        return HANDS[roll];
+    }
+
+    /**
+     * gets one of the dice of a hand
+     * @param hand the index of the hand
+     * @param die the position of the die, the dice being in ascending order
+     * @return the value of the die
+     */
+    public static int getHandValue(int hand, int die){
+        return HAND_VALUES[hand * Yahtzee.NUM_DICE + die];
+    }
+
+    /**
+     * gets the points a hand is worth in a category
+     * @param hand the index of the hand
+     * @param category the index of the category, any but the yahtzee bonus
+     * @return the points, zero if the category would be scratched
+     */
+    public static int getScore(int hand, int category){
+        return SCORES[hand * NUM_CATEGORIES + category];
+    }
+}
@@ -0,0 +1,290 @@
+/**
+ * ScorecardStatistics.java
+ *
+ * This class collects statistics about finished scorecards, one player at
+ * a time, without keeping the players: the points and scratches of every
+ * category, how often the bonus and the yahtzee bonus are earned, and a
+ * histogram of the final scores. everything is kept in arrays of longs
+ * and a ScoreHistogram of a fixed size, so the memory used is the same after a hundred games
+ * as after a billion
+ *
+ * an instance is not safe to share between threads. each thread fills in
+ * its own and they are merged at the end
+ *
+ * @author Robert Kenney
+ */
+public class ScorecardStatistics {
+
+    /** the number of scorecards added */
+    private long players;
+
+    /** the number of scorecards scoring each category for points */
+    private long[] scoredCounts;
+
+    /** the number of scorecards scratching each category */
+    private long[] scratchedCounts;
+
+    /** the sum of the points scored in each category */
+    private long[] pointSums;
+
+    /** the sum of the squares of the points scored in each category */
+    private long[] pointSquareSums;
+
+    /** the number of scorecards earning the bonus */
+    private long bonuses;
+
+    /** the number of yahtzee bonuses taken over every scorecard */
+    private long yahtzeeBonuses;
+
+    /** the number of scorecards taking at least one yahtzee bonus */
+    private long yahtzeeBonusPlayers;
+
+    /** the sum of the final scores */
+    private long scoreSum;
+
+    /** the sum of the squares of the final scores */
+    private long scoreSquareSum;
+
+    /** the number of scorecards ending with each final score */
+    private ScoreHistogram histogram;
+
+    /**
+     * This is the constructor which initializes empty statistics
+    */
+    public ScorecardStatistics(){
+        scoredCounts = new long[Yahtzee.NUM_SCORING_CATEGORIES];
+        scratchedCounts = new long[Yahtzee.NUM_SCORING_CATEGORIES];
+        pointSums = new long[Yahtzee.NUM_SCORING_CATEGORIES];
+        pointSquareSums = new long[Yahtzee.NUM_SCORING_CATEGORIES];
+        histogram = new ScoreHistogram();
+    }
+
+    /**
+     * adds a finished scorecard
+     * @param player the player whose scorecard is added
+     */
+    public void add(Player player){
+        players++;
+        int scratched = player.getScratchedCategories();
+        int scored = player.getScoredCategories() & ~scratched;
+        for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
+            long points = player.getScoreValue(category);
+            scoredCounts[category] += (scored >>> category) & 1;
+            scratchedCounts[category] += (scratched >>> category) & 1;
+            pointSums[category] += points;
+            pointSquareSums[category] += points * points;
+        }
+        if(player.hasBonus()){
+            bonuses++;
+        }
+        int numYahtzeeBonuses = player.getScoreValue(Yahtzee.YAHTZEE_BONUS) / Yahtzee.YAHTZEE_BONUS_SCORE;
+        yahtzeeBonuses += numYahtzeeBonuses;
+        if(numYahtzeeBonuses > 0){
+            yahtzeeBonusPlayers++;
+        }
+        long score = player.getTotalScore();
+        scoreSum += score;
+        scoreSquareSum += score * score;
+        histogram.add(score);
+    }
+
+    /**
+     * adds every scorecard of a finished game
+     * @param game the finished game
+     */
+    public void add(Yahtzee game){
+        for(int player = 0; player < game.getNumPlayers(); player++){
+            add(game.getPlayer(player));
+        }
+    }
+
+    /**
+     * adds the scorecards of other statistics to these
+     * @param other the statistics to be added
+     */
+    public void merge(ScorecardStatistics other){
+        players += other.players;
+        for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
+            scoredCounts[category] += other.scoredCounts[category];
+            scratchedCounts[category] += other.scratchedCounts[category];
+            pointSums[category] += other.pointSums[category];
+            pointSquareSums[category] += other.pointSquareSums[category];
+        }
+        bonuses += other.bonuses;
+        yahtzeeBonuses += other.yahtzeeBonuses;
+        yahtzeeBonusPlayers += other.yahtzeeBonusPlayers;
+        scoreSum += other.scoreSum;
+        scoreSquareSum += other.scoreSquareSum;
+        histogram.merge(other.histogram);
+    }
+
+    /**
+     * gets the number of scorecards added
+     * @return the number of scorecards
+     */
+    public long getPlayers(){
+        return players;
+    }
+
+    /**
+     * gets the average points scored in a category, scratches counting as zero
+     * @param category the index of the category
+     * @return the mean points
+     */
+    public double getMean(int category){
+        return players == 0 ? 0 : (double) pointSums[category] / players;
+    }
+
+    /**
+     * gets the variance of the points scored in a category, scratches counting as zero
+     * @param category the index of the category
+     * @return the variance
+     */
+    public double getVariance(int category){
+        return variance(pointSums[category], pointSquareSums[category]);
+    }
+
+    /**
+     * gets the fraction of scorecards scoring a category for points
+     * @param category the index of the category
+     * @return the fraction, from 0 to 1
+     */
+    public double getScoredRate(int category){
+        return players == 0 ? 0 : (double) scoredCounts[category] / players;
+    }
+
+    /**
+     * gets the fraction of scorecards scratching a category
+     * @param category the index of the category
+     * @return the fraction, from 0 to 1
+     */
+    public double getScratchRate(int category){
+        return players == 0 ? 0 : (double) scratchedCounts[category] / players;
+    }
+
+    /**
+     * gets the number of scorecards scoring a category for points
+     * @param category the index of the category
+     * @return the number of scorecards
+     */
+    public long getScoredCount(int category){
+        return scoredCounts[category];
+    }
+
+    /**
+     * gets the number of scorecards scratching a category
+     * @param category the index of the category
+     * @return the number of scorecards
+     */
+    public long getScratchCount(int category){
+        return scratchedCounts[category];
+    }
+
+    /**
+     * gets the points scored in a category over every scorecard
+     * @param category the index of the category
+     * @return the sum of the points
+     */
+    public long getPointSum(int category){
+        return pointSums[category];
+    }
+
+    /**
+     * gets the number of yahtzee bonuses taken over every scorecard
+     * @return the number of yahtzee bonuses
+     */
+    public long getYahtzeeBonuses(){
+        return yahtzeeBonuses;
+    }
+
+    /**
+     * gets the fraction of scorecards earning the bonus
+     * @return the fraction, from 0 to 1
+     */
+    public double getBonusRate(){
+        return players == 0 ? 0 : (double) bonuses / players;
+    }
+
+    /**
+     * gets the average number of yahtzee bonuses taken on a scorecard
+     * @return the mean number of yahtzee bonuses
+     */
+    public double getYahtzeeBonusesPerPlayer(){
+        return players == 0 ? 0 : (double) yahtzeeBonuses / players;
+    }
+
+    /**
+     * gets the fraction of scorecards taking at least one yahtzee bonus
+     * @return the fraction, from 0 to 1
+     */
+    public double getYahtzeeBonusRate(){
+        return players == 0 ? 0 : (double) yahtzeeBonusPlayers / players;
+    }
+
+    /**
+     * gets the average final score
+     * @return the mean score
+     */
+    public double getMeanScore(){
+        return players == 0 ? 0 : (double) scoreSum / players;
+    }
+
+    /**
+     * gets the variance of the final scores
+     * @return the variance
+     */
+    public double getScoreVariance(){
+        return variance(scoreSum, scoreSquareSum);
+    }
+
+    /**
+     * gets the number of scorecards that ended with a final score
+     * @param score the score
+     * @return the number of scorecards
+     */
+    public long getCount(int score){
+        return histogram.getCount(score);
+    }
+
+    /**
+     * gets the score below which a fraction of the scorecards ended
+     * @param fraction the fraction, from 0 to 1
+     * @return the score
+     */
+    public int getPercentile(double fraction){
+        return histogram.getPercentile(fraction);
+    }
+
+    /**
+     * works out a variance from a sum and a sum of squares
+     * @param sum the sum of the values
+     * @param squareSum the sum of the squares of the values
+     * @return the variance of the values
+     */
+    private double variance(long sum, long squareSum){
+        if(players == 0){
+            return 0;
+        }
+        double mean = (double) sum / players;
+        return Math.max(0, (double) squareSum / players - mean * mean);
+    }
+
+    /**
+     * returns a table of the statistics, one line per category
+     * @return the table
+     */
+    public String toString(){
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-16s %8s %8s %8s %8s%n", "Category", "mean", "sd", "scored", "scratch"));
+        for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
+            table.append(String.format("%-16s %8.2f %8.2f %7.2f%% %7.2f%%%n", Yahtzee.SCORECARD_CATEGORIES[category],
+                    getMean(category), Math.sqrt(getVariance(category)),
+                    100 * getScoredRate(category), 100 * getScratchRate(category)));
+        }
+        table.append(String.format("bonus %.2f%%, yahtzee bonus %.2f%% (%.4f per player)%n",
+                100 * getBonusRate(), 100 * getYahtzeeBonusRate(), getYahtzeeBonusesPerPlayer()));
+        table.append(String.format("final score mean %.2f, sd %.2f, 1st %d, median %d, 99th %d",
+                getMeanScore(), Math.sqrt(getScoreVariance()), getPercentile(0.01), getPercentile(0.5), getPercentile(0.99)));
+        return table.toString();
+    }
+}
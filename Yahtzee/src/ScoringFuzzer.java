@@ -0,0 +1,385 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * ScoringFuzzer.java
+ *
+ * This class checks that every faster way of scoring agrees with the
+ * scoring in the Yahtzee class, quirks and all, such as canFullHouse()
+ * only looking at the first two different values and
+ * getNumConcecutiveValues() counting steps of one across repeated dice.
+ * the dice are rolled in every order, all 7776 of them, or at random, and
+ * each roll is scored by computeCategoryScore(), which asks the canXxx()
+ * methods, and by every HandScorer, for a player with and without a
+ * yahtzee. every category is then scored for real through scoreCategory()
+ * for every numeric subtotal up to the bonus, or one at random when the
+ * rolls are random, checking the points, the scratch and the change in
+ * getTotalScore()
+ *
+ * the hands are checked in blocks of BatchScorer.BLOCK_SIZE on every core,
+ * each thread with a game of its own, and any disagreement is kept to be
+ * printed with the dice and category it was found with
+ *
+ * @author Robert Kenney
+ */
+public class ScoringFuzzer {
+
+    /** the number of different ordered rolls of the dice */
+    public static final int NUM_ROLLS = ScoreTable.NUM_ROLLS;
+
+    /** the most disagreements kept to be printed */
+    public static final int MAX_REPORTED = 20;
+
+    /** the categories scratched rather than scored for nothing when the dice are worth nothing in them */
+    private static final int SCRATCHED_FOR_NOTHING = 1 << Yahtzee.THREE_OF_A_KIND | 1 << Yahtzee.FOUR_OF_A_KIND
+            | 1 << Yahtzee.FULL_HOUSE | 1 << Yahtzee.SMALL_STRAIGHT | 1 << Yahtzee.LARGE_STRAIGHT | 1 << Yahtzee.YAHTZEE;
+
+    /** the scorers checked, by name */
+    private Map<String, HandScorer> scorers;
+
+    /** the number of scores compared */
+    private AtomicLong checks;
+
+    /** the number of disagreements found */
+    private AtomicLong mismatches;
+
+    /** the first disagreements found, described one to a line */
+    private List<String> reported;
+
+    /**
+     * This is the constructor which sets up a fuzzer
+     * @param scorers the scorers to check against the Yahtzee class, by name
+    */
+    public ScoringFuzzer(Map<String, HandScorer> scorers){
+        this.scorers = new LinkedHashMap<String, HandScorer>(scorers);
+        checks = new AtomicLong();
+        mismatches = new AtomicLong();
+        reported = Collections.synchronizedList(new ArrayList<String>());
+    }
+
+    /**
+     * gets the scorers that come with the game: the score table, the
+     * rule table of the standard rules and the batch scorer
+     * @return the scorers, by name
+     */
+    public static Map<String, HandScorer> getBuiltInScorers(){
+        Map<String, HandScorer> builtIn = new LinkedHashMap<String, HandScorer>();
+        builtIn.put("ScoreTable", new HandScorer(){
+            public void score(byte[][] dice, boolean hasYahtzee, int[][] scores, int numHands){
+                int[] values = new int[Yahtzee.NUM_DICE];
+                for(int i = 0; i < numHands; i++){
+                    for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+                        values[die] = dice[die][i];
+                    }
+                    int hand = ScoreTable.getHand(ScoreTable.encode(values));
+                    for(int category = 0; category < ScoreTable.NUM_CATEGORIES; category++){
+                        scores[category][i] = ScoreTable.getScore(hand, category);
+                    }
+                }
+                scoreBonus(hasYahtzee, scores, numHands);
+            }
+        });
+        builtIn.put("RuleTable", new HandScorer(){
+            public void score(byte[][] dice, boolean hasYahtzee, int[][] scores, int numHands){
+                RuleTable table = RuleSet.STANDARD.getTable();
+                int[] values = new int[Yahtzee.NUM_DICE];
+                for(int i = 0; i < numHands; i++){
+                    for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+                        values[die] = dice[die][i];
+                    }
+                    int hand = table.getHand(table.encode(values));
+                    for(int category = 0; category < ScoreTable.NUM_CATEGORIES; category++){
+                        scores[category][i] = table.getScore(hand, category);
+                    }
+                }
+                scoreBonus(hasYahtzee, scores, numHands);
+            }
+        });
+        builtIn.put("BatchScorer", new HandScorer(){
+            public void score(byte[][] dice, boolean hasYahtzee, int[][] scores, int numHands){
+                BatchScorer.score(dice, scores, numHands);
+                scoreBonus(hasYahtzee, scores, numHands);
+            }
+        });
+        return builtIn;
+    }
+
+    /**
+     * scores the yahtzee bonus from the yahtzee scores, for scorers that only score the dice
+     * @param hasYahtzee whether the player has already scored a yahtzee
+     * @param scores the scores, with the yahtzees already scored
+     * @param numHands the number of hands
+     */
+    public static void scoreBonus(boolean hasYahtzee, int[][] scores, int numHands){
+        for(int i = 0; i < numHands; i++){
+            boolean bonus = hasYahtzee && scores[Yahtzee.YAHTZEE][i] > 0;
+            scores[Yahtzee.YAHTZEE_BONUS][i] = bonus ? Yahtzee.YAHTZEE_BONUS_SCORE : 0;
+        }
+    }
+
+    /**
+     * checks every ordered roll of the dice
+     * @param parallelism the number of threads to check on
+     */
+    public void checkAllRolls(int parallelism){
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for(int first = 0; first < NUM_ROLLS; first += BatchScorer.BLOCK_SIZE){
+            final int from = first;
+            final int to = Math.min(NUM_ROLLS, first + BatchScorer.BLOCK_SIZE);
+            tasks.add(new Callable<Void>(){
+                public Void call(){
+                    byte[][] dice = new byte[Yahtzee.NUM_DICE][to - from];
+                    for(int roll = from; roll < to; roll++){
+                        int code = roll;
+                        for(int die = Yahtzee.NUM_DICE - 1; die >= 0; die--){
+                            dice[die][roll - from] = (byte) (code % Die.MAX_DIE_VALUE + 1);
+                            code /= Die.MAX_DIE_VALUE;
+                        }
+                    }
+                    checkBlock(dice, to - from, null);
+                    return null;
+                }
+            });
+        }
+        run(tasks, parallelism);
+    }
+
+    /**
+     * checks rolls of the dice at random
+     * @param numRolls the number of rolls to check
+     * @param seed the seed of the random numbers
+     * @param parallelism the number of threads to check on
+     */
+    public void checkRandomRolls(long numRolls, long seed, int parallelism){
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for(long first = 0; first < numRolls; first += BatchScorer.BLOCK_SIZE){
+            final int count = (int) Math.min(BatchScorer.BLOCK_SIZE, numRolls - first);
+            final SplittableRandom random = seeds.split();
+            tasks.add(new Callable<Void>(){
+                public Void call(){
+                    byte[][] dice = new byte[Yahtzee.NUM_DICE][count];
+                    for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+                        for(int i = 0; i < count; i++){
+                            dice[die][i] = (byte) (random.nextInt(Die.MAX_DIE_VALUE) + 1);
+                        }
+                    }
+                    checkBlock(dice, count, random);
+                    return null;
+                }
+            });
+        }
+        run(tasks, parallelism);
+    }
+
+    /**
+     * runs checks on a pool of threads and waits for them to finish
+     * @param tasks the checks
+     * @param parallelism the number of threads
+     */
+    private void run(List<Callable<Void>> tasks, int parallelism){
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            for(Future<Void> future : pool.invokeAll(tasks)){
+                future.get();
+            }
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The checks were interrupted", e);
+        } catch(ExecutionException e){
+            throw new IllegalStateException("A check failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * checks a block of rolls, with and without a yahtzee already scored
+     * @param dice the value of each die of each roll, dice[die][roll]
+     * @param numRolls the number of rolls
+     * @param random picks one numeric subtotal to score each category with, or null to score with all of them
+     */
+    private void checkBlock(byte[][] dice, int numRolls, SplittableRandom random){
+        Yahtzee game = new Yahtzee(1, 0L);
+        Player player = game.getCurrentPlayer();
+        int[][] expected = new int[Yahtzee.NUM_SCORING_CATEGORIES][numRolls];
+        int[][] actual = new int[Yahtzee.NUM_SCORING_CATEGORIES][numRolls];
+        for(int yahtzee = 0; yahtzee < 2; yahtzee++){
+            boolean hasYahtzee = yahtzee == 1;
+            for(int i = 0; i < numRolls; i++){
+                setDice(game, dice, i);
+                player.restore(0, 0, hasYahtzee, false, 1, false);
+                for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
+                    expected[category][i] = game.computeCategoryScore(category);
+                }
+                checkScoring(game, dice, i, hasYahtzee, expected, random);
+            }
+            for(Map.Entry<String, HandScorer> scorer : scorers.entrySet()){
+                scorer.getValue().score(dice, hasYahtzee, actual, numRolls);
+                for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
+                    for(int i = 0; i < numRolls; i++){
+                        if(actual[category][i] != expected[category][i]){
+                            report(scorer.getKey(), dice, i, hasYahtzee, category, expected[category][i], actual[category][i]);
+                        }
+                    }
+                }
+                checks.addAndGet((long) Yahtzee.NUM_SCORING_CATEGORIES * numRolls);
+            }
+        }
+    }
+
+    /**
+     * scores a roll in every category for real, for every numeric subtotal
+     * up to the bonus or one picked at random, and checks the points, the
+     * scratch and the total
+     * @param game the game, with the dice of the roll
+     * @param dice the dice of the block
+     * @param roll the index of the roll in the block
+     * @param hasYahtzee whether the player has already scored a yahtzee
+     * @param expected the points of each roll in each category from computeCategoryScore()
+     * @param random picks the subtotal, or null to score with every subtotal
+     */
+    private void checkScoring(Yahtzee game, byte[][] dice, int roll, boolean hasYahtzee, int[][] expected, SplittableRandom random){
+        Player player = game.getCurrentPlayer();
+        for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
+            int points = expected[category][roll];
+            int other = category == 0 ? 1 : 0;
+            int lowest = 0;
+            int highest = Yahtzee.POINTS_NEEDED_FOR_BONUS;
+            if(random != null){
+                lowest = random.nextInt(Yahtzee.POINTS_NEEDED_FOR_BONUS + 1);
+                highest = lowest;
+            }
+            for(int upper = lowest; upper <= highest; upper++){
+                player.restore(0, 0, hasYahtzee, false, 1, false);
+                player.restoreScore(other, upper);
+                int before = player.getTotalScore();
+                game.scoreCategory(category);
+                int change = points;
+                if(category < Die.MAX_DIE_VALUE && upper < Yahtzee.POINTS_NEEDED_FOR_BONUS
+                        && upper + points >= Yahtzee.POINTS_NEEDED_FOR_BONUS){
+                    change += Yahtzee.BONUS;
+                }
+                if(player.getTotalScore() - before != change){
+                    report("getTotalScore() with subtotal " + upper, dice, roll, hasYahtzee, category, change, player.getTotalScore() - before);
+                }
+                if(player.getScoreValue(category) != points){
+                    report("scoreCategory()", dice, roll, hasYahtzee, category, points, player.getScoreValue(category));
+                }
+                boolean scratch = points == 0 && (SCRATCHED_FOR_NOTHING & (1 << category)) != 0;
+                if(category != Yahtzee.YAHTZEE_BONUS && player.isCategoryScratched(category) != scratch){
+                    report("scratching", dice, roll, hasYahtzee, category, scratch ? 1 : 0, scratch ? 0 : 1);
+                }
+            }
+            checks.addAndGet(3L * (highest - lowest + 1));
+        }
+    }
+
+    /**
+     * sets the dice of the game to one roll of a block
+     * @param game the game
+     * @param dice the dice of the block
+     * @param roll the index of the roll in the block
+     */
+    private static void setDice(Yahtzee game, byte[][] dice, int roll){
+        for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+            game.getDie(die).roll(dice[die][roll]);
+        }
+    }
+
+    /**
+     * counts a disagreement, keeping a description of the first few
+     * @param source what disagreed with the Yahtzee class
+     * @param dice the dice of the block
+     * @param roll the index of the roll in the block
+     * @param hasYahtzee whether the player had already scored a yahtzee
+     * @param category the index of the category
+     * @param expected the value from the Yahtzee class
+     * @param actual the value found instead
+     */
+    private void report(String source, byte[][] dice, int roll, boolean hasYahtzee, int category, int expected, int actual){
+        if(mismatches.incrementAndGet() <= MAX_REPORTED){
+            String values = "";
+            for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+                values += dice[die][roll];
+            }
+            reported.add(source + ": dice " + values + (hasYahtzee ? " after a yahtzee" : "") + ", "
+                    + Yahtzee.SCORECARD_CATEGORIES[category] + " expected " + expected + " but got " + actual);
+        }
+    }
+
+    /**
+     * gets the number of scores compared
+     * @return the number of checks
+     */
+    public long getChecks(){
+        return checks.get();
+    }
+
+    /**
+     * gets the number of disagreements found
+     * @return the number of mismatches
+     */
+    public long getMismatches(){
+        return mismatches.get();
+    }
+
+    /**
+     * gets the first disagreements found
+     * @return a description of each, at most MAX_REPORTED of them
+     */
+    public List<String> getReported(){
+        synchronized(reported){
+            return new ArrayList<String>(reported);
+        }
+    }
+
+    /**
+     * This is the main method, which checks every ordered roll, or random
+     * rolls, against the Yahtzee class and exits with status 1 on any disagreement
+     * @param args Command line arguments, optionally "random", the number of rolls and the seed,
+     * followed by the class names of any more HandScorers to check
+     * @throws ReflectiveOperationException if a scorer cannot be made
+     */
+    public static void main(String[] args) throws ReflectiveOperationException {
+        int next = 0;
+        long numRandom = 0;
+        long seed = System.nanoTime();
+        if(args.length > 1 && args[0].equals("random")){
+            numRandom = Long.parseLong(args[1]);
+            next = 2;
+            if(args.length > 2 && args[2].matches("-?\\d+")){
+                seed = Long.parseLong(args[2]);
+                next = 3;
+            }
+        }
+        Map<String, HandScorer> scorers = getBuiltInScorers();
+        for(int i = next; i < args.length; i++){
+            scorers.put(args[i], (HandScorer) Class.forName(args[i]).getDeclaredConstructor().newInstance());
+        }
+
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        ScoringFuzzer fuzzer = new ScoringFuzzer(scorers);
+        long start = System.nanoTime();
+        long rolls;
+        if(numRandom > 0){
+            fuzzer.checkRandomRolls(numRandom, seed, parallelism);
+            rolls = numRandom;
+        } else {
+            fuzzer.checkAllRolls(parallelism);
+            rolls = NUM_ROLLS;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%d rolls against %s on %d threads in %.2f s (%.0f rolls/s, %.0f checks/s)%n",
+                rolls, scorers.keySet(), parallelism, elapsed / 1e9, rolls * 1e9 / elapsed, fuzzer.getChecks() * 1e9 / elapsed);
+        for(String mismatch : fuzzer.getReported()){
+            System.out.println(mismatch);
+        }
+        System.out.println(fuzzer.getMismatches() + " mismatches in " + fuzzer.getChecks() + " checks");
+        if(fuzzer.getMismatches() > 0){
+            System.exit(1);
+        }
+    }
+}
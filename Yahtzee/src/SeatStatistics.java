@@ -0,0 +1,149 @@
+import java.util.concurrent.atomic.*;
+
+/**
+ * SeatStatistics.java
+ *
+ * This class collects the final scores of one seat in a tournament. many
+ * threads add to it at once, so the totals are LongAdders, which spread
+ * their updates over separate cells. each thread counts its scores in a
+ * ScoreHistogram of its own, which is merged into the seat's histogram
+ * under its lock at the end of the batch, so the lock is taken once for
+ * every batch of games rather than once a game
+ *
+ * @author Robert Kenney
+ */
+public class SeatStatistics {
+
+    /** the name of the strategy in the seat */
+    private String name;
+
+    /** the number of games played */
+    private LongAdder games;
+
+    /** the number of games won, shared wins included */
+    private LongAdder wins;
+
+    /** the sum of the final scores */
+    private LongAdder scoreSum;
+
+    /** the sum of the squares of the final scores */
+    private LongAdder scoreSquareSum;
+
+    /** the number of games ending with each score */
+    private ScoreHistogram histogram;
+
+    /**
+     * This is the constructor which initializes empty statistics
+     * @param name the name of the strategy in the seat
+    */
+    public SeatStatistics(String name){
+        this.name = name;
+        games = new LongAdder();
+        wins = new LongAdder();
+        scoreSum = new LongAdder();
+        scoreSquareSum = new LongAdder();
+        histogram = new ScoreHistogram();
+    }
+
+    /**
+     * adds a batch of games played by one thread
+     * @param numGames the number of games in the batch
+     * @param numWins the number of those games won
+     * @param scores the final scores of the games in the batch
+     */
+    public void add(long numGames, long numWins, ScoreHistogram scores){
+        games.add(numGames);
+        wins.add(numWins);
+        long sum = 0;
+        long squareSum = 0;
+        for(int score = 0; score <= ScoreHistogram.MAX_SCORE; score++){
+            long count = scores.getCount(score);
+            sum += count * score;
+            squareSum += count * score * score;
+        }
+        synchronized(histogram){
+            histogram.merge(scores);
+        }
+        scoreSum.add(sum);
+        scoreSquareSum.add(squareSum);
+    }
+
+    /**
+     * gets the name of the strategy in the seat
+     * @return the name
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * gets the number of games played
+     * @return the number of games
+     */
+    public long getGames(){
+        return games.sum();
+    }
+
+    /**
+     * gets the fraction of games won, a shared win counting as a win
+     * @return the win rate
+     */
+    public double getWinRate(){
+        long played = games.sum();
+        return played == 0 ? 0 : (double) wins.sum() / played;
+    }
+
+    /**
+     * gets the average final score
+     * @return the mean score
+     */
+    public double getMean(){
+        long played = games.sum();
+        return played == 0 ? 0 : (double) scoreSum.sum() / played;
+    }
+
+    /**
+     * gets the standard deviation of the final scores
+     * @return the standard deviation
+     */
+    public double getStandardDeviation(){
+        long played = games.sum();
+        if(played == 0){
+            return 0;
+        }
+        double mean = getMean();
+        return Math.sqrt(Math.max(0, (double) scoreSquareSum.sum() / played - mean * mean));
+    }
+
+    /**
+     * gets the score below which a fraction of the games ended
+     * @param fraction the fraction, from 0 to 1
+     * @return the score
+     */
+    public int getPercentile(double fraction){
+        synchronized(histogram){
+            return histogram.getPercentile(fraction);
+        }
+    }
+
+    /**
+     * gets the number of games that ended with a score
+     * @param score the score
+     * @return the number of games
+     */
+    public long getCount(int score){
+        synchronized(histogram){
+            return histogram.getCount(score);
+        }
+    }
+
+    /**
+     * returns a one line summary of the seat
+     * @return the summary
+     */
+    public String toString(){
+        return String.format("%-20s games %d, wins %.2f%%, mean %.2f, sd %.2f, median %d, 99th %d",
+                name, getGames(), 100 * getWinRate(), getMean(), getStandardDeviation(),
+                getPercentile(0.5), getPercentile(0.99));
+    }
+}
@@ -0,0 +1,283 @@
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * ServerConnection.java
+ *
+ * This class serves one player connected to a GameServer, reading their
+ * commands a line at a time and passing them on to their room. a line is
+ * read a character at a time up to MAX_LINE_LENGTH, so a player who never
+ * sends a line break cannot make the server hold more than that. lines for
+ * the player are queued by whichever thread changed the game, under the
+ * room's lock, and flush only wakes the connection's own writer, a task on
+ * the server's executor that writes every queued line. only one writer
+ * runs for a connection at a time, and no other thread ever writes to its
+ * socket, so a player who stops reading only holds up their own writer.
+ * a player who falls MAX_QUEUED_LINES behind is disconnected
+ *
+ * @author Robert Kenney
+ */
+public class ServerConnection implements Runnable {
+
+    /** the longest line read from a client, longer lines close the connection */
+    public static final int MAX_LINE_LENGTH = 256;
+
+    /** the most lines waiting to be written to a player before they are disconnected */
+    public static final int MAX_QUEUED_LINES = 1 << 16;
+
+    /** the number of commands read from every client */
+    private static final LongAdder COMMANDS = Metrics.counter("server.commands");
+
+    /** the server the player connected to */
+    private GameServer server;
+
+    /** the socket of the connection */
+    private Socket socket;
+
+    /** the lines waiting to be written to the player */
+    private Queue<String> outbox;
+
+    /** the number of lines in the outbox */
+    private AtomicInteger queued;
+
+    /** the stream the lines are written to, only by the writer */
+    private Writer out;
+
+    /** the executor the writer runs on */
+    private Executor executor;
+
+    /** whether the writer has been given to the executor and not finished yet */
+    private AtomicBoolean writing;
+
+    /** the task writing the queued lines */
+    private Runnable writer;
+
+    /** whether the connection has been closed */
+    private volatile boolean closed;
+
+    /** the room the player is in, or null if they have not joined one */
+    private GameRoom room;
+
+    /** the seat the player has in their room */
+    private int seat;
+
+    /**
+     * This is the constructor which initializes a connection
+     * @param server the server the player connected to
+     * @param socket the socket of the connection
+     * @throws IOException if the socket's stream cannot be opened
+    */
+    public ServerConnection(GameServer server, Socket socket) throws IOException {
+        this.server = server;
+        this.socket = socket;
+        outbox = new ConcurrentLinkedQueue<String>();
+        queued = new AtomicInteger();
+        out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+        executor = server.getExecutor();
+        writing = new AtomicBoolean();
+        writer = new Runnable(){
+            public void run(){
+                write();
+            }
+        };
+        closed = false;
+        room = null;
+        seat = -1;
+    }
+
+    /**
+     * reads and carries out commands until the player quits or the connection is lost
+     */
+    public void run(){
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            StringBuilder buffer = new StringBuilder(MAX_LINE_LENGTH + 1);
+            String line;
+            while((line = readLine(in, buffer)) != null){
+                String[] words = line.trim().split(" +");
+                String command = words[0].toUpperCase();
+                if(command.equals("QUIT")){
+                    break;
+                }
+                handle(command, words);
+                flush();
+                if(room != null){
+                    room.flush();
+                }
+            }
+        } catch(IOException e){
+            // the player is gone, so there is no one left to tell
+        } finally {
+            leave();
+            close();
+            server.removeClient(this);
+        }
+    }
+
+    /**
+     * reads one line, holding no more than MAX_LINE_LENGTH characters and
+     * the carriage return of a line ending in one, so a line without a break
+     * never grows any further
+     * @param in the stream the line is read from
+     * @param buffer the builder the line is read into, emptied first
+     * @return the line without its line break, or null if the stream ended or the line is too long
+     * @throws IOException if the line cannot be read
+     */
+    private static String readLine(Reader in, StringBuilder buffer) throws IOException {
+        buffer.setLength(0);
+        int c;
+        while((c = in.read()) != '\n'){
+            if(c < 0){
+                if(buffer.length() == 0){
+                    return null;
+                }
+                break;
+            }
+            if(buffer.length() > MAX_LINE_LENGTH){
+                return null;
+            }
+            buffer.append((char) c);
+        }
+        int length = buffer.length();
+        if(length > 0 && buffer.charAt(length - 1) == '\r'){
+            buffer.setLength(--length);
+        }
+        return length <= MAX_LINE_LENGTH ? buffer.toString() : null;
+    }
+
+    /**
+     * carries out one command, joining a room or passing it on to the room joined
+     * @param command the command, in upper case
+     * @param words the words of the line, the command first
+     */
+    private void handle(String command, String[] words){
+        Metrics.increment(COMMANDS);
+        if(command.equals("METRICS")){
+            for(String line : Metrics.getLines()){
+                send("METRIC " + line);
+            }
+        } else if(command.equals("JOIN")){
+            if(room != null && !room.isOver()){
+                send("ERROR already in room " + room.getName());
+                return;
+            }
+            int numPlayers;
+            try {
+                numPlayers = words.length > 2 ? Integer.parseInt(words[2]) : 1;
+            } catch(NumberFormatException e){
+                send("ERROR the number of players must be a number");
+                return;
+            }
+            if(words.length < 2 || numPlayers < 1 || numPlayers > GameRoom.MAX_PLAYERS){
+                send("ERROR JOIN needs a room and from 1 to " + GameRoom.MAX_PLAYERS + " players");
+                return;
+            }
+            leave();
+            GameRoom joined;
+            int joinedSeat;
+            do {
+                joined = server.getRoom(words[1], numPlayers);
+                joinedSeat = joined.join(this);
+            } while(joinedSeat < 0 && joined.isClosed());
+            if(joinedSeat < 0){
+                send("ERROR room " + words[1] + " is full");
+                return;
+            }
+            room = joined;
+            seat = joinedSeat;
+        } else if(room == null){
+            send("ERROR join a room first");
+        } else {
+            room.command(seat, command, words);
+        }
+    }
+
+    /**
+     * leaves the room the player is in, if any, and tells the rest of the room
+     */
+    private void leave(){
+        if(room != null){
+            GameRoom left = room;
+            room = null;
+            left.leave(seat);
+            left.flush();
+        }
+    }
+
+    /**
+     * queues a line to be written to the player once the writer is woken by
+     * flush. if the player already has MAX_QUEUED_LINES waiting, they are
+     * not reading them, and the connection is closed instead
+     * @param line the line, without the line break
+     */
+    public void send(String line){
+        if(closed){
+            return;
+        }
+        if(queued.incrementAndGet() > MAX_QUEUED_LINES){
+            close();
+            return;
+        }
+        outbox.add(line);
+    }
+
+    /**
+     * wakes the writer to write every queued line to the player, unless it
+     * is already awake. this never writes to the socket itself, so it can
+     * be called for any player from any thread without waiting on them
+     */
+    public void flush(){
+        if(writing.compareAndSet(false, true)){
+            try {
+                executor.execute(writer);
+            } catch(RejectedExecutionException e){
+                writing.set(false);
+                close();
+            }
+        }
+    }
+
+    /**
+     * writes every queued line to the player, and wakes the writer again if
+     * more lines came in. if the player cannot be written to, the connection
+     * is closed and its thread sees it end
+     */
+    private void write(){
+        try {
+            String line;
+            boolean written = false;
+            while((line = outbox.poll()) != null){
+                queued.decrementAndGet();
+                out.write(line);
+                out.write('\n');
+                written = true;
+            }
+            if(written){
+                out.flush();
+            }
+        } catch(IOException e){
+            close();
+        }
+        writing.set(false);
+        if(!outbox.isEmpty()){
+            flush();
+        }
+    }
+
+    /**
+     * closes the connection, dropping the lines waiting to be written
+     */
+    public void close(){
+        closed = true;
+        outbox.clear();
+        try {
+            socket.close();
+        } catch(IOException e){
+            // it is closed either way
+        }
+    }
+}
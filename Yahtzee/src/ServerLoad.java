@@ -0,0 +1,305 @@
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * ServerLoad.java
+ *
+ * This class fills a GameServer on localhost with rooms and plays a whole
+ * game in every one of them at once, each player on a connection and a
+ * thread of its own, to check that the server keeps every room going. a
+ * player rolls twice on each turn, holding the first die, and scores the
+ * first category they have not scored yet. the time taken and the commands
+ * answered each second are printed, and a room whose game did not end
+ * with an OVER line is counted as failed
+ *
+ * some of the rooms can be given a stalled player, who joins second, asks
+ * for the state of the game over and over and never reads the answers.
+ * the first player in the room must still be able to play their whole
+ * turn, since no player should ever wait on another player's connection
+ *
+ * @author Robert Kenney
+ */
+public class ServerLoad {
+
+    /** the number of rooms played in if none is given */
+    public static final int DEFAULT_ROOMS = 2000;
+
+    /** the number of STATE commands a stalled player sends without reading the answers */
+    public static final int STALL_COMMANDS = 500000;
+
+    /** how long a stalled player is given to fill up their connection before the room plays on */
+    public static final int STALL_MILLIS = 10000;
+
+    /** the receive buffer of a stalled player, small so their connection fills up quickly */
+    public static final int STALLED_BUFFER_BYTES = 4096;
+
+    /** how long a player waits for a line before the room is counted as failed */
+    public static final int TIMEOUT_MILLIS = 30000;
+
+    /** the port of the server */
+    private int port;
+
+    /** the number of commands answered */
+    private LongAdder commands;
+
+    /**
+     * This is the constructor which initializes a harness for a server
+     * @param port the port of the server on localhost
+    */
+    public ServerLoad(int port){
+        this.port = port;
+        commands = new LongAdder();
+    }
+
+    /**
+     * This class is one player's connection to the server
+     */
+    private class Client implements Closeable {
+
+        /** the socket of the connection */
+        private Socket socket;
+
+        /** the lines from the server */
+        private BufferedReader in;
+
+        /** the stream the commands are written to */
+        private Writer out;
+
+        /**
+         * This is the constructor which connects to the server
+         * @param receiveBuffer the size of the socket's receive buffer, or zero for the default
+         * @throws IOException if the server cannot be connected to
+        */
+        private Client(int receiveBuffer) throws IOException {
+            socket = new Socket();
+            if(receiveBuffer > 0){
+                socket.setReceiveBufferSize(receiveBuffer);
+            }
+            socket.connect(new InetSocketAddress("localhost", port));
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+        }
+
+        /**
+         * sends a command
+         * @param command the command, without the line break
+         * @throws IOException if the command cannot be written
+         */
+        private void send(String command) throws IOException {
+            out.write(command);
+            out.write('\n');
+            out.flush();
+        }
+
+        /**
+         * reads lines until one starts a certain way
+         * @param prefix how the line starts
+         * @return the line
+         * @throws IOException if the server sends an error, the connection ends or no line comes in time
+         */
+        private String expect(String prefix) throws IOException {
+            String line;
+            while((line = in.readLine()) != null){
+                if(line.startsWith("ERROR")){
+                    throw new IOException(line);
+                }
+                if(line.startsWith(prefix)){
+                    return line;
+                }
+            }
+            throw new EOFException("The server closed the connection waiting for " + prefix);
+        }
+
+        /**
+         * sends a command and reads lines until the answer to it
+         * @param command the command
+         * @param answer how the answer starts
+         * @return the answer
+         * @throws IOException if the command cannot be carried out
+         */
+        private String command(String command, String answer) throws IOException {
+            send(command);
+            String line = expect(answer);
+            commands.increment();
+            return line;
+        }
+
+        /**
+         * plays one turn, scoring the first category not scored yet
+         * @param seat the player's seat
+         * @param scored the categories scored so far, marked as this one is scored
+         * @throws IOException if a command cannot be carried out
+         */
+        private void playTurn(int seat, boolean[] scored) throws IOException {
+            command("ROLL", "ROLL " + seat);
+            command("HOLD 0", "HOLD " + seat);
+            command("ROLL", "ROLL " + seat);
+            int category = 0;
+            while(scored[category]){
+                category++;
+            }
+            scored[category] = true;
+            command("SCORE " + category, "S");
+        }
+
+        /**
+         * closes the connection
+         */
+        public void close(){
+            try {
+                socket.close();
+            } catch(IOException e){
+                // it is closed either way
+            }
+        }
+    }
+
+    /**
+     * plays a whole game in a room, as one of its players
+     * @param room the name of the room
+     * @param numPlayers the number of players in the room
+     * @return the OVER line ending the game
+     * @throws IOException if the game cannot be played
+     */
+    public String play(String room, int numPlayers) throws IOException {
+        Client client = new Client(0);
+        try {
+            int seat = Integer.parseInt(client.command("JOIN " + room + " " + numPlayers, "SEAT").split(" ")[1]);
+            boolean[] scored = new boolean[ScoreTable.NUM_CATEGORIES];
+            String line;
+            while((line = client.expect("")) != null){
+                if(line.startsWith("OVER")){
+                    client.send("QUIT");
+                    return line;
+                }
+                if(line.equals("TURN " + seat)){
+                    client.playTurn(seat, scored);
+                    if(!scored[ScoreTable.NUM_CATEGORIES - 1] || seat < numPlayers - 1){
+                        client.send("NEXT");
+                    }
+                }
+            }
+            return line;
+        } finally {
+            client.close();
+        }
+    }
+
+    /**
+     * plays the first turn of a two player room whose second player stalls
+     * @param room the name of the room
+     * @param stallers the threads the stalled player writes on
+     * @return true if the first player played their turn and passed it on
+     * @throws IOException if the room cannot be joined
+     */
+    public boolean playStalled(String room, ExecutorService stallers) throws IOException {
+        Client player = new Client(0);
+        final Client stalled = new Client(STALLED_BUFFER_BYTES);
+        try {
+            player.command("JOIN " + room + " 2", "SEAT 0");
+            stalled.send("JOIN " + room + " 2");
+            player.expect("TURN 0");
+            stallers.execute(new Runnable(){
+                public void run(){
+                    try {
+                        for(int command = 0; command < STALL_COMMANDS; command++){
+                            stalled.out.write("STATE\n");
+                        }
+                        stalled.out.flush();
+                    } catch(IOException e){
+                        // the server closed the stalled player, or the room is done with them
+                    }
+                }
+            });
+            Thread.sleep(STALL_MILLIS);
+            player.playTurn(0, new boolean[ScoreTable.NUM_CATEGORIES]);
+            player.command("NEXT", "TURN 1");
+            return true;
+        } catch(IOException e){
+            return false;
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            player.close();
+            stalled.close();
+        }
+    }
+
+    /**
+     * This is the main method, which starts a server and plays in its rooms until every game is over
+     * @param args Command line arguments, the number of rooms, the number of players in each and the number of rooms with a stalled player
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        final int numRooms = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROOMS;
+        final int numPlayers = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int numStalled = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        GameServer server = new GameServer(0);
+        server.start();
+        final ServerLoad load = new ServerLoad(server.getPort());
+        ExecutorService players = Executors.newFixedThreadPool(numRooms * numPlayers + numStalled);
+        final ExecutorService stallers = Executors.newCachedThreadPool();
+        try {
+            long start = System.nanoTime();
+            List<Future<String>> games = new ArrayList<Future<String>>();
+            for(int room = 0; room < numRooms; room++){
+                final String name = "room" + room;
+                for(int player = 0; player < numPlayers; player++){
+                    games.add(players.submit(new Callable<String>(){
+                        public String call() throws IOException {
+                            return load.play(name, numPlayers);
+                        }
+                    }));
+                }
+            }
+            List<Future<Boolean>> stalledRooms = new ArrayList<Future<Boolean>>();
+            for(int room = 0; room < numStalled; room++){
+                final String name = "stalled" + room;
+                stalledRooms.add(players.submit(new Callable<Boolean>(){
+                    public Boolean call() throws IOException {
+                        return load.playStalled(name, stallers);
+                    }
+                }));
+            }
+
+            int failed = 0;
+            for(Future<String> game : games){
+                try {
+                    if(game.get() == null){
+                        failed++;
+                    }
+                } catch(ExecutionException e){
+                    failed++;
+                }
+            }
+            int playedOn = 0;
+            for(Future<Boolean> room : stalledRooms){
+                try {
+                    playedOn += room.get() ? 1 : 0;
+                } catch(ExecutionException e){
+                    // the room was not played on
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d rooms of %d players in %.2f s, %d players failed, %.0f commands/s%n", numRooms, numPlayers,
+                    seconds, failed, load.commands.sum() / seconds);
+            if(numStalled > 0){
+                System.out.println(playedOn + " of " + numStalled + " rooms with a stalled player played on");
+            }
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the games", e);
+        } finally {
+            players.shutdownNow();
+            stallers.shutdownNow();
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * SimulationResult.java
+ *
+ * This class holds the totals from a batch of simulated games
+ *
+ * @author Robert Kenney
+ */
+public class SimulationResult {
+
+    /** the number of games played */
+    private long games;
+
+    /** the number of final scores, one for each player in each game */
+    private long numScores;
+
+    /** the sum of the final scores of every player in every game */
+    private long totalScore;
+
+    /** the lowest final score seen */
+    private int minScore;
+
+    /** the highest final score seen */
+    private int maxScore;
+
+    /** the time the games took to play, in nanoseconds */
+    private long elapsedNanos;
+
+    /** the statistics of every scorecard */
+    private ScorecardStatistics statistics;
+
+    /**
+     * This is the constructor which initializes an empty result
+    */
+    public SimulationResult(){
+        games = 0;
+        numScores = 0;
+        totalScore = 0;
+        minScore = Integer.MAX_VALUE;
+        maxScore = Integer.MIN_VALUE;
+        elapsedNanos = 0;
+        statistics = new ScorecardStatistics();
+    }
+
+    /**
+     * adds a finished game to the result
+     * @param game the finished game
+     */
+    public void addGame(Yahtzee game){
+        games++;
+        for(int player = 0; player < game.getNumPlayers(); player++){
+            int score = game.getPlayer(player).getTotalScore();
+            numScores++;
+            totalScore += score;
+            minScore = Math.min(minScore, score);
+            maxScore = Math.max(maxScore, score);
+        }
+        statistics.add(game);
+    }
+
+    /**
+     * adds the games of another result to this one
+     * @param other the result to be added
+     */
+    public void merge(SimulationResult other){
+        games += other.games;
+        numScores += other.numScores;
+        totalScore += other.totalScore;
+        minScore = Math.min(minScore, other.minScore);
+        maxScore = Math.max(maxScore, other.maxScore);
+        statistics.merge(other.statistics);
+    }
+
+    /**
+     * sets the time the games took to play
+     * @param elapsedNanos the elapsed time in nanoseconds
+     */
+    public void setElapsedNanos(long elapsedNanos){
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * gets the number of games played
+     * @return the number of games
+     */
+    public long getGames(){
+        return games;
+    }
+
+    /**
+     * gets the sum of every final score
+     * @return the total score
+     */
+    public long getTotalScore(){
+        return totalScore;
+    }
+
+    /**
+     * gets the average final score of a player
+     * @return the average score
+     */
+    public double getAverageScore(){
+        if(numScores == 0){
+            return 0;
+        }
+        return (double) totalScore / numScores;
+    }
+
+    /**
+     * gets the lowest final score
+     * @return the lowest score
+     */
+    public int getMinScore(){
+        return minScore;
+    }
+
+    /**
+     * gets the highest final score
+     * @return the highest score
+     */
+    public int getMaxScore(){
+        return maxScore;
+    }
+
+    /**
+     * gets the statistics of every scorecard in the games
+     * @return the statistics
+     */
+    public ScorecardStatistics getStatistics(){
+        return statistics;
+    }
+
+    /**
+     * gets the time the games took to play
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos(){
+        return elapsedNanos;
+    }
+
+    /**
+     * gets the number of games played per second
+     * @return the games per second
+     */
+    public double getGamesPerSecond(){
+        if(elapsedNanos == 0){
+            return 0;
+        }
+        return games * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * returns a one line summary of the result
+     * @return the summary
+     */
+    public String toString(){
+        return String.format("%d games in %.2f s (%.0f games/s), scores avg %.2f min %d max %d",
+                games, elapsedNanos / 1e9, getGamesPerSecond(), getAverageScore(), minScore, maxScore);
+    }
+}
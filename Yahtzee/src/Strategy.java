@@ -0,0 +1,31 @@
+/**
+ * Strategy.java
+ *
+ * This interface defines the decisions a computer player makes on its turn,
+ * which dice to hold between rolls and which category to score
+ *
+ * Strategies are shared between the threads of a simulation, so an
+ * implementation should not keep any state between calls
+ *
+ * @author Robert Kenney
+ */
+public interface Strategy {
+
+    /** the hold mask for holding every die, which ends the rolling for the turn */
+    public static final int HOLD_ALL = (1 << Yahtzee.NUM_DICE) - 1;
+
+    /**
+     * chooses which dice to hold before the next roll
+     * @param game the game, with the dice as they were last rolled
+     * @return a mask where bit i is set if die i is to be held
+     */
+    public int chooseHolds(Yahtzee game);
+
+    /**
+     * chooses the category to score for the current player. this is
+     * called again after a yahtzee bonus, when the chosen category will be scratched
+     * @param game the game, with the dice as they were last rolled
+     * @return the index of an unscored category, or the yahtzee bonus
+     */
+    public int chooseCategory(Yahtzee game);
+}
@@ -0,0 +1,171 @@
+import java.util.concurrent.*;
+
+/**
+ * Tournament.java
+ *
+ * This class plays a large number of multi player games, each seat of the
+ * table played by its own strategy, and collects the scores and wins of
+ * each seat. the games are split in half over and over by a fork/join pool
+ * until the pieces are small enough to play on one thread, so idle threads
+ * steal work from busy ones and every core stays busy to the end
+ *
+ * game i is seeded with seed + i, so a tournament gives the same results
+ * however many threads it is played on
+ *
+ * @author Robert Kenney
+ */
+public class Tournament {
+
+    /** the number of games a thread plays without splitting them up any further */
+    public static final int GAMES_PER_TASK = 256;
+
+    /** the number of games played when none are given on the command line */
+    public static final int DEFAULT_NUM_GAMES = 100000;
+
+    /** the strategy in each seat */
+    private Strategy[] seats;
+
+    /** the statistics of each seat */
+    private SeatStatistics[] statistics;
+
+    /** the seed of the first game */
+    private long seed;
+
+    /**
+     * This is the constructor which sets up a tournament
+     * @param seats the strategy in each seat, which must not keep any state between calls
+     * @param seed the seed of the first game
+    */
+    public Tournament(Strategy[] seats, long seed){
+        this.seats = seats.clone();
+        this.seed = seed;
+        statistics = new SeatStatistics[seats.length];
+        for(int seat = 0; seat < seats.length; seat++){
+            statistics[seat] = new SeatStatistics("Seat " + (seat + 1) + " " + seats[seat].getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * plays games of the tournament
+     * @param numGames the number of games to play
+     * @param parallelism the number of threads to play them on
+     * @return the time the games took in nanoseconds
+     */
+    public long play(long numGames, int parallelism){
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long start = System.nanoTime();
+        try {
+            pool.invoke(new TournamentTask(0, numGames));
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        seed += numGames;
+        return elapsed;
+    }
+
+    /**
+     * gets the statistics of a seat
+     * @param seat the index of the seat
+     * @return the statistics
+     */
+    public SeatStatistics getStatistics(int seat){
+        return statistics[seat];
+    }
+
+    /**
+     * gets the number of seats at the table
+     * @return the number of seats
+     */
+    public int getNumSeats(){
+        return seats.length;
+    }
+
+    /**
+     * This class is a piece of the tournament, a range of games,
+     * which either splits itself in two or plays its games
+     */
+    private class TournamentTask extends RecursiveAction {
+
+        /** the first game of the range */
+        private long first;
+
+        /** the game after the last game of the range */
+        private long end;
+
+        /**
+         * This is the constructor which initializes a task
+         * @param first the first game of the range
+         * @param end the game after the last game of the range
+        */
+        public TournamentTask(long first, long end){
+            this.first = first;
+            this.end = end;
+        }
+
+        /**
+         * splits the range in two, or plays it if it is small enough
+         */
+        protected void compute(){
+            if(end - first > GAMES_PER_TASK){
+                long middle = (first + end) >>> 1;
+                invokeAll(new TournamentTask(first, middle), new TournamentTask(middle, end));
+                return;
+            }
+
+            long[] wins = new long[seats.length];
+            ScoreHistogram[] scores = new ScoreHistogram[seats.length];
+            for(int seat = 0; seat < seats.length; seat++){
+                scores[seat] = new ScoreHistogram();
+            }
+            for(long game = first; game < end; game++){
+                Yahtzee yahtzee = new Yahtzee(seats.length, seed + game);
+                YahtzeeSimulator.playGame(yahtzee, seats);
+                int best = Integer.MIN_VALUE;
+                for(int seat = 0; seat < seats.length; seat++){
+                    best = Math.max(best, yahtzee.getPlayer(seat).getTotalScore());
+                }
+                for(int seat = 0; seat < seats.length; seat++){
+                    int score = yahtzee.getPlayer(seat).getTotalScore();
+                    scores[seat].add(score);
+                    if(score == best){
+                        wins[seat]++;
+                    }
+                }
+            }
+            for(int seat = 0; seat < seats.length; seat++){
+                statistics[seat].add(end - first, wins[seat], scores[seat]);
+            }
+        }
+    }
+
+    /**
+     * This is the main method, which plays a tournament and prints the results
+     * @param args Command line arguments, the number of games followed by the strategy in each seat, see Bots.create()
+     * @throws ReflectiveOperationException if a strategy cannot be made
+     */
+    public static void main(String[] args) throws ReflectiveOperationException {
+        long numGames = DEFAULT_NUM_GAMES;
+        if(args.length > 0){
+            numGames = Long.parseLong(args[0]);
+        }
+        Strategy[] seats;
+        if(args.length > 1){
+            seats = new Strategy[args.length - 1];
+            for(int seat = 0; seat < seats.length; seat++){
+                seats[seat] = Bots.create(args[seat + 1]);
+            }
+        } else {
+            seats = new Strategy[] {new GreedyStrategy(), new GreedyStrategy()};
+        }
+
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        Tournament tournament = new Tournament(seats, System.nanoTime());
+        long elapsed = tournament.play(numGames, parallelism);
+        System.out.printf("%d games on %d threads in %.2f s (%.0f games/s)%n",
+                numGames, parallelism, elapsed / 1e9, numGames * 1e9 / elapsed);
+        for(int seat = 0; seat < tournament.getNumSeats(); seat++){
+            System.out.println(tournament.getStatistics(seat));
+        }
+    }
+}
@@ -0,0 +1,201 @@
+import java.util.concurrent.atomic.*;
+
+/**
+ * TranspositionCache.java
+ *
+ * This class remembers the values an EndgameSearch has worked out, so a
+ * scorecard reached by scoring the same points in a different order is
+ * only searched once. each value is kept under a packed state and the
+ * context it was worked out in, since the same scorecard is worth
+ * different amounts against different opponents
+ *
+ * the cache is a fixed table of primitive arrays, with no objects per
+ * value. a key can only go in one set of WAYS slots, found from its hash,
+ * and when the set is full the slot used least recently is given up, so
+ * the cache never grows past its capacity. the sets are split between
+ * stripes, each with its own lock, so any number of threads can search
+ * at once
+ *
+ * @author Robert Kenney
+ */
+public class TranspositionCache {
+
+    /** the number of slots in a set */
+    public static final int WAYS = 4;
+
+    /** the number of stripes, a power of two */
+    public static final int NUM_STRIPES = 64;
+
+    /** the number of sets, a power of two */
+    private int numSets;
+
+    /** the state in each slot */
+    private long[] states;
+
+    /** the context in each slot */
+    private long[] contexts;
+
+    /** the value in each slot */
+    private float[] values;
+
+    /** when each slot was last used, counted in uses of its stripe, zero for an empty slot */
+    private long[] used;
+
+    /** the number of uses of each stripe so far */
+    private long[] clocks;
+
+    /** the lock of each stripe */
+    private Object[] locks;
+
+    /** the number of values found */
+    private LongAdder hits;
+
+    /** the number of values looked for and not found */
+    private LongAdder misses;
+
+    /**
+     * This is the constructor which initializes an empty cache
+     * @param capacity the most values to hold, rounded up to a power of two of at least WAYS * NUM_STRIPES
+    */
+    public TranspositionCache(int capacity){
+        numSets = Integer.highestOneBit(Math.max(capacity / WAYS, NUM_STRIPES) - 1) << 1;
+        states = new long[numSets * WAYS];
+        contexts = new long[numSets * WAYS];
+        values = new float[numSets * WAYS];
+        used = new long[numSets * WAYS];
+        clocks = new long[NUM_STRIPES];
+        locks = new Object[NUM_STRIPES];
+        for(int stripe = 0; stripe < NUM_STRIPES; stripe++){
+            locks[stripe] = new Object();
+        }
+        hits = new LongAdder();
+        misses = new LongAdder();
+    }
+
+    /**
+     * gets the set a key belongs to
+     * @param state the packed state
+     * @param context the context
+     * @return the index of the set
+     */
+    private int getSet(long state, long context){
+        long hash = (state ^ context * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        return (int) (hash ^ (hash >>> 31)) & (numSets - 1);
+    }
+
+    /**
+     * gets a value
+     * @param state the packed state
+     * @param context what the value depends on besides the state
+     * @return the value, or NaN if it is not in the cache
+     */
+    public float get(long state, long context){
+        int set = getSet(state, context);
+        int stripe = set & (NUM_STRIPES - 1);
+        synchronized(locks[stripe]){
+            for(int slot = set * WAYS; slot < (set + 1) * WAYS; slot++){
+                if(used[slot] != 0 && states[slot] == state && contexts[slot] == context){
+                    used[slot] = ++clocks[stripe];
+                    hits.increment();
+                    return values[slot];
+                }
+            }
+        }
+        misses.increment();
+        return Float.NaN;
+    }
+
+    /**
+     * keeps a value, giving up the least recently used value of its set if the set is full
+     * @param state the packed state
+     * @param context what the value depends on besides the state
+     * @param value the value
+     */
+    public void put(long state, long context, float value){
+        int set = getSet(state, context);
+        int stripe = set & (NUM_STRIPES - 1);
+        synchronized(locks[stripe]){
+            int oldest = set * WAYS;
+            for(int slot = set * WAYS; slot < (set + 1) * WAYS; slot++){
+                if(used[slot] != 0 && states[slot] == state && contexts[slot] == context){
+                    oldest = slot;
+                    break;
+                }
+                if(used[slot] < used[oldest]){
+                    oldest = slot;
+                }
+            }
+            states[oldest] = state;
+            contexts[oldest] = context;
+            values[oldest] = value;
+            used[oldest] = ++clocks[stripe];
+        }
+    }
+
+    /**
+     * gets the most values the cache holds
+     * @return the number of slots
+     */
+    public int getCapacity(){
+        return numSets * WAYS;
+    }
+
+    /**
+     * gets the number of values held
+     * @return the number of slots in use
+     */
+    public int getSize(){
+        int size = 0;
+        for(int stripe = 0; stripe < NUM_STRIPES; stripe++){
+            synchronized(locks[stripe]){
+                for(int set = stripe; set < numSets; set += NUM_STRIPES){
+                    for(int slot = set * WAYS; slot < (set + 1) * WAYS; slot++){
+                        if(used[slot] != 0){
+                            size++;
+                        }
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * gets the number of times a value was found
+     * @return the number of hits
+     */
+    public long getHits(){
+        return hits.sum();
+    }
+
+    /**
+     * gets the number of times a value was not found
+     * @return the number of misses
+     */
+    public long getMisses(){
+        return misses.sum();
+    }
+
+    /**
+     * drops every value
+     */
+    public void clear(){
+        for(int stripe = 0; stripe < NUM_STRIPES; stripe++){
+            synchronized(locks[stripe]){
+                for(int set = stripe; set < numSets; set += NUM_STRIPES){
+                    for(int slot = set * WAYS; slot < (set + 1) * WAYS; slot++){
+                        used[slot] = 0;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * describes the cache
+     * @return the number of values held, the capacity, hits and misses
+     */
+    public String toString(){
+        return "size=" + getSize() + " capacity=" + getCapacity() + " hits=" + getHits() + " misses=" + getMisses();
+    }
+}
@@ -0,0 +1,251 @@
+/**
+ * TurnEvaluator.java
+ *
+ * This class works out how much every hand and every keep is worth over
+ * the course of one turn, given a player's scorecard and the expected
+ * value of every scorecard they could move on to
+ *
+ * the work is done backwards from the end of the turn: first the best
+ * category for each final hand, then the average over the dice that could
+ * be rolled for each keep, then the best keep for each hand, and so on
+ * back to the first roll. an evaluator reuses its arrays, so it should
+ * only be used by one thread at a time
+ *
+ * @author Robert Kenney
+ */
+public class TurnEvaluator {
+
+    /** the expected value of the scorecards a player moves on to, or null to only count this turn's points */
+    private ExpectedValueTable table;
+
+    /** the value of each hand with 0, 1 and 2 rolls left in the turn */
+    private float[][] handValues;
+
+    /** the value of each keep with 1, 2 and 3 rolls left, including the roll about to be made */
+    private float[][] keepValues;
+
+    /** the value of scoring each numeric category with each count of dice */
+    private float[][] numericValues;
+
+    /** the value of scoring each other category, scratched and for points */
+    private float[][] categoryValues;
+
+    /** the best category for each final hand, the yahtzee bonus if it should be taken */
+    private int[] bestCategories;
+
+    /** the mask of scored categories being evaluated */
+    private int scored;
+
+    /** the category to scratch after taking a yahtzee bonus */
+    private int bonusScratch;
+
+    /** the value of taking a yahtzee bonus, or negative infinity if one cannot be taken */
+    private float bonusValue;
+
+    /**
+     * This is the constructor which initializes an evaluator
+     * @param table the expected values of the scorecards after this turn, or null
+     * to value hands only by the points they score this turn
+    */
+    public TurnEvaluator(ExpectedValueTable table){
+        this.table = table;
+        handValues = new float[Yahtzee.ROLLS_PER_TURN][ScoreTable.NUM_HANDS];
+        keepValues = new float[Yahtzee.ROLLS_PER_TURN + 1][KeepTable.NUM_KEEPS];
+        numericValues = new float[Die.MAX_DIE_VALUE][Yahtzee.NUM_DICE + 1];
+        categoryValues = new float[ScoreTable.NUM_CATEGORIES][2];
+        bestCategories = new int[ScoreTable.NUM_HANDS];
+    }
+
+    /**
+     * evaluates a turn for a player
+     * @param player the player whose turn it is
+     * @return the points the player can expect to score from the start of this turn on
+     */
+    public float evaluate(Player player){
+        return evaluate(player.getScoredCategories(), player.getTopScore(), player.hasYahtzee());
+    }
+
+    /**
+     * evaluates a turn for a scorecard
+     * @param scored the mask of scored categories
+     * @param upper the numeric subtotal
+     * @param yahtzee whether a yahtzee has been scored for points
+     * @return the points the player can expect to score from the start of this turn on
+     */
+    public float evaluate(int scored, int upper, boolean yahtzee){
+        this.scored = scored;
+        if(upper > Yahtzee.POINTS_NEEDED_FOR_BONUS){
+            upper = Yahtzee.POINTS_NEEDED_FOR_BONUS;
+        }
+        evaluateCategories(upper, yahtzee);
+        evaluateFinalHands();
+        for(int rollsLeft = 1; rollsLeft <= Yahtzee.ROLLS_PER_TURN; rollsLeft++){
+            float[] keeps = keepValues[rollsLeft];
+            float[] hands = handValues[rollsLeft - 1];
+            for(int keep = 0; keep < KeepTable.NUM_KEEPS; keep++){
+                if(KeepTable.getSize(keep) == Yahtzee.NUM_DICE){
+                    keeps[keep] = hands[KeepTable.getHand(keep)];
+                } else {
+                    float sum = 0;
+                    for(int value = 1; value <= Die.MAX_DIE_VALUE; value++){
+                        sum += keeps[KeepTable.add(keep, value)];
+                    }
+                    keeps[keep] = sum / Die.MAX_DIE_VALUE;
+                }
+            }
+            if(rollsLeft < Yahtzee.ROLLS_PER_TURN){
+                float[] next = handValues[rollsLeft];
+                for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+                    float best = Float.NEGATIVE_INFINITY;
+                    for(int sub = KeepTable.getSubKeepStart(hand); sub < KeepTable.getSubKeepEnd(hand); sub++){
+                        best = Math.max(best, keeps[KeepTable.getSubKeep(sub)]);
+                    }
+                    next[hand] = best;
+                }
+            }
+        }
+        return keepValues[Yahtzee.ROLLS_PER_TURN][KeepTable.EMPTY_KEEP];
+    }
+
+    /**
+     * works out what scoring each category is worth, counting the points
+     * now, any bonus they earn and the expected value of the scorecard after
+     * @param upper the numeric subtotal
+     * @param yahtzee whether a yahtzee has been scored for points
+     */
+    private void evaluateCategories(int upper, boolean yahtzee){
+        bonusValue = Float.NEGATIVE_INFINITY;
+        bonusScratch = -1;
+        for(int category = 0; category < ScoreTable.NUM_CATEGORIES; category++){
+            if((scored & (1 << category)) != 0){
+                continue;
+            }
+            int next = scored | (1 << category);
+            if(category < Die.MAX_DIE_VALUE){
+                for(int count = 0; count <= Yahtzee.NUM_DICE; count++){
+                    int points = count * (category + 1);
+                    int nextUpper = upper + points;
+                    if(upper < Yahtzee.POINTS_NEEDED_FOR_BONUS && nextUpper >= Yahtzee.POINTS_NEEDED_FOR_BONUS){
+                        points += Yahtzee.BONUS;
+                    }
+                    numericValues[category][count] = points + future(next, nextUpper, yahtzee);
+                }
+            } else {
+                categoryValues[category][0] = future(next, upper, yahtzee);
+                categoryValues[category][1] = future(next, upper, yahtzee || category == Yahtzee.YAHTZEE);
+            }
+            if(yahtzee){
+                float scratched = Yahtzee.YAHTZEE_BONUS_SCORE + future(next, upper, yahtzee);
+                if(scratched > bonusValue){
+                    bonusValue = scratched;
+                    bonusScratch = category;
+                }
+            }
+        }
+    }
+
+    /**
+     * gets the expected value of the scorecard a player moves on to
+     * @param scored the mask of scored categories
+     * @param upper the numeric subtotal
+     * @param yahtzee whether a yahtzee has been scored for points
+     * @return the expected points still to come, zero if there is no table
+     */
+    private float future(int scored, int upper, boolean yahtzee){
+        if(table == null){
+            return 0;
+        }
+        return table.get(scored, upper, yahtzee);
+    }
+
+    /**
+     * works out the best category for each hand at the end of the turn
+     */
+    private void evaluateFinalHands(){
+        float[] values = handValues[0];
+        for(int hand = 0; hand < ScoreTable.NUM_HANDS; hand++){
+            float best = Float.NEGATIVE_INFINITY;
+            int bestCategory = -1;
+            for(int category = 0; category < ScoreTable.NUM_CATEGORIES; category++){
+                if((scored & (1 << category)) != 0){
+                    continue;
+                }
+                int points = ScoreTable.getScore(hand, category);
+                float value;
+                if(category < Die.MAX_DIE_VALUE){
+                    value = numericValues[category][points / (category + 1)];
+                } else if(points > 0){
+                    value = points + categoryValues[category][1];
+                } else {
+                    value = categoryValues[category][0];
+                }
+                if(value > best){
+                    best = value;
+                    bestCategory = category;
+                }
+            }
+            if(bonusValue > best && ScoreTable.getScore(hand, Yahtzee.YAHTZEE) > 0){
+                best = bonusValue;
+                bestCategory = Yahtzee.YAHTZEE_BONUS;
+            }
+            values[hand] = best;
+            bestCategories[hand] = bestCategory;
+        }
+    }
+
+    /**
+     * gets the value of a hand, the points it is expected to lead to from now on
+     * @param rollsLeft the number of rolls left in the turn
+     * @param hand the index of the hand
+     * @return the value of the hand
+     */
+    public float getHandValue(int rollsLeft, int hand){
+        return handValues[rollsLeft][hand];
+    }
+
+    /**
+     * gets the value of holding a keep and rolling the rest of the dice
+     * @param rollsLeft the number of rolls left in the turn, including this one
+     * @param keep the index of the keep
+     * @return the value of the keep
+     */
+    public float getKeepValue(int rollsLeft, int keep){
+        return keepValues[rollsLeft][keep];
+    }
+
+    /**
+     * gets the best keep to hold from a hand before rolling again
+     * @param rollsLeft the number of rolls left in the turn, including the next one
+     * @param hand the index of the hand
+     * @return the index of the best keep, the whole hand if the player should stop rolling
+     */
+    public int getBestKeep(int rollsLeft, int hand){
+        float best = Float.NEGATIVE_INFINITY;
+        int bestKeep = KeepTable.getFullKeep(hand);
+        for(int sub = KeepTable.getSubKeepStart(hand); sub < KeepTable.getSubKeepEnd(hand); sub++){
+            int keep = KeepTable.getSubKeep(sub);
+            if(keepValues[rollsLeft][keep] > best){
+                best = keepValues[rollsLeft][keep];
+                bestKeep = keep;
+            }
+        }
+        return bestKeep;
+    }
+
+    /**
+     * gets the best category for a hand at the end of the turn
+     * @param hand the index of the hand
+     * @return the index of the category, the yahtzee bonus if it should be taken
+     */
+    public int getBestCategory(int hand){
+        return bestCategories[hand];
+    }
+
+    /**
+     * gets the category to give up after taking a yahtzee bonus
+     * @return the index of the category to scratch
+     */
+    public int getBonusScratch(){
+        return bonusScratch;
+    }
+}
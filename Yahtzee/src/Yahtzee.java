@@ -1,3 +1,5 @@
+import java.util.*;
+
 /**
  * Yahtzee.java
  * 
@@ -80,14 +82,42 @@ public class Yahtzee {
     /** a list containing the dice to be played with */
     private Die[] dice;
 
+    /** the random number generator all of the dice roll with */
+    private SplittableRandom random;
+
+    /** the listeners told about changes to the game */
+    private GameListener[] listeners;
+
     /**
      * This is the constructor which initializes the game
-     * and its instance variables.
+     * with unpredictable dice rolls.
      * @param numPlayers the number of players in the game
     */
     public Yahtzee(int numPlayers){
+        this(numPlayers, new SplittableRandom());
+    }
+
+    /**
+     * This is the constructor which initializes the game
+     * so that the same seed always produces the same dice rolls.
+     * @param numPlayers the number of players in the game
+     * @param seed the seed for the dice rolls
+    */
+    public Yahtzee(int numPlayers, long seed){
+        this(numPlayers, new SplittableRandom(seed));
+    }
+
+    /**
+     * This is the constructor which initializes the game
+     * and its instance variables.
+     * @param numPlayers the number of players in the game
+     * @param random the random number generator for the dice, which should not be shared with another thread
+    */
+    public Yahtzee(int numPlayers, SplittableRandom random){
         //set num players to the parameterized variable
         this.numPlayers = numPlayers;
+        this.random = random;
+        listeners = new GameListener[0];
 
         //initialize the player list and set the current player to player 1
         players = new Player[numPlayers];
@@ -100,7 +130,7 @@ public class Yahtzee {
         //initialize the dice
         dice = new Die[NUM_DICE];
         for(int die = 0; die < NUM_DICE; die++){
-            dice[die] = new Die();
+            dice[die] = new Die(random);
         }
 
     }
@@ -114,6 +144,51 @@ public class Yahtzee {
         return dice[die];
     }
 
+    /**
+     * adds a listener to be told about changes to the game
+     * @param listener the listener
+    */
+    public void addListener(GameListener listener){
+        GameListener[] added = Arrays.copyOf(listeners, listeners.length + 1);
+        added[listeners.length] = listener;
+        listeners = added;
+    }
+
+    /**
+     * removes a listener from the game
+     * @param listener the listener
+    */
+    public void removeListener(GameListener listener){
+        for(int i = 0; i < listeners.length; i++){
+            if(listeners[i] == listener){
+                GameListener[] removed = new GameListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, removed, 0, i);
+                System.arraycopy(listeners, i + 1, removed, i, listeners.length - i - 1);
+                listeners = removed;
+                return;
+            }
+        }
+    }
+
+    /**
+     * tells the listeners a category was selected
+     * @param category the category
+     * @param scratch whether the category was scratched
+    */
+    private void fireCategoryScored(int category, boolean scratch){
+        for(GameListener listener : listeners){
+            listener.categoryScored(this, category, scratch);
+        }
+    }
+
+    /**
+     * returns the random number generator the dice roll with
+     * @return the random number generator
+    */
+    public SplittableRandom getRandom(){
+        return random;
+    }
+
     /**
      * returns the current player
      * @return the current player
@@ -151,6 +226,7 @@ public class Yahtzee {
      * changes the current player and resets the dice
     */
     public void nextTurn(){
+        long start = Metrics.start();
         if(currentPlayer.hasSelectedScoreThisTurn()){
             if(currentPlayerID + 1 < numPlayers){
                 currentPlayerID++;
@@ -162,9 +238,46 @@ public class Yahtzee {
             for(int die = 0; die < NUM_DICE; die++){
                 dice[die].reset();
             }
+            for(GameListener listener : listeners){
+                listener.turnChanged(this);
+            }
         }
+        Metrics.NEXT_TURN.recordSince(start);
     }
     
+    /**
+     * packs the whole game into an array, see PackedGameState,
+     * so it can be restored later without making any objects
+     * @param state the array to pack into, at least PackedGameState.getLength(getNumPlayers()) long
+     * @return the array
+    */
+    public long[] snapshot(long[] state){
+        state[0] = PackedGameState.packTurn(this);
+        for(int player = 0; player < numPlayers; player++){
+            state[player + 1] = PackedGameState.packPlayer(players[player]);
+        }
+        return state;
+    }
+
+    /**
+     * sets the whole game back to a packed state from snapshot.
+     * the listeners are told the game was restored, so they show the whole game again
+     * @param state the packed game, with the same number of players as this game
+    */
+    public void restore(long[] state){
+        for(int player = 0; player < numPlayers; player++){
+            PackedGameState.restorePlayer(state[player + 1], players[player]);
+        }
+        for(int die = 0; die < NUM_DICE; die++){
+            PackedGameState.restoreDie(state[0], die, dice[die]);
+        }
+        currentPlayerID = PackedGameState.getCurrentPlayer(state[0]);
+        currentPlayer = players[currentPlayerID];
+        for(GameListener listener : listeners){
+            listener.gameRestored(this);
+        }
+    }
+
     /**
      * checks to see if all players have finished playing
      * @return true if all players are finished, false otherwise
@@ -182,6 +295,7 @@ public class Yahtzee {
      * rolls all of the dice, if the player is not out of rolls
     */
     public void rollDice(){
+        long start = Metrics.start();
         if(currentPlayer.canRoll()){
             for(int die = 0; die < NUM_DICE; die++){
                 if(!dice[die].isHeld()){
@@ -190,6 +304,42 @@ public class Yahtzee {
             }
         }
         currentPlayer.rollDice();
+        for(GameListener listener : listeners){
+            listener.diceRolled(this);
+        }
+        Metrics.ROLL_DICE.recordSince(start);
+    }
+
+    /**
+     * rolls all of the dice to known values, as when replaying a recorded
+     * game, if the player is not out of rolls. held dice keep their values
+     * @param roll the encoded roll the dice land on, see ScoreTable
+    */
+    public void rollDice(int roll){
+        if(currentPlayer.canRoll()){
+            for(int die = NUM_DICE - 1; die >= 0; die--){
+                if(!dice[die].isHeld()){
+                    dice[die].roll(roll % Die.MAX_DIE_VALUE + 1);
+                }
+                roll /= Die.MAX_DIE_VALUE;
+            }
+        }
+        currentPlayer.rollDice();
+        for(GameListener listener : listeners){
+            listener.diceRolled(this);
+        }
+    }
+
+    /**
+     * holds or lets go of a die. changing the die through this method
+     * rather than through the die itself lets the listeners know
+     * @param die the index of the die
+    */
+    public void toggleHeld(int die){
+        dice[die].toggleHeld();
+        for(GameListener listener : listeners){
+            listener.dieHeldToggled(this, die);
+        }
     }
 
     /**
@@ -253,7 +403,10 @@ public class Yahtzee {
      * @param category the die number to be scored
     */
     public void scoreNumeric(int category){
-        currentPlayer.setScore(category, Integer.toString(getNumSameValueDice(category + 1) * (category + 1)));
+        long start = Metrics.start();
+        currentPlayer.setScore(category, getCategoryScore(category));
+        fireCategoryScored(category, false);
+        Metrics.SCORE_CATEGORY[category].recordSince(start);
     }
 
     /**
@@ -261,90 +414,204 @@ public class Yahtzee {
      * @param category the category to be scratched
     */
     public void scratch(int category){
-        currentPlayer.setScore(category, "scratched");
+        currentPlayer.scratch(category);
+        fireCategoryScored(category, true);
     }
 
     /**
      * updates the score of a three of a kind for the current player
     */
     public void scoreThreeOfAKind(){
-        if(canThreeOfAKind()){
-            currentPlayer.setScore(THREE_OF_A_KIND, Integer.toString(getSumAllDice()));
-        } else {
-            currentPlayer.scratch(THREE_OF_A_KIND);
-        }
+        scoreOrScratch(THREE_OF_A_KIND);
     }
 
     /**
      * updates the score of a four of a kind for the current player
     */
     public void scoreFourOfAKind(){
-        if(canFourOfAKind()){
-            currentPlayer.setScore(FOUR_OF_A_KIND, Integer.toString(getSumAllDice()));
-        } else {
-            currentPlayer.scratch(FOUR_OF_A_KIND);
-        }
+        scoreOrScratch(FOUR_OF_A_KIND);
     }
 
     /**
      * updates the score of a full house for the current player
     */
     public void scoreFullHouse(){
-        if(canFullHouse()){
-            currentPlayer.setScore(FULL_HOUSE, Integer.toString(FULL_HOUSE_SCORE));
-        } else {
-            currentPlayer.scratch(FULL_HOUSE);
-        }
+        scoreOrScratch(FULL_HOUSE);
     }
 
     /**
      * updates the score of a small straight for the current player
     */
     public void scoreSmallStraight(){
-        if(canSmallStraight()){
-            currentPlayer.setScore(SMALL_STRAIGHT, Integer.toString(SMALL_STRAIGHT_SCORE));
-        } else {
-            currentPlayer.scratch(SMALL_STRAIGHT);
-        }
+        scoreOrScratch(SMALL_STRAIGHT);
     }
 
     /**
      * updates the score of a large straight for the current player
     */
     public void scoreLargeStraight(){
-        if(canLargeStraight()){
-            currentPlayer.setScore(LARGE_STRAIGHT, Integer.toString(LARGE_STRAIGHT_SCORE));
-        } else {
-            currentPlayer.scratch(LARGE_STRAIGHT);
-        }
+        scoreOrScratch(LARGE_STRAIGHT);
     }
 
     /**
      * updates the score of chance for the current player
     */
     public void scoreChance(){
-        currentPlayer.setScore(CHANCE, Integer.toString(getSumAllDice()));
+        long start = Metrics.start();
+        currentPlayer.setScore(CHANCE, getCategoryScore(CHANCE));
+        fireCategoryScored(CHANCE, false);
+        Metrics.SCORE_CATEGORY[CHANCE].recordSince(start);
     }
 
     /**
      * updates the score of yahtzee for the current player
     */
     public void scoreYahtzee(){
-        if(canYahtzee()){
-            currentPlayer.setScore(YAHTZEE, Integer.toString(YAHTZEE_SCORE));
+        long start = Metrics.start();
+        if(getCategoryScore(YAHTZEE) > 0){
+            currentPlayer.setScore(YAHTZEE, YAHTZEE_SCORE);
             currentPlayer.yahtzee();
         } else {
             currentPlayer.scratch(YAHTZEE);
         }
+        fireCategoryScored(YAHTZEE, false);
+        Metrics.SCORE_CATEGORY[YAHTZEE].recordSince(start);
+    }
+
+    /**
+     * scores a category for the current player if the dice
+     * are worth any points in it, scratching it otherwise
+     * @param category the category to be scored
+    */
+    private void scoreOrScratch(int category){
+        long start = Metrics.start();
+        int score = getCategoryScore(category);
+        if(score > 0){
+            currentPlayer.setScore(category, score);
+        } else {
+            currentPlayer.scratch(category);
+        }
+        fireCategoryScored(category, false);
+        Metrics.SCORE_CATEGORY[category].recordSince(start);
     }
 
     /**
      * updates the score of yahtzee bonus for the current player
     */
     public void scoreYahtzeeBonus(){
+        long start = Metrics.start();
         if(canYahtzeeBonus()){
             currentPlayer.yahtzeeBonus();
         }
+        fireCategoryScored(YAHTZEE_BONUS, false);
+        Metrics.SCORE_CATEGORY[YAHTZEE_BONUS].recordSince(start);
+    }
+
+    /**
+     * scores a category for the current player, based off of its index,
+     * using the same method the gui would call for that category
+     * @param category the index of the category to be scored
+    */
+    public void scoreCategory(int category){
+        switch(category){
+            case THREE_OF_A_KIND:
+                scoreThreeOfAKind();
+                break;
+            case FOUR_OF_A_KIND:
+                scoreFourOfAKind();
+                break;
+            case FULL_HOUSE:
+                scoreFullHouse();
+                break;
+            case SMALL_STRAIGHT:
+                scoreSmallStraight();
+                break;
+            case LARGE_STRAIGHT:
+                scoreLargeStraight();
+                break;
+            case CHANCE:
+                scoreChance();
+                break;
+            case YAHTZEE:
+                scoreYahtzee();
+                break;
+            case YAHTZEE_BONUS:
+                scoreYahtzeeBonus();
+                break;
+            default:
+                scoreNumeric(category);
+        }
+    }
+
+    /**
+     * returns the encoded roll of the dice, see ScoreTable
+     * @return the encoded roll, or -1 if any die has not been rolled
+    */
+    public int getEncodedRoll(){
+        int code = 0;
+        for(int die = 0; die < NUM_DICE; die++){
+            int value = dice[die].getValue();
+            if(value == 0){
+                return -1;
+            }
+            code = code * Die.MAX_DIE_VALUE + value - 1;
+        }
+        return code;
+    }
+
+    /**
+     * returns the hand the dice make, see ScoreTable
+     * @return the index of the hand, or -1 if any die has not been rolled
+    */
+    public int getHand(){
+        int roll = getEncodedRoll();
+        if(roll < 0){
+            return -1;
+        }
+        return ScoreTable.getHand(roll);
+    }
+
+    /**
+     * returns the points the current dice would earn in a category,
+     * zero if the category would be scratched, looked up in the score table
+     * @param category the index of the category
+     * @return the points the current dice are worth in that category
+    */
+    public int getCategoryScore(int category){
+        int hand = getHand();
+        if(hand < 0 || category == YAHTZEE_BONUS){
+            return computeCategoryScore(category);
+        }
+        return ScoreTable.getScore(hand, category);
+    }
+
+    /**
+     * works out the points the current dice would earn in a category
+     * by checking the dice, which is how the score table is filled in
+     * @param category the index of the category
+     * @return the points the current dice are worth in that category
+    */
+    public int computeCategoryScore(int category){
+        switch(category){
+            case THREE_OF_A_KIND:
+                return canThreeOfAKind() ? getSumAllDice() : 0;
+            case FOUR_OF_A_KIND:
+                return canFourOfAKind() ? getSumAllDice() : 0;
+            case FULL_HOUSE:
+                return canFullHouse() ? FULL_HOUSE_SCORE : 0;
+            case SMALL_STRAIGHT:
+                return canSmallStraight() ? SMALL_STRAIGHT_SCORE : 0;
+            case LARGE_STRAIGHT:
+                return canLargeStraight() ? LARGE_STRAIGHT_SCORE : 0;
+            case CHANCE:
+                return getSumAllDice();
+            case YAHTZEE:
+                return canYahtzee() ? YAHTZEE_SCORE : 0;
+            case YAHTZEE_BONUS:
+                return canYahtzeeBonus() ? YAHTZEE_BONUS_SCORE : 0;
+            default:
+                return getNumSameValueDice(category + 1) * (category + 1);
+        }
     }
 
     /**
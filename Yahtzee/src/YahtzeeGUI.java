@@ -1,7 +1,9 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.*;
 import java.util.*;
+import java.util.prefs.*;
 
 /**
  * YahtzeeGUI.java
@@ -10,7 +12,7 @@ import java.util.*;
  * 
  * @author Robert Kenney
  */
-public class YahtzeeGUI extends JFrame implements ActionListener{
+public class YahtzeeGUI extends JFrame implements ActionListener, GameListener{
 
     /** the width of the window */
     public static final int WIDTH = 700;
@@ -43,19 +45,25 @@ public class YahtzeeGUI extends JFrame implements ActionListener{
     public static final Font BOLD_FONT = new Font("Calibri", Font.BOLD, 25);
 
     /** the imageicon for a blank die */
-    public static final ImageIcon BLANK_DIE = new ImageIcon("dice/blank.png");
+    public static final ImageIcon BLANK_DIE = DieIcons.getBlank();
 
     /** the image icon for a checkmark */
-    public static final ImageIcon CHECK_MARK = new ImageIcon("dice/check.png");
+    public static final ImageIcon CHECK_MARK = DieIcons.getCheckMark();
 
     /** the background color of the gui */
     public static final Color BACKGROUND_COLOR = new Color(255,178,102);
 
-    /** the file extension for the dice images */
-    public static final String FILE_EXTENSION = ".png";
+    /** the number of suggestions shown when the player asks for a hint */
+    public static final int HINTS_SHOWN = 3;
 
-    /** the relative file path of the dice images */
-    public static final String FILE_PATH = "dice/";
+    /** the milliseconds between the moves of a computer player, so they can be followed */
+    public static final int BOT_DELAY = 750;
+
+    /** the choice of a person playing a seat rather than a computer player */
+    public static final String HUMAN = "Human";
+
+    /** the node of the user's preferences the players' names are remembered in */
+    public static final String PREFERENCES_NODE = "yahtzee";
 
     /** the status label */
     private JLabel status;
@@ -66,6 +74,9 @@ public class YahtzeeGUI extends JFrame implements ActionListener{
     /** the label displaying the rolls remaining */
     private JLabel rollsRemaining;
 
+    /** the button asking which dice to hold */
+    private JButton hintButton;
+
     /** the buttons for the dice */
     private JButton[] diceButtons;
 
@@ -75,6 +86,12 @@ public class YahtzeeGUI extends JFrame implements ActionListener{
     /** the buttons for the scorecard */
     private JButton[] scorecardButtons;
 
+    /** the index of the die each dice button belongs to */
+    private Map<Object, Integer> dieIndexes;
+
+    /** the index of the category each scorecard button belongs to */
+    private Map<Object, Integer> categoryIndexes;
+
     /** the label for the bonus */
     private JLabel bonus;
 
@@ -84,13 +101,47 @@ public class YahtzeeGUI extends JFrame implements ActionListener{
     /** the instance of the game */
     private Yahtzee game;
 
+    /** the advisor suggesting which dice to hold */
+    private HoldAdvisor advisor;
+
+    /** saves the game whenever the turn changes */
+    private AutoSaver autoSaver;
+
+    /** stores the scores of every finished game, or null if it could not be opened */
+    private Leaderboard leaderboard;
+
+    /** the computer player in each seat, null where a person is playing */
+    private Strategy[] bots;
+
+    /** the name each seat's scores are stored under in the leaderboard */
+    private String[] names;
+
+    /** makes the next move of a computer player while it is their turn */
+    private javax.swing.Timer botTimer;
+
+    /** when the click being handled started, moved on by the time its dialogs were shown */
+    private long actionStart;
+
     /**
      * This is the constructor which initializes a the gui
      * and sets it up for the start of the game
     */
     public YahtzeeGUI(){
         
-        game = new Yahtzee(getNumPlayers());
+        autoSaver = new AutoSaver(new File(GameSave.DEFAULT_FILE));
+        leaderboard = openLeaderboard();
+        game = loadSavedGame();
+        if(game == null){
+            game = new Yahtzee(getNumPlayers());
+        }
+        bots = chooseBots(game.getNumPlayers());
+        names = chooseNames(bots);
+        advisor = new HoldAdvisor(loadExpectedValues());
+        botTimer = new javax.swing.Timer(BOT_DELAY, new ActionListener(){
+            public void actionPerformed(ActionEvent e){
+                playBotMove();
+            }
+        });
 
         JPanel statusPanel = new JPanel();
         
@@ -105,9 +156,14 @@ public class YahtzeeGUI extends JFrame implements ActionListener{
         rollsRemaining = new JLabel();
         rollsRemaining.setFont(DEFAULT_FONT);
 
+        hintButton = new JButton("Hint");
+        hintButton.setFont(DEFAULT_FONT);
+        hintButton.addActionListener(this);
+
         statusPanel.add(status, BorderLayout.NORTH);
         statusPanel.add(statusButton, BorderLayout.CENTER);
         statusPanel.add(rollsRemaining, BorderLayout.SOUTH);
+        statusPanel.add(hintButton);
         statusPanel.setBackground(BACKGROUND_COLOR);
         
         JPanel dicePanel = new JPanel(new BorderLayout());
@@ -116,10 +172,12 @@ public class YahtzeeGUI extends JFrame implements ActionListener{
         dice.setBackground(BACKGROUND_COLOR);
 
         diceButtons = new JButton[Yahtzee.NUM_DICE];
+        dieIndexes = new HashMap<Object, Integer>();
 
         for(int die = 0; die < Yahtzee.NUM_DICE; die++){
             diceButtons[die] = new JButton(BLANK_DIE);
             diceButtons[die].addActionListener(this);
+            dieIndexes.put(diceButtons[die], die);
             diceButtons[die].setPreferredSize(new Dimension(DIE_WIDTH, DIE_HEIGHT));
 
             JPanel diePanel = new JPanel(new FlowLayout());
@@ -146,6 +204,7 @@ public class YahtzeeGUI extends JFrame implements ActionListener{
 
         scorecardButtons = new JButton[Yahtzee.NUM_SCORING_CATEGORIES];
         scores = new JLabel[Yahtzee.NUM_SCORING_CATEGORIES];
+        categoryIndexes = new HashMap<Object, Integer>();
 
         setupScoreboard(0, Die.MAX_DIE_VALUE, scorecard); 
         bonus = new JLabel("Bonus: no (" + (Yahtzee.POINTS_NEEDED_FOR_BONUS - game.getCurrentPlayer().getTopScore()) + " points needed)", SwingConstants.CENTER);
@@ -192,6 +251,140 @@ public class YahtzeeGUI extends JFrame implements ActionListener{
         return numPlayers;
     }
 
+    /**
+     * asks who is playing each seat, a person or one of the computer players
+     * @param numPlayers the number of players
+     * @return the computer player in each seat, null where a person is playing
+     */
+    public Strategy[] chooseBots(int numPlayers){
+        String[] choices = new String[Bots.NAMES.length + 1];
+        choices[0] = HUMAN;
+        System.arraycopy(Bots.NAMES, 0, choices, 1, Bots.NAMES.length);
+        Strategy[] chosen = new Strategy[numPlayers];
+        for(int player = 0; player < numPlayers; player++){
+            Object choice = JOptionPane.showInputDialog(null, "Who is playing as player " + (player + 1) + "?",
+                    "Players", JOptionPane.QUESTION_MESSAGE, null, choices, HUMAN);
+            if(choice == null || choice.equals(HUMAN)){
+                continue;
+            }
+            try {
+                chosen[player] = Bots.create((String) choice);
+            } catch(ReflectiveOperationException | IllegalStateException e){
+                JOptionPane.showMessageDialog(null,"That player is not available: " + e.getMessage());
+                player--;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * asks the name of each person playing, offering the name last given
+     * for their seat, so their scores are kept under their own name in the
+     * leaderboard. computer players are named after their strategy
+     * @param bots the computer player in each seat, null where a person is playing
+     * @return the name of each seat
+     */
+    public String[] chooseNames(Strategy[] bots){
+        Preferences remembered = Preferences.userRoot().node(PREFERENCES_NODE);
+        String[] chosen = new String[bots.length];
+        for(int player = 0; player < bots.length; player++){
+            if(bots[player] != null){
+                chosen[player] = bots[player].getClass().getSimpleName();
+                continue;
+            }
+            String key = "name" + (player + 1);
+            String name = JOptionPane.showInputDialog(null, "What is player " + (player + 1) + "'s name?",
+                    remembered.get(key, "Player " + (player + 1)));
+            if(name == null || name.trim().isEmpty()){
+                name = "Player " + (player + 1);
+            }
+            chosen[player] = Leaderboard.fitName(name.trim());
+            remembered.put(key, chosen[player]);
+        }
+        return chosen;
+    }
+
+    /**
+     * offers to resume the game saved when the gui was last closed
+     * @return the saved game, or null if there is none or the player wants a new game
+     */
+    public Yahtzee loadSavedGame(){
+        Yahtzee saved;
+        try {
+            saved = GameSave.load(new File(GameSave.DEFAULT_FILE));
+        } catch(IOException e){
+            JOptionPane.showMessageDialog(null,"The saved game could not be loaded: " + e.getMessage());
+            return null;
+        }
+        if(saved == null || saved.allPlayersFinished()){
+            return null;
+        }
+        int choice = JOptionPane.showConfirmDialog(null, "Resume the saved game of " + saved.getNumPlayers() + " players?");
+        if(choice == JOptionPane.YES_OPTION){
+            return saved;
+        }
+        return null;
+    }
+
+    /**
+     * maps the expected value table into memory if it has been solved,
+     * so hints can look past the current turn
+     * @return the table, or null if there is no table file
+     */
+    public ExpectedValueTable loadExpectedValues(){
+        try {
+            return ExpectedValueTable.map(new File(ExpectedValueTable.DEFAULT_FILE));
+        } catch(IOException e){
+            return null;
+        }
+    }
+
+    /**
+     * shows the best few choices of dice to hold
+     */
+    public void showHint(){
+        HoldAdvice[] advice = advisor.advise(game);
+        if(advice.length == 0){
+            showMessage("There is nothing to hold, you must roll or select a scoring option");
+            return;
+        }
+        String message = "";
+        for(int hint = 0; hint < HINTS_SHOWN && hint < advice.length; hint++){
+            message += "Hold ";
+            if(advice[hint].getHolds() == 0){
+                message += "nothing";
+            } else if(advice[hint].getHolds() == Strategy.HOLD_ALL){
+                message += "everything";
+            } else {
+                for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+                    if(advice[hint].isHeld(die)){
+                        message += game.getDie(die).getValue() + " ";
+                    }
+                }
+            }
+            message += String.format(" (expected score %.1f)\n", advice[hint].getExpectedScore());
+        }
+        message += "\nChance of making each category with the dice held now:\n";
+        double[] chances = CategoryChances.getChances(game, CategoryChances.BEST_HOLDS);
+        for(int category = Yahtzee.THREE_OF_A_KIND; category <= Yahtzee.YAHTZEE; category++){
+            if(category != Yahtzee.CHANCE && !game.getCurrentPlayer().isCategoryScored(category)){
+                message += String.format("%s %.1f%%\n", Yahtzee.SCORECARD_CATEGORIES[category], 100 * chances[category]);
+            }
+        }
+        showMessage(message);
+    }
+
+    /**
+     * shows a message, leaving the time it is shown out of the time of
+     * the click being handled
+     * @param message the message
+     */
+    public void showMessage(String message){
+        long shown = Metrics.start();
+        JOptionPane.showMessageDialog(null, message);
+        actionStart += Metrics.start() - shown;
+    }
+
     /**
      * sets up a portion of the scoreboard
      * @param start the first category to setup
@@ -211,6 +404,7 @@ public class YahtzeeGUI extends JFrame implements ActionListener{
             scorecardCategory.setLayout(new GridLayout(1, 3));
 
             scorecardButtons[category].addActionListener(this);
+            categoryIndexes.put(scorecardButtons[category], category);
             scorecardButtons[category].setPreferredSize(new Dimension(SCORECARD_BUTTON_WIDTH, SCORECARD_BUTTON_HEIGHT));
 
             buttonPanel.setLayout(new FlowLayout());
@@ -226,123 +420,274 @@ public class YahtzeeGUI extends JFrame implements ActionListener{
 
     /**
      * handles user input, i.e. holding dice, rolling dice, ending turn,
-     * ending the game, and adding to score
+     * ending the game, and adding to score. the gui is updated by the
+     * game listener methods, only where the game changed. each click is
+     * timed in Metrics.GUI_ACTION when metrics are on, without the time
+     * any dialog it opens is shown
      */
     public void actionPerformed(ActionEvent e){
+        actionStart = Metrics.start();
+        handleAction(e.getSource());
+        Metrics.GUI_ACTION.recordSince(actionStart);
+    }
 
-        if(e.getSource() == statusButton){
+    /**
+     * carries out a click on one of the buttons
+     * @param source the button clicked
+     */
+    public void handleAction(Object source){
+        if(getBot() != null && source != hintButton){
+            return;
+        }
+        if(source == hintButton){
+            showHint();
+        } else if(source == statusButton){
             if(game.getCurrentPlayer().canRoll()){
                 game.rollDice();
-                for(int die = 0; die < Yahtzee.NUM_DICE; die++){
-                    updateDie(die);
-                 }
             } else if(game.getCurrentPlayer().hasSelectedScoreThisTurn()){
                 game.nextTurn();
-                status.setText("Player " + game.getCurrentPlayerID() + "'s turn");
-                for(int die = 0; die < Yahtzee.NUM_DICE; die++){
-                    updateDie(die);
-                }
             } else {
-                JOptionPane.showMessageDialog(null,"You must select or scratch a scoring option before next turn");
+                showMessage("You must select or scratch a scoring option before next turn");
             }
+        } else if(dieIndexes.containsKey(source)){
+            game.toggleHeld(dieIndexes.get(source));
+        } else if(categoryIndexes.containsKey(source)){
+            selectCategory(categoryIndexes.get(source));
+            checkGameOver();
         }
+    }
 
-        for(int die = 0; die < Yahtzee.NUM_DICE; die++){
-            if(e.getSource() == diceButtons[die]){
-                game.getDie(die).toggleHeld();
-                updateDie(die);
-           }
-        }
-
-        for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
-            if(e.getSource() == scorecardButtons[category]){
-                if(game.getCurrentPlayer().getCurrentTurnRollCount() < 1){
-                    JOptionPane.showMessageDialog(null,"You must roll at least once before selecting a scoring option");
-                }
-                if(game.getCurrentPlayer().hasSelectedScoreThisTurn()){
-                    JOptionPane.showMessageDialog(null,"You have already selected an option, end your turn");
-                }
-            }
+    /**
+     * scores a category for the current player after they click on it
+     * @param category the category clicked
+     */
+    public void selectCategory(int category){
+        if(game.getCurrentPlayer().getCurrentTurnRollCount() < 1){
+            showMessage("You must roll at least once before selecting a scoring option");
         }
-
-        for(int category = 0; category < 6; category++){
-            if(e.getSource() == scorecardButtons[category]){
-                game.scoreNumeric(category);
-            }
+        if(game.getCurrentPlayer().hasSelectedScoreThisTurn()){
+            showMessage("You have already selected an option, end your turn");
         }
 
-        if(e.getSource() == scorecardButtons[Yahtzee.THREE_OF_A_KIND]){
-            game.scoreThreeOfAKind();
-        }
+        game.scoreCategory(category);
 
-        if(e.getSource() == scorecardButtons[Yahtzee.FOUR_OF_A_KIND]){
-            game.scoreFourOfAKind();
-        }
-        
-        if(e.getSource() == scorecardButtons[Yahtzee.FULL_HOUSE]){
-            game.scoreFullHouse();
+        if(category == Yahtzee.YAHTZEE_BONUS && game.canYahtzeeBonus()){
+            showMessage("You must scratch another category");
         }
-        
-        if(e.getSource() == scorecardButtons[Yahtzee.SMALL_STRAIGHT]){
-            game.scoreSmallStraight();
-        }
-        
-        if(e.getSource() == scorecardButtons[Yahtzee.LARGE_STRAIGHT]){
-            game.scoreLargeStraight();
-        }
-        
-        if(e.getSource() == scorecardButtons[Yahtzee.CHANCE]){
-            game.scoreChance();
-        }
-        
-        if(e.getSource() == scorecardButtons[Yahtzee.YAHTZEE]){
-            game.scoreYahtzee();
-        }
-        
-        if(e.getSource() == scorecardButtons[Yahtzee.YAHTZEE_BONUS]){
-            game.scoreYahtzeeBonus();
-            if(game.canYahtzeeBonus()){
-                JOptionPane.showMessageDialog(null,"You must scratch another category");
-            }
-        }
-
-        rollsRemaining.setText("Rolls Remaining: " + (Yahtzee.ROLLS_PER_TURN - game.getCurrentPlayer().getCurrentTurnRollCount()));
-        updateButtonText();
-        updateScorecard();
+    }
 
+    /**
+     * shows the final scores if every player has finished,
+     * and starts a new game if the players want to play again
+     */
+    public void checkGameOver(){
         if(game.allPlayersFinished()){
             String message = "Game Over!\n";
             for(int player = 0; player < game.getNumPlayers(); player++){
-                message += "Player ";
-                message += (player + 1);
+                message += names[player];
                 message += ": ";
                 message += game.getPlayer(player).getTotalScore();
                 message += "\n";
             }
+            message += "High Score: " + recordScores() + "\n";
             message += "Play Again?";
             
+            autoSaver.delete();
+            //the dialog and any new game it sets up are not part of the click's time
+            long shown = Metrics.start();
             int choice = JOptionPane.showConfirmDialog(null, message);
             if (choice == JOptionPane.YES_OPTION) {
+                game.removeListener(this);
+                game.removeListener(autoSaver);
                 game = new Yahtzee(getNumPlayers());
+                bots = chooseBots(game.getNumPlayers());
+                names = chooseNames(bots);
                 setUp();
             } else {
+                botTimer.stop();
+                autoSaver.close();
+                closeLeaderboard();
                 this.dispose();
             }
+            actionStart += Metrics.start() - shown;
+
+        }
+    }
+
+    /**
+     * opens the leaderboard the scores of finished games are stored in
+     * @return the leaderboard, or null if it cannot be opened
+     */
+    public Leaderboard openLeaderboard(){
+        try {
+            return new Leaderboard(new File(Leaderboard.DEFAULT_FILE));
+        } catch(IOException e){
+            System.err.println("Scores will not be recorded: " + e.getMessage());
+            return null;
+        }
+    }
 
+    /**
+     * stores the scores of the finished game in the leaderboard
+     * @return the highest score ever, counting this game
+     */
+    public int recordScores(){
+        int highScore = 0;
+        for(int player = 0; player < game.getNumPlayers(); player++){
+            highScore = Math.max(highScore, game.getPlayer(player).getTotalScore());
+        }
+        if(leaderboard != null){
+            highScore = Math.max(highScore, leaderboard.getHighScore());
+            leaderboard.record(game, names);
+        }
+        return highScore;
+    }
+
+    /**
+     * writes any scores still waiting and closes the leaderboard
+     */
+    public void closeLeaderboard(){
+        if(leaderboard == null){
+            return;
+        }
+        try {
+            leaderboard.close();
+        } catch(IOException e){
+            System.err.println("Could not close the leaderboard: " + e.getMessage());
         }
     }
 
+    /**
+     * gets the computer player whose turn it is
+     * @return the strategy of the current player, or null if a person is playing
+     */
+    public Strategy getBot(){
+        return bots[game.getCurrentPlayerID() - 1];
+    }
+
+    /**
+     * starts making moves for the current player if they are a computer
+     * player, and stops if a person is playing
+     */
+    public void startBotTurn(){
+        if(getBot() != null && !game.allPlayersFinished()){
+            botTimer.start();
+        } else {
+            botTimer.stop();
+        }
+    }
+
+    /**
+     * makes one move for the computer player whose turn it is, rolling,
+     * scoring or passing the turn on, so every roll is shown before the next
+     */
+    public void playBotMove(){
+        Strategy bot = getBot();
+        if(bot == null || game.allPlayersFinished()){
+            botTimer.stop();
+            return;
+        }
+        Player player = game.getCurrentPlayer();
+        if(player.hasSelectedScoreThisTurn()){
+            game.nextTurn();
+            return;
+        }
+        if(player.getCurrentTurnRollCount() == 0){
+            game.rollDice();
+            return;
+        }
+        if(player.canRoll()){
+            int holds = bot.chooseHolds(game);
+            if(holds != Strategy.HOLD_ALL){
+                YahtzeeSimulator.setHolds(game, holds);
+                game.rollDice();
+                return;
+            }
+        }
+        game.scoreCategory(bot.chooseCategory(game));
+        if(player.hasYahtzeeBonusedThisTurn() && !player.hasSelectedScoreThisTurn()){
+            game.scoreCategory(bot.chooseCategory(game));
+        }
+        checkGameOver();
+    }
+
+    /**
+     * updates the dice, rolls remaining and main button after a roll
+     * @param game the game
+     */
+    public void diceRolled(Yahtzee game){
+        for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+            updateDie(die);
+        }
+        updateRollsRemaining();
+        updateButtonText();
+    }
+
+    /**
+     * updates a die after it is held or let go
+     * @param game the game
+     * @param die the index of the die
+     */
+    public void dieHeldToggled(Yahtzee game, int die){
+        updateDie(die);
+    }
+
+    /**
+     * updates a category and the totals after a category is selected
+     * @param game the game
+     * @param category the index of the category
+     * @param scratch whether the category was scratched
+     */
+    public void categoryScored(Yahtzee game, int category, boolean scratch){
+        updateCategory(category);
+        updateTotals();
+        updateButtonText();
+    }
+
+    /**
+     * shows the new player's scorecard and clears the dice when the turn changes
+     * @param game the game
+     */
+    public void turnChanged(Yahtzee game){
+        status.setText("Player " + game.getCurrentPlayerID() + "'s turn");
+        for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+            updateDie(die);
+        }
+        updateRollsRemaining();
+        updateButtonText();
+        updateScorecard();
+        startBotTurn();
+    }
+
+    /**
+     * shows the whole game again when it is set back to a saved state
+     * @param game the game
+     */
+    public void gameRestored(Yahtzee game){
+        turnChanged(game);
+    }
+
     /**
      * sets up the labels of the objects on the gui
      */
     public void setUp(){
+        game.addListener(this);
+        game.addListener(autoSaver);
         status.setText("Player " + game.getCurrentPlayerID() + "'s turn");
-        rollsRemaining.setText("Rolls Remaining: " + (Yahtzee.ROLLS_PER_TURN - game.getCurrentPlayer().getCurrentTurnRollCount()));
+        updateRollsRemaining();
         updateButtonText();
         updateScorecard();
         for(int die = 0; die < Yahtzee.NUM_DICE; die++){
             updateDie(die);
         }
+        startBotTurn();
+    }
+
+    /**
+     * updates the label showing the rolls remaining
+     */
+    public void updateRollsRemaining(){
+        rollsRemaining.setText("Rolls Remaining: " + (Yahtzee.ROLLS_PER_TURN - game.getCurrentPlayer().getCurrentTurnRollCount()));
     }
 
     /**
@@ -361,13 +706,7 @@ public class YahtzeeGUI extends JFrame implements ActionListener{
      * @param die the die to update
      */
     public void updateDie(int die){
-        if(game.getDie(die).getValue() == 0){
-            diceButtons[die].setIcon(BLANK_DIE);
-        } else if(game.getDie(die).isHeld()){
-            diceButtons[die].setIcon(new ImageIcon(FILE_PATH + "held" + Integer.toString(game.getDie(die).getValue()) + FILE_EXTENSION));
-        } else {
-            diceButtons[die].setIcon(new ImageIcon(FILE_PATH + Integer.toString(game.getDie(die).getValue()) + FILE_EXTENSION));
-        }
+        diceButtons[die].setIcon(DieIcons.getFace(game.getDie(die).getValue(), game.getDie(die).isHeld()));
     }
 
     /**
@@ -375,13 +714,28 @@ public class YahtzeeGUI extends JFrame implements ActionListener{
      */
     public void updateScorecard(){
         for(int category = 0; category < Yahtzee.NUM_SCORING_CATEGORIES; category++){
-            scores[category].setText(game.getCurrentPlayer().getScore(category));
-            if(game.getCurrentPlayer().isCategoryScored(category)){
-                scorecardButtons[category].setIcon(CHECK_MARK);
-            } else {
-                scorecardButtons[category].setIcon(new ImageIcon());
-            }
+            updateCategory(category);
         }
+        updateTotals();
+    }
+
+    /**
+     * updates the image and text of one category on the scorecard
+     * @param category the category to update
+     */
+    public void updateCategory(int category){
+        scores[category].setText(game.getCurrentPlayer().getScore(category));
+        if(game.getCurrentPlayer().isCategoryScored(category)){
+            scorecardButtons[category].setIcon(CHECK_MARK);
+        } else {
+            scorecardButtons[category].setIcon(DieIcons.getEmpty());
+        }
+    }
+
+    /**
+     * updates the bonus and total score labels
+     */
+    public void updateTotals(){
         if(game.getCurrentPlayer().hasBonus()){
             bonus.setText("Bonus: yes (35)");
         } else {
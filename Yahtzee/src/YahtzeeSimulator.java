@@ -0,0 +1,158 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * YahtzeeSimulator.java
+ *
+ * This class plays complete games of yahtzee without the gui, letting a
+ * strategy make every decision, and times how many games can be played
+ *
+ * @author Robert Kenney
+ */
+public class YahtzeeSimulator {
+
+    /** the number of games played when none are given on the command line */
+    public static final int DEFAULT_NUM_GAMES = 100000;
+
+    /**
+     * plays one turn for the current player and moves on to the next player
+     * @param game the game being played
+     * @param strategy the strategy making the decisions for the current player
+     */
+    public static void playTurn(Yahtzee game, Strategy strategy){
+        Player player = game.getCurrentPlayer();
+
+        game.rollDice();
+        while(player.canRoll()){
+            int holds = strategy.chooseHolds(game);
+            if(holds == Strategy.HOLD_ALL){
+                break;
+            }
+            setHolds(game, holds);
+            game.rollDice();
+        }
+
+        while(!player.hasSelectedScoreThisTurn()){
+            boolean bonused = player.hasYahtzeeBonusedThisTurn();
+            int category = strategy.chooseCategory(game);
+            game.scoreCategory(category);
+            if(!player.hasSelectedScoreThisTurn() && player.hasYahtzeeBonusedThisTurn() == bonused){
+                throw new IllegalStateException("Strategy chose category " + category + " which cannot be scored");
+            }
+        }
+        game.nextTurn();
+    }
+
+    /**
+     * holds exactly the dice a strategy chose, letting go of the rest
+     * @param game the game
+     * @param holds a mask where bit i is set if die i is to be held
+     */
+    public static void setHolds(Yahtzee game, int holds){
+        for(int die = 0; die < Yahtzee.NUM_DICE; die++){
+            boolean hold = (holds & (1 << die)) != 0;
+            if(game.getDie(die).isHeld() != hold){
+                game.toggleHeld(die);
+            }
+        }
+    }
+
+    /**
+     * plays a game until every player has finished
+     * @param game the game to be played
+     * @param seats the strategy for each player in the game
+     */
+    public static void playGame(Yahtzee game, Strategy[] seats){
+        while(!game.allPlayersFinished()){
+            playTurn(game, seats[game.getCurrentPlayerID() - 1]);
+        }
+    }
+
+    /**
+     * plays a number of single player games on the calling thread. game i
+     * is seeded with firstSeed + i, so any one of them can be replayed
+     * by playing it in a new Yahtzee(1, seed)
+     * @param firstSeed the seed of the first game
+     * @param numGames the number of games to play
+     * @param strategy the strategy making the decisions
+     * @return the result of the games
+     */
+    public static SimulationResult simulate(long firstSeed, long numGames, Strategy strategy){
+        Strategy[] seats = {strategy};
+        SimulationResult result = new SimulationResult();
+        long start = System.nanoTime();
+        for(long played = 0; played < numGames; played++){
+            Yahtzee game = new Yahtzee(1, firstSeed + played);
+            playGame(game, seats);
+            result.addGame(game);
+        }
+        result.setElapsedNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * plays a number of single player games split evenly across threads.
+     * the games are seeded the same way no matter how many threads there are
+     * @param seed the seed of the first game
+     * @param numGames the number of games to play
+     * @param numThreads the number of threads to play them on
+     * @param strategy the strategy making the decisions
+     * @return the combined result of the games
+     */
+    public static SimulationResult simulate(long seed, long numGames, int numThreads, final Strategy strategy){
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        List<Future<SimulationResult>> futures = new ArrayList<Future<SimulationResult>>();
+        long start = System.nanoTime();
+        long firstGame = 0;
+        for(int thread = 0; thread < numThreads; thread++){
+            final long gamesForThread = numGames / numThreads + (thread < numGames % numThreads ? 1 : 0);
+            final long firstSeed = seed + firstGame;
+            firstGame += gamesForThread;
+            futures.add(pool.submit(new Callable<SimulationResult>(){
+                public SimulationResult call(){
+                    return simulate(firstSeed, gamesForThread, strategy);
+                }
+            }));
+        }
+
+        SimulationResult result = new SimulationResult();
+        try {
+            for(Future<SimulationResult> future : futures){
+                result.merge(future.get());
+            }
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation was interrupted", e);
+        } catch(ExecutionException e){
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        result.setElapsedNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * This is the main method, which plays games with the greedy strategy
+     * on every core and prints how fast they were played
+     * @param args Command line arguments, the number of games, the number of threads and the seed, all optional
+     */
+    public static void main(String[] args){
+        long numGames = DEFAULT_NUM_GAMES;
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        if(args.length > 0){
+            numGames = Long.parseLong(args[0]);
+        }
+        if(args.length > 1){
+            numThreads = Integer.parseInt(args[1]);
+        }
+        if(args.length > 2){
+            seed = Long.parseLong(args[2]);
+        }
+        System.out.println("Seed: " + seed);
+        SimulationResult result = simulate(seed, numGames, numThreads, new GreedyStrategy());
+        System.out.println(result);
+        System.out.println(result.getStatistics());
+    }
+}
@@ -0,0 +1,102 @@
+import java.io.*;
+import java.nio.*;
+import java.util.stream.*;
+
+/**
+ * YahtzeeSolver.java
+ *
+ * This class solves single player yahtzee, working out the expected value
+ * of every scorecard in ExpectedValueTable. scorecards with more categories
+ * scored only depend on each other through scorecards with even more
+ * scored, so the table is filled in from full scorecards back to the empty
+ * one, and the scorecards with the same number of categories scored are
+ * solved in parallel on every core
+ *
+ * @author Robert Kenney
+ */
+public class YahtzeeSolver {
+
+    /** the numeric subtotals, capped at the points needed for the bonus, that each mask of numeric categories can reach */
+    private static final long[] REACHABLE_UPPER = new long[Player.NUMERIC_CATEGORIES + 1];
+
+    static {
+        REACHABLE_UPPER[0] = 1L;
+        for(int mask = 1; mask <= Player.NUMERIC_CATEGORIES; mask++){
+            int value = Integer.numberOfTrailingZeros(mask) + 1;
+            long before = REACHABLE_UPPER[mask & (mask - 1)];
+            long reachable = 0;
+            for(int upper = 0; upper <= Yahtzee.POINTS_NEEDED_FOR_BONUS; upper++){
+                if((before & (1L << upper)) != 0){
+                    for(int count = 0; count <= Yahtzee.NUM_DICE; count++){
+                        reachable |= 1L << Math.min(upper + count * value, Yahtzee.POINTS_NEEDED_FOR_BONUS);
+                    }
+                }
+            }
+            REACHABLE_UPPER[mask] = reachable;
+        }
+    }
+
+    /** an evaluator for each thread solving the table */
+    private static final ThreadLocal<TurnEvaluator> EVALUATORS = new ThreadLocal<TurnEvaluator>();
+
+    /**
+     * solves the table
+     * @return the expected value of each scorecard, in the order of ExpectedValueTable.index()
+     */
+    public static float[] solve(){
+        final float[] values = new float[ExpectedValueTable.NUM_STATES];
+        final ExpectedValueTable table = new ExpectedValueTable(FloatBuffer.wrap(values));
+        for(int numScored = ScoreTable.NUM_CATEGORIES - 1; numScored >= 0; numScored--){
+            final int count = numScored;
+            IntStream.rangeClosed(0, Player.ALL_CATEGORIES)
+                    .filter(scored -> Integer.bitCount(scored) == count)
+                    .parallel()
+                    .forEach(scored -> solveMask(table, values, scored));
+        }
+        return values;
+    }
+
+    /**
+     * solves every scorecard with the given categories scored
+     * @param table the table being solved
+     * @param values the values of the table
+     * @param scored the mask of scored categories
+     */
+    private static void solveMask(ExpectedValueTable table, float[] values, int scored){
+        TurnEvaluator evaluator = EVALUATORS.get();
+        if(evaluator == null){
+            evaluator = new TurnEvaluator(table);
+            EVALUATORS.set(evaluator);
+        }
+        long reachable = REACHABLE_UPPER[scored & Player.NUMERIC_CATEGORIES];
+        boolean yahtzeeScored = (scored & (1 << Yahtzee.YAHTZEE)) != 0;
+        for(int upper = 0; upper <= Yahtzee.POINTS_NEEDED_FOR_BONUS; upper++){
+            if((reachable & (1L << upper)) == 0){
+                continue;
+            }
+            values[ExpectedValueTable.index(scored, upper, false)] = evaluator.evaluate(scored, upper, false);
+            if(yahtzeeScored){
+                values[ExpectedValueTable.index(scored, upper, true)] = evaluator.evaluate(scored, upper, true);
+            }
+        }
+    }
+
+    /**
+     * This is the main method, which solves the table, saves it and prints
+     * how long it took and the expected score of a perfectly played game
+     * @param args Command line arguments, the file to save to, optional
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        File file = new File(args.length > 0 ? args[0] : ExpectedValueTable.DEFAULT_FILE);
+        long start = System.nanoTime();
+        ExpectedValueTable table = new ExpectedValueTable(FloatBuffer.wrap(solve()));
+        System.out.printf("Solved in %.1f s%n", (System.nanoTime() - start) / 1e9);
+        table.save(file);
+
+        start = System.nanoTime();
+        table = ExpectedValueTable.map(file);
+        System.out.printf("Mapped %s in %.2f ms%n", file, (System.nanoTime() - start) / 1e6);
+        System.out.printf("Expected score: %.2f%n", table.getExpectedScore());
+    }
+}
@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * BatchScoringBenchmark.java
+ *
+ * This class measures scoring an array of hands in every category, with
+ * BatchScorer working on one array per die, against looking each hand up
+ * in the score table one at a time
+ *
+ * @author Robert Kenney
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchScoringBenchmark {
+
+    /** the number of hands scored per call */
+    @Param({"1024", "65536"})
+    public int numHands;
+
+    /** the value of each die of each hand, dice[die][hand] */
+    private byte[][] dice;
+
+    /** the points of each hand in each category, scores[category][hand] */
+    private int[][] scores;
+
+    /**
+     * rolls the hands
+     */
+    @Setup
+    public void setUp(){
+        SplittableRandom random = new SplittableRandom(42);
+        dice = new byte[Game.NUM_DICE][numHands];
+        for(int die = 0; die < Game.NUM_DICE; die++){
+            for(int hand = 0; hand < numHands; hand++){
+                dice[die][hand] = (byte) (random.nextInt(6) + 1);
+            }
+        }
+        scores = new int[Game.NUM_TABLE_CATEGORIES][numHands];
+    }
+
+    @Benchmark
+    public int[][] batch() throws Throwable {
+        Game.BATCH_SCORE.invokeExact((Object) dice, (Object) scores, numHands);
+        return scores;
+    }
+
+    @Benchmark
+    public int[][] table() throws Throwable {
+        for(int hand = 0; hand < numHands; hand++){
+            int roll = 0;
+            for(int die = 0; die < Game.NUM_DICE; die++){
+                roll = roll * 6 + dice[die][hand] - 1;
+            }
+            int index = (int) Game.GET_HAND.invokeExact(roll);
+            for(int category = 0; category < Game.NUM_TABLE_CATEGORIES; category++){
+                scores[category][hand] = (int) Game.GET_SCORE.invokeExact(index, category);
+            }
+        }
+        return scores;
+    }
+}
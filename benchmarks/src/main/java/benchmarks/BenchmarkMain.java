@@ -0,0 +1,46 @@
+package benchmarks;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * BenchmarkMain.java
+ *
+ * This class runs the benchmarks. it takes the usual JMH command line,
+ * and unless another result format is asked for with -rf, it writes the
+ * results as JSON to jmh-result.json so runs can be compared
+ *
+ * @author Robert Kenney
+ */
+public class BenchmarkMain {
+
+    /** the file the results are written to when no other is given */
+    public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    /**
+     * This is the main method, which runs the benchmarks
+     * @param args Command line arguments, as for JMH
+     * @throws Exception if the benchmarks cannot be run
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if(options.shouldHelp() || options.shouldList() || options.shouldListProfilers()
+                || options.shouldListResultFormats() || options.shouldListWithParams()){
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        if(!Arrays.asList(args).contains("-rf")){
+            builder.resultFormat(ResultFormatType.JSON);
+            if(!Arrays.asList(args).contains("-rff")){
+                builder.result(DEFAULT_RESULT_FILE);
+            }
+        }
+        new Runner(builder.build()).run();
+    }
+}
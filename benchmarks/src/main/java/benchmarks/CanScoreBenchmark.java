@@ -0,0 +1,94 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * CanScoreBenchmark.java
+ *
+ * This class measures each of the Yahtzee.canXxx() checks. each call looks
+ * at the next of a ring of games rolled ahead of time, so the checks see
+ * a realistic mix of hands rather than the same one every time
+ *
+ * @author Robert Kenney
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CanScoreBenchmark {
+
+    /** the number of games in the ring, a power of two */
+    public static final int NUM_GAMES = 1024;
+
+    /** the rolled games */
+    private Object[] games;
+
+    /** the position in the ring */
+    private int next;
+
+    /**
+     * rolls the games, scoring a yahtzee in every other one so the bonus check has both outcomes
+     * @throws Throwable if the games cannot be made
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        games = new Object[NUM_GAMES];
+        for(int game = 0; game < NUM_GAMES; game++){
+            games[game] = Game.newGame(1, game);
+            if(game % 2 == 0){
+                Game.ROLL_DICE.invokeExact(games[game]);
+                Game.SCORE_CATEGORY.invokeExact(games[game], Game.YAHTZEE_CATEGORY);
+                Game.NEXT_TURN.invokeExact(games[game]);
+            }
+            Game.ROLL_DICE.invokeExact(games[game]);
+        }
+    }
+
+    /**
+     * gets the next game in the ring
+     * @return the game
+     */
+    private Object nextGame(){
+        next = (next + 1) & (NUM_GAMES - 1);
+        return games[next];
+    }
+
+    @Benchmark
+    public boolean canThreeOfAKind() throws Throwable {
+        return (boolean) Game.CAN_THREE_OF_A_KIND.invokeExact(nextGame());
+    }
+
+    @Benchmark
+    public boolean canFourOfAKind() throws Throwable {
+        return (boolean) Game.CAN_FOUR_OF_A_KIND.invokeExact(nextGame());
+    }
+
+    @Benchmark
+    public boolean canFullHouse() throws Throwable {
+        return (boolean) Game.CAN_FULL_HOUSE.invokeExact(nextGame());
+    }
+
+    @Benchmark
+    public boolean canSmallStraight() throws Throwable {
+        return (boolean) Game.CAN_SMALL_STRAIGHT.invokeExact(nextGame());
+    }
+
+    @Benchmark
+    public boolean canLargeStraight() throws Throwable {
+        return (boolean) Game.CAN_LARGE_STRAIGHT.invokeExact(nextGame());
+    }
+
+    @Benchmark
+    public boolean canYahtzee() throws Throwable {
+        return (boolean) Game.CAN_YAHTZEE.invokeExact(nextGame());
+    }
+
+    @Benchmark
+    public boolean canYahtzeeBonus() throws Throwable {
+        return (boolean) Game.CAN_YAHTZEE_BONUS.invokeExact(nextGame());
+    }
+}
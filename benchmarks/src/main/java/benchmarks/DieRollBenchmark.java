@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * DieRollBenchmark.java
+ *
+ * This class measures Die.roll(), next to the old way of rolling, which
+ * made a new Random for every roll
+ *
+ * @author Robert Kenney
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DieRollBenchmark {
+
+    /** the die being rolled */
+    private Object die;
+
+    /**
+     * makes the die
+     * @throws Throwable if the die cannot be made
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        die = (Object) Game.NEW_DIE.invokeExact();
+    }
+
+    /**
+     * rolls the die
+     * @return the value rolled
+     * @throws Throwable never
+     */
+    @Benchmark
+    public int roll() throws Throwable {
+        Game.ROLL.invokeExact(die);
+        return (int) Game.GET_VALUE.invokeExact(die);
+    }
+
+    /**
+     * rolls a die the way Die.roll() used to
+     * @return the value rolled
+     */
+    @Benchmark
+    public int rollWithNewRandom(){
+        Random rand = new Random();
+        return rand.nextInt(6) + 1;
+    }
+}
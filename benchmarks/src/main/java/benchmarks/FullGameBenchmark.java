@@ -0,0 +1,47 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * FullGameBenchmark.java
+ *
+ * This class measures how many complete games the simulator can play
+ * per second, with every player using the greedy strategy
+ *
+ * @author Robert Kenney
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FullGameBenchmark {
+
+    /** the number of players in each game */
+    @Param({"1", "4"})
+    public int numPlayers;
+
+    /** the strategies of the players */
+    private Object seats;
+
+    /** the seed of the next game */
+    private long seed;
+
+    /**
+     * makes the strategies
+     */
+    @Setup
+    public void setUp(){
+        seats = Game.greedySeats(numPlayers);
+    }
+
+    @Benchmark
+    public Object playGame() throws Throwable {
+        Object game = Game.newGame(numPlayers, seed++);
+        Game.PLAY_GAME.invokeExact(game, seats);
+        return game;
+    }
+}
@@ -0,0 +1,237 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Game.java
+ *
+ * This class holds method handles for the game's classes. the game lives
+ * in the default package, which code in a named package cannot import, and
+ * JMH will not generate benchmarks in the default package, so the benchmarks
+ * reach the game through these handles. they are static final, so the JIT
+ * treats them as constants and inlines the call just like a direct one
+ *
+ * every game object is passed around as an Object
+ *
+ * @author Robert Kenney
+ */
+final class Game {
+
+    /** the lookup used to find the game's methods */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    /** the game's classes */
+    static final Class<?> YAHTZEE = load("Yahtzee");
+    static final Class<?> PLAYER = load("Player");
+    static final Class<?> DIE = load("Die");
+    static final Class<?> STRATEGY = load("Strategy");
+    static final Class<?> GAME_ACTOR = load("GameActor");
+
+    /** the game's constants */
+    static final int NUM_DICE = constant(YAHTZEE, "NUM_DICE");
+    static final int YAHTZEE_CATEGORY = constant(YAHTZEE, "YAHTZEE");
+    static final int NUM_TABLE_CATEGORIES = constant(load("ScoreTable"), "NUM_CATEGORIES");
+
+    /** new Yahtzee(int numPlayers, long seed) */
+    static final MethodHandle NEW_YAHTZEE = constructor(YAHTZEE, int.class, long.class);
+
+    /** new Die() */
+    static final MethodHandle NEW_DIE = constructor(DIE);
+
+    /** new GreedyStrategy() */
+    static final MethodHandle NEW_GREEDY_STRATEGY = constructor(load("GreedyStrategy"));
+
+    /** Die.roll() */
+    static final MethodHandle ROLL = virtual(DIE, "roll", void.class);
+
+    /** Die.getValue() */
+    static final MethodHandle GET_VALUE = virtual(DIE, "getValue", int.class);
+
+    /** Yahtzee.getDie(int die) */
+    static final MethodHandle GET_DIE = virtual(YAHTZEE, "getDie", DIE, int.class);
+
+    /** Yahtzee.getCurrentPlayer() */
+    static final MethodHandle GET_CURRENT_PLAYER = virtual(YAHTZEE, "getCurrentPlayer", PLAYER);
+
+    /** Yahtzee.rollDice() */
+    static final MethodHandle ROLL_DICE = virtual(YAHTZEE, "rollDice", void.class);
+
+    /** Yahtzee.nextTurn() */
+    static final MethodHandle NEXT_TURN = virtual(YAHTZEE, "nextTurn", void.class);
+
+    /** Yahtzee.canXxx() */
+    static final MethodHandle CAN_THREE_OF_A_KIND = virtual(YAHTZEE, "canThreeOfAKind", boolean.class);
+    static final MethodHandle CAN_FOUR_OF_A_KIND = virtual(YAHTZEE, "canFourOfAKind", boolean.class);
+    static final MethodHandle CAN_FULL_HOUSE = virtual(YAHTZEE, "canFullHouse", boolean.class);
+    static final MethodHandle CAN_SMALL_STRAIGHT = virtual(YAHTZEE, "canSmallStraight", boolean.class);
+    static final MethodHandle CAN_LARGE_STRAIGHT = virtual(YAHTZEE, "canLargeStraight", boolean.class);
+    static final MethodHandle CAN_YAHTZEE = virtual(YAHTZEE, "canYahtzee", boolean.class);
+    static final MethodHandle CAN_YAHTZEE_BONUS = virtual(YAHTZEE, "canYahtzeeBonus", boolean.class);
+
+    /** Yahtzee.scoreXxx() */
+    static final MethodHandle SCORE_NUMERIC = virtual(YAHTZEE, "scoreNumeric", void.class, int.class);
+    static final MethodHandle SCORE_THREE_OF_A_KIND = virtual(YAHTZEE, "scoreThreeOfAKind", void.class);
+    static final MethodHandle SCORE_FOUR_OF_A_KIND = virtual(YAHTZEE, "scoreFourOfAKind", void.class);
+    static final MethodHandle SCORE_FULL_HOUSE = virtual(YAHTZEE, "scoreFullHouse", void.class);
+    static final MethodHandle SCORE_SMALL_STRAIGHT = virtual(YAHTZEE, "scoreSmallStraight", void.class);
+    static final MethodHandle SCORE_LARGE_STRAIGHT = virtual(YAHTZEE, "scoreLargeStraight", void.class);
+    static final MethodHandle SCORE_CHANCE = virtual(YAHTZEE, "scoreChance", void.class);
+    static final MethodHandle SCORE_YAHTZEE = virtual(YAHTZEE, "scoreYahtzee", void.class);
+    static final MethodHandle SCORE_YAHTZEE_BONUS = virtual(YAHTZEE, "scoreYahtzeeBonus", void.class);
+
+    /** Yahtzee.scoreCategory(int category) */
+    static final MethodHandle SCORE_CATEGORY = virtual(YAHTZEE, "scoreCategory", void.class, int.class);
+
+    /** Yahtzee.snapshot(long[] state) */
+    static final MethodHandle SNAPSHOT = virtual(YAHTZEE, "snapshot", long[].class, long[].class);
+
+    /** Yahtzee.restore(long[] state) */
+    static final MethodHandle RESTORE = virtual(YAHTZEE, "restore", void.class, long[].class);
+
+    /** new GameActor(Yahtzee game, Executor executor) */
+    static final MethodHandle NEW_GAME_ACTOR = constructor(GAME_ACTOR, YAHTZEE, Executor.class);
+
+    /** GameActor.rollDice(), GameActor.scoreCategory(int category) and GameActor.nextTurn(), returning their futures */
+    static final MethodHandle ACTOR_ROLL_DICE = virtual(GAME_ACTOR, "rollDice", CompletableFuture.class);
+    static final MethodHandle ACTOR_SCORE_CATEGORY = virtual(GAME_ACTOR, "scoreCategory", CompletableFuture.class, int.class);
+    static final MethodHandle ACTOR_NEXT_TURN = virtual(GAME_ACTOR, "nextTurn", CompletableFuture.class);
+
+    /** BatchScorer.score(byte[][] dice, int[][] scores, int numHands) */
+    static final MethodHandle BATCH_SCORE = erase(findStatic(load("BatchScorer"), "score",
+            MethodType.methodType(void.class, byte[][].class, int[][].class, int.class)));
+
+    /** ScoreTable.getHand(int roll) */
+    static final MethodHandle GET_HAND = findStatic(load("ScoreTable"), "getHand", MethodType.methodType(int.class, int.class));
+
+    /** ScoreTable.getScore(int hand, int category) */
+    static final MethodHandle GET_SCORE = findStatic(load("ScoreTable"), "getScore", MethodType.methodType(int.class, int.class, int.class));
+
+    /** Player.getTotalScore() */
+    static final MethodHandle GET_TOTAL_SCORE = virtual(PLAYER, "getTotalScore", int.class);
+
+    /** YahtzeeSimulator.playGame(Yahtzee game, Strategy[] seats) */
+    static final MethodHandle PLAY_GAME = erase(findStatic(load("YahtzeeSimulator"), "playGame",
+            MethodType.methodType(void.class, YAHTZEE, STRATEGY.arrayType())));
+
+    /**
+     * This class only holds constants
+     */
+    private Game(){
+    }
+
+    /**
+     * makes a seeded game
+     * @param numPlayers the number of players
+     * @param seed the seed for the dice
+     * @return the game
+     */
+    static Object newGame(int numPlayers, long seed){
+        try {
+            return (Object) NEW_YAHTZEE.invokeExact(numPlayers, seed);
+        } catch(Throwable e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * makes the seats for a game where every player uses the greedy strategy
+     * @param numPlayers the number of players
+     * @return the array of strategies
+     */
+    static Object greedySeats(int numPlayers){
+        try {
+            Object[] seats = (Object[]) java.lang.reflect.Array.newInstance(STRATEGY, numPlayers);
+            for(int seat = 0; seat < numPlayers; seat++){
+                seats[seat] = (Object) NEW_GREEDY_STRATEGY.invokeExact();
+            }
+            return seats;
+        } catch(Throwable e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * loads one of the game's classes
+     * @param name the name of the class
+     * @return the class
+     */
+    private static Class<?> load(String name){
+        try {
+            return Class.forName(name);
+        } catch(ClassNotFoundException e){
+            throw new IllegalStateException("The game is not on the classpath", e);
+        }
+    }
+
+    /**
+     * reads one of the game's int constants
+     * @param type the class holding the constant
+     * @param name the name of the constant
+     * @return the value
+     */
+    private static int constant(Class<?> type, String name){
+        try {
+            return type.getField(name).getInt(null);
+        } catch(ReflectiveOperationException e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * finds a constructor, with every game type in it replaced by Object
+     * @param type the class to construct
+     * @param parameters the parameter types
+     * @return the handle
+     */
+    private static MethodHandle constructor(Class<?> type, Class<?>... parameters){
+        try {
+            return erase(LOOKUP.findConstructor(type, MethodType.methodType(void.class, parameters)));
+        } catch(ReflectiveOperationException e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * finds an instance method, with every game type in it replaced by Object
+     * @param type the class declaring the method
+     * @param name the name of the method
+     * @param returnType the return type
+     * @param parameters the parameter types
+     * @return the handle
+     */
+    private static MethodHandle virtual(Class<?> type, String name, Class<?> returnType, Class<?>... parameters){
+        try {
+            return erase(LOOKUP.findVirtual(type, name, MethodType.methodType(returnType, parameters)));
+        } catch(ReflectiveOperationException e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * finds a static method
+     * @param type the class declaring the method
+     * @param name the name of the method
+     * @param methodType the type of the method
+     * @return the handle
+     */
+    private static MethodHandle findStatic(Class<?> type, String name, MethodType methodType){
+        try {
+            return LOOKUP.findStatic(type, name, methodType);
+        } catch(ReflectiveOperationException e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * replaces every reference type in a handle's type with Object
+     * @param handle the handle
+     * @return the handle taking and returning Objects
+     */
+    private static MethodHandle erase(MethodHandle handle){
+        return handle.asType(handle.type().erase());
+    }
+}
@@ -0,0 +1,112 @@
+package benchmarks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * GameActorBenchmark.java
+ *
+ * This class measures games played through a GameActor against the same
+ * games played by calling Yahtzee directly. every game is the same 65
+ * commands, three rolls, a score and the next turn for each of the 13
+ * turns of a one player game, sent without waiting and then waited on
+ * once at the end
+ *
+ * direct and actor play one game at a time, which shows the cost of the
+ * mailbox and the snapshots, and actorAcrossGames drives a game from every
+ * benchmark thread at once through one shared executor, which shows how
+ * well many games run side by side
+ *
+ * @author Robert Kenney
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameActorBenchmark {
+
+    /**
+     * This class holds the executor shared by every actor in a run
+     */
+    @State(Scope.Benchmark)
+    public static class Pool {
+
+        /** the executor the actors carry out commands on */
+        ExecutorService executor;
+
+        /**
+         * starts a thread for each core
+         */
+        @Setup
+        public void setUp(){
+            executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+
+        /**
+         * stops the threads
+         */
+        @TearDown
+        public void tearDown(){
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * This class holds the seed of the next game of each benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class Seed {
+
+        /** the seed of the next game */
+        long next;
+    }
+
+    @Benchmark
+    public Object direct(Seed seed) throws Throwable {
+        Object game = Game.newGame(1, seed.next++);
+        for(int turn = 0; turn < Game.YAHTZEE_CATEGORY + 1; turn++){
+            Game.ROLL_DICE.invokeExact(game);
+            Game.ROLL_DICE.invokeExact(game);
+            Game.ROLL_DICE.invokeExact(game);
+            Game.SCORE_CATEGORY.invokeExact(game, Game.YAHTZEE_CATEGORY - turn);
+            Game.NEXT_TURN.invokeExact(game);
+        }
+        return game;
+    }
+
+    @Benchmark
+    public Object actor(Pool pool, Seed seed) throws Throwable {
+        return play(pool, seed);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object actorAcrossGames(Pool pool, Seed seed) throws Throwable {
+        return play(pool, seed);
+    }
+
+    /**
+     * plays a game through an actor
+     * @param pool the executor the actor runs on
+     * @param seed the seed of the game
+     * @return the snapshot after the last command
+     * @throws Throwable if a command cannot be sent
+     */
+    private static Object play(Pool pool, Seed seed) throws Throwable {
+        Object actor = (Object) Game.NEW_GAME_ACTOR.invokeExact(Game.newGame(1, seed.next++), (Object) pool.executor);
+        Object last = null;
+        for(int turn = 0; turn < Game.YAHTZEE_CATEGORY + 1; turn++){
+            last = (Object) Game.ACTOR_ROLL_DICE.invokeExact(actor);
+            last = (Object) Game.ACTOR_ROLL_DICE.invokeExact(actor);
+            last = (Object) Game.ACTOR_ROLL_DICE.invokeExact(actor);
+            last = (Object) Game.ACTOR_SCORE_CATEGORY.invokeExact(actor, Game.YAHTZEE_CATEGORY - turn);
+            last = (Object) Game.ACTOR_NEXT_TURN.invokeExact(actor);
+        }
+        return ((CompletableFuture<?>) last).join();
+    }
+}
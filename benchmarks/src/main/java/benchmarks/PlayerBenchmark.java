@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * PlayerBenchmark.java
+ *
+ * This class measures Player.getTotalScore() on the players of finished games
+ *
+ * @author Robert Kenney
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+
+    /** the number of players in the ring, a power of two */
+    public static final int NUM_PLAYERS = 1024;
+
+    /** the players of finished games */
+    private Object[] players;
+
+    /** the position in the ring */
+    private int next;
+
+    /**
+     * plays the games
+     * @throws Throwable if the games cannot be played
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        Object seats = Game.greedySeats(1);
+        players = new Object[NUM_PLAYERS];
+        for(int player = 0; player < NUM_PLAYERS; player++){
+            Object game = Game.newGame(1, player);
+            Game.PLAY_GAME.invokeExact(game, seats);
+            players[player] = (Object) Game.GET_CURRENT_PLAYER.invokeExact(game);
+        }
+    }
+
+    @Benchmark
+    public int getTotalScore() throws Throwable {
+        next = (next + 1) & (NUM_PLAYERS - 1);
+        return (int) Game.GET_TOTAL_SCORE.invokeExact(players[next]);
+    }
+}
@@ -0,0 +1,106 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * ScoreCategoryBenchmark.java
+ *
+ * This class measures each of the Yahtzee.scoreXxx() methods. a category
+ * can only be scored once, so every call makes and rolls a fresh game
+ * first. newRolledGame() does only that part, and is the baseline to
+ * subtract from the others to get the cost of the scoring itself
+ *
+ * @author Robert Kenney
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreCategoryBenchmark {
+
+    /** the seed of the next game */
+    private long seed;
+
+    /**
+     * makes a new game and rolls its dice
+     * @return the game
+     * @throws Throwable never
+     */
+    private Object rolledGame() throws Throwable {
+        Object game = (Object) Game.NEW_YAHTZEE.invokeExact(1, seed++);
+        Game.ROLL_DICE.invokeExact(game);
+        return game;
+    }
+
+    @Benchmark
+    public Object newRolledGame() throws Throwable {
+        return rolledGame();
+    }
+
+    @Benchmark
+    public Object scoreNumeric() throws Throwable {
+        Object game = rolledGame();
+        Game.SCORE_NUMERIC.invokeExact(game, (int) (seed % 6));
+        return game;
+    }
+
+    @Benchmark
+    public Object scoreThreeOfAKind() throws Throwable {
+        Object game = rolledGame();
+        Game.SCORE_THREE_OF_A_KIND.invokeExact(game);
+        return game;
+    }
+
+    @Benchmark
+    public Object scoreFourOfAKind() throws Throwable {
+        Object game = rolledGame();
+        Game.SCORE_FOUR_OF_A_KIND.invokeExact(game);
+        return game;
+    }
+
+    @Benchmark
+    public Object scoreFullHouse() throws Throwable {
+        Object game = rolledGame();
+        Game.SCORE_FULL_HOUSE.invokeExact(game);
+        return game;
+    }
+
+    @Benchmark
+    public Object scoreSmallStraight() throws Throwable {
+        Object game = rolledGame();
+        Game.SCORE_SMALL_STRAIGHT.invokeExact(game);
+        return game;
+    }
+
+    @Benchmark
+    public Object scoreLargeStraight() throws Throwable {
+        Object game = rolledGame();
+        Game.SCORE_LARGE_STRAIGHT.invokeExact(game);
+        return game;
+    }
+
+    @Benchmark
+    public Object scoreChance() throws Throwable {
+        Object game = rolledGame();
+        Game.SCORE_CHANCE.invokeExact(game);
+        return game;
+    }
+
+    @Benchmark
+    public Object scoreYahtzee() throws Throwable {
+        Object game = rolledGame();
+        Game.SCORE_YAHTZEE.invokeExact(game);
+        return game;
+    }
+
+    @Benchmark
+    public Object scoreYahtzeeBonus() throws Throwable {
+        Object game = rolledGame();
+        Game.SCORE_YAHTZEE_BONUS.invokeExact(game);
+        return game;
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * SnapshotBenchmark.java
+ *
+ * This class measures packing a game part way through into longs with
+ * Yahtzee.snapshot() and setting it back with Yahtzee.restore(), the copy
+ * and undo of a search. neither should allocate, which running with
+ * -prof gc shows
+ *
+ * @author Robert Kenney
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    /** the number of players in the game */
+    @Param({"1", "4"})
+    public int numPlayers;
+
+    /** the game */
+    private Object game;
+
+    /** the packed game, passed to the handles as an Object */
+    private long[] state;
+
+    /**
+     * plays part of a game, so the scorecards are half full
+     * @throws Throwable if the game cannot be played
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        game = Game.newGame(numPlayers, 42);
+        for(int turn = 0; turn < 6 * numPlayers; turn++){
+            Game.ROLL_DICE.invokeExact(game);
+            Game.SCORE_CATEGORY.invokeExact(game, Game.YAHTZEE_CATEGORY - turn / numPlayers);
+            Game.NEXT_TURN.invokeExact(game);
+        }
+        Game.ROLL_DICE.invokeExact(game);
+        state = new long[numPlayers + 1];
+    }
+
+    @Benchmark
+    public Object snapshot() throws Throwable {
+        return (Object) Game.SNAPSHOT.invokeExact(game, (Object) state);
+    }
+
+    @Benchmark
+    public Object snapshotAndRestore() throws Throwable {
+        Object packed = (Object) Game.SNAPSHOT.invokeExact(game, (Object) state);
+        Game.RESTORE.invokeExact(game, packed);
+        return game;
+    }
+}